@@ -0,0 +1,20 @@
+package com.skycstech.graphclient.benchmarks;
+
+import com.skycstech.graphclient.core.annotation.GraphFeignRequest;
+import com.skycstech.graphclient.core.annotation.GraphFeignVariable;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface BenchmarkClient {
+
+    @GraphFeignRequest(documentName = "booksQuery", retrievePath = "books")
+    List<Book> books(@GraphFeignVariable("first") int first, @GraphFeignVariable("filter") BookFilter filter);
+
+    /**
+     * Not subscribed by the dispatch benchmark, so only the invocation and binding are measured.
+     */
+    @GraphFeignRequest(documentName = "booksQuery")
+    Mono<ClientGraphQlResponse> prepareBooks(@GraphFeignVariable("first") int first, @GraphFeignVariable("filter") BookFilter filter);
+}
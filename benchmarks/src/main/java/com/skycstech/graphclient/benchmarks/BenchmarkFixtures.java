@@ -0,0 +1,48 @@
+package com.skycstech.graphclient.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.GraphFeign;
+import com.skycstech.graphclient.core.GraphFeignCustomizer;
+import org.springframework.graphql.client.HttpGraphQlClient;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.function.Consumer;
+
+final class BenchmarkFixtures {
+
+    /**
+     * Large enough for the {@link Payload#LARGE} response.
+     */
+    private static final int MAX_IN_MEMORY_SIZE = 64 * 1024 * 1024;
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BenchmarkFixtures() {
+    }
+
+    static GraphFeign graphFeign(String url) {
+        GraphFeignCustomizer customizer = new GraphFeignCustomizer();
+        customizer.setObjectMapper(OBJECT_MAPPER);
+        customizer.setCodecConfigurer(customizer.getCodecConfigurer().andThen(maxInMemorySize()));
+        return GraphFeign.builder()
+                .name("benchmarkClient")
+                .type(BenchmarkClient.class)
+                .url(url)
+                .customizer(customizer)
+                .build();
+    }
+
+    /**
+     * Plain client configured with the same codecs, as the baseline.
+     */
+    static HttpGraphQlClient httpGraphQlClient(String url) {
+        return HttpGraphQlClient.builder(WebClient.builder().baseUrl(url).build())
+                .codecConfigurer(new GraphFeignCustomizer().getCodecConfigurer().andThen(maxInMemorySize()))
+                .build();
+    }
+
+    private static Consumer<CodecConfigurer> maxInMemorySize() {
+        return configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE);
+    }
+}
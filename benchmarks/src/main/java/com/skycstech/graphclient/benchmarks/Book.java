@@ -0,0 +1,7 @@
+package com.skycstech.graphclient.benchmarks;
+
+public record Book(String id, String name, int pageCount, Author author) {
+
+    public record Author(String id, String firstName, String lastName) {
+    }
+}
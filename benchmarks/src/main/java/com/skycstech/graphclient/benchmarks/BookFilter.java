@@ -0,0 +1,6 @@
+package com.skycstech.graphclient.benchmarks;
+
+import java.util.List;
+
+public record BookFilter(String nameContains, List<String> ids) {
+}
@@ -0,0 +1,76 @@
+package com.skycstech.graphclient.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.client.GraphQlClient;
+import org.springframework.graphql.client.GraphQlTransport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request encoding and response decoding, without I/O.
+ * <p>Decoding parses the response bytes as the HTTP transport does, then converts the field to entities
+ * through {@link GraphQlClient}, as GraphFeign does for {@code retrievePath}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private static final String DOCUMENT = "query books($first: Int!, $filter: BookFilter) "
+            + "{books(first: $first, filter: $filter) {id name pageCount author {id firstName lastName}}}";
+
+    @Param
+    private Payload payload;
+
+    private Map<String, Object> request;
+    private byte[] response;
+    private GraphQlClient decodingClient;
+
+    @Setup
+    public void setup() {
+        this.request = Map.of("query", DOCUMENT, "variables", Map.of("first", this.payload.size(), "filter", this.payload.filter()));
+        this.response = this.payload.responseBytes(BenchmarkFixtures.OBJECT_MAPPER);
+        this.decodingClient = GraphQlClient.builder(new GraphQlTransport() {
+            @Override
+            public Mono<GraphQlResponse> execute(GraphQlRequest request) {
+                return Mono.fromCallable(() -> GraphQlTransport.createResponse(decode(CodecBenchmark.this.response)));
+            }
+
+            @Override
+            public Flux<GraphQlResponse> executeSubscription(GraphQlRequest request) {
+                return Flux.from(execute(request));
+            }
+        }).build();
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() throws IOException {
+        return BenchmarkFixtures.OBJECT_MAPPER.writeValueAsBytes(this.request);
+    }
+
+    @Benchmark
+    public List<Book> decodeResponse() {
+        return this.decodingClient.document(DOCUMENT)
+                .retrieve("books")
+                .toEntityList(Book.class)
+                .block();
+    }
+
+    private static Map<String, Object> decode(byte[] bytes) throws IOException {
+        return BenchmarkFixtures.OBJECT_MAPPER.readValue(bytes, MAP_TYPE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.skycstech.graphclient.benchmarks;
+
+import com.skycstech.graphclient.core.GraphFeign;
+import com.skycstech.graphclient.core.GraphFeignArguments;
+import com.skycstech.graphclient.core.GraphFeignMethodHandle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proxy dispatch and parameter and variable binding, without I/O: the returned {@code Mono} is not subscribed.
+ * The method handle is the path taken by implementations generated at build time, the arguments bound like the
+ * generated code binds them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final BookFilter FILTER = new BookFilter("Book", List.of("book-1"));
+
+    private BenchmarkClient proxy;
+    private GraphFeignMethodHandle methodHandle;
+
+    @Setup
+    public void setup() {
+        GraphFeign graphFeign = BenchmarkFixtures.graphFeign("http://127.0.0.1:1/graphql");
+        this.proxy = graphFeign.newInstance();
+        this.methodHandle = graphFeign.methodHandle(new ParameterizedTypeReference<ClientGraphQlResponse>() {},
+                "prepareBooks", int.class, BookFilter.class);
+    }
+
+    @Benchmark
+    public Object proxy() {
+        return this.proxy.prepareBooks(10, FILTER);
+    }
+
+    @Benchmark
+    public Object methodHandle() {
+        return this.methodHandle.invoke(new GraphFeignArguments()
+                .documentName("booksQuery")
+                .variable("first", 10)
+                .variable("filter", FILTER));
+    }
+}
@@ -0,0 +1,57 @@
+package com.skycstech.graphclient.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.graphql.client.HttpGraphQlClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end call against the loopback server: dispatch, binding, request encoding, HTTP and response decoding,
+ * compared with the same request through a plain {@link HttpGraphQlClient}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvocationBenchmark {
+
+    private static final BookFilter FILTER = new BookFilter("Book", List.of("book-1"));
+
+    @Param
+    private Payload payload;
+
+    private LoopbackGraphQlServer server;
+    private BenchmarkClient client;
+    private HttpGraphQlClient httpGraphQlClient;
+
+    @Setup
+    public void setup() {
+        this.server = new LoopbackGraphQlServer(BenchmarkFixtures.OBJECT_MAPPER);
+        String url = this.server.url(this.payload);
+        this.client = BenchmarkFixtures.graphFeign(url).newInstance();
+        this.httpGraphQlClient = BenchmarkFixtures.httpGraphQlClient(url);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.server.close();
+    }
+
+    @Benchmark
+    public List<Book> graphFeign() {
+        return this.client.books(this.payload.size(), FILTER);
+    }
+
+    @Benchmark
+    public List<Book> httpGraphQlClient() {
+        return this.httpGraphQlClient.documentName("booksQuery")
+                .variable("first", this.payload.size())
+                .variable("filter", FILTER)
+                .retrieve("books")
+                .toEntityList(Book.class)
+                .block();
+    }
+}
@@ -0,0 +1,49 @@
+package com.skycstech.graphclient.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process stub server answering {@code POST /graphql/<payload>} with a pre-rendered response,
+ * so the benchmarks measure the client rather than a GraphQL engine.
+ */
+public final class LoopbackGraphQlServer implements AutoCloseable {
+
+    private final DisposableServer server;
+
+    public LoopbackGraphQlServer(ObjectMapper objectMapper) {
+        Map<Payload, byte[]> responses = new EnumMap<>(Payload.class);
+        for (Payload payload : Payload.values()) {
+            responses.put(payload, payload.responseBytes(objectMapper));
+        }
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> responses.forEach((payload, body) -> routes.post(path(payload), (request, response) ->
+                        request.receive().then().then(Mono.defer(() -> Mono.from(response
+                                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length))
+                                .sendByteArray(Mono.just(body))))))))
+                .bindNow();
+    }
+
+    public String url(Payload payload) {
+        return "http://127.0.0.1:" + this.server.port() + path(payload);
+    }
+
+    private static String path(Payload payload) {
+        return "/graphql/" + payload.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        this.server.disposeNow();
+    }
+}
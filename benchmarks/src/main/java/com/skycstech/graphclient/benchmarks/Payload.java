@@ -0,0 +1,53 @@
+package com.skycstech.graphclient.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of books returned by the stub server, and sent as ids in the request filter.
+ */
+public enum Payload {
+
+    SMALL(1),
+    MEDIUM(100),
+    LARGE(50_000);
+
+    private final int size;
+
+    Payload(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public List<Book> books() {
+        List<Book> books = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            books.add(new Book("book-" + i, "Book number " + i, 100 + i % 900,
+                    new Book.Author("author-" + i % 50, "First" + i % 50, "Last" + i % 50)));
+        }
+        return books;
+    }
+
+    public BookFilter filter() {
+        List<String> ids = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            ids.add("book-" + i);
+        }
+        return new BookFilter("Book", ids);
+    }
+
+    public byte[] responseBytes(ObjectMapper objectMapper) {
+        try {
+            return objectMapper.writeValueAsBytes(Map.of("data", Map.of("books", books())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to render payload " + this, e);
+        }
+    }
+}
@@ -3,9 +3,14 @@ package com.skycstech.graphclient;
 import com.skycstech.graphclient.core.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.actuator.HasFeatures;
 import org.springframework.context.annotation.Bean;
@@ -41,6 +46,26 @@ public class GraphClientAutoConfiguration {
         return context;
     }
 
+    @Bean
+    public GraphFeignConfigurationRegistry graphFeignConfigurationRegistry(BeanFactory beanFactory, GraphFeignContext graphFeignContext) {
+        return new GraphFeignConfigurationRegistry(beanFactory, graphFeignContext);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "graph-feign.client.warm-up", name = "enabled", havingValue = "true")
+    public GraphFeignWarmUp graphFeignWarmUp(ConfigurableListableBeanFactory beanFactory, GraphFeignConfigurationRegistry registry,
+                                             GraphFeignClientProperties properties) {
+        return new GraphFeignWarmUp(beanFactory, registry, properties.getWarmUp());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnAvailableEndpoint
+    public GraphFeignEndpoint graphFeignEndpoint(ConfigurableListableBeanFactory beanFactory, GraphFeignConfigurationRegistry registry,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new GraphFeignEndpoint(beanFactory, registry, meterRegistry.getIfAvailable());
+    }
+
     @Bean
     @ConditionalOnMissingBean(GraphFeignCustomizer.class)
     public GraphFeignCustomizer graphFeignCustomizer() {
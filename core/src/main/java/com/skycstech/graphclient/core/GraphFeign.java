@@ -1,44 +1,162 @@
 package com.skycstech.graphclient.core;
 
+import com.skycstech.graphclient.core.auth.GraphFeignTokenCache;
+import com.skycstech.graphclient.core.auth.GraphFeignTokenProvider;
+import com.skycstech.graphclient.core.annotation.GraphFeignBackpressure;
+import com.skycstech.graphclient.core.annotation.GraphFeignCache;
+import com.skycstech.graphclient.core.annotation.GraphFeignCacheEvict;
 import com.skycstech.graphclient.core.annotation.GraphFeignDocument;
 import com.skycstech.graphclient.core.annotation.GraphFeignHeader;
+import com.skycstech.graphclient.core.annotation.GraphFeignPaginated;
 import com.skycstech.graphclient.core.annotation.GraphFeignRequest;
+import com.skycstech.graphclient.core.annotation.GraphFeignScatter;
+import com.skycstech.graphclient.core.annotation.GraphFeignShardKey;
+import com.skycstech.graphclient.core.annotation.GraphFeignShared;
+import com.skycstech.graphclient.core.annotation.GraphFeignSink;
+import com.skycstech.graphclient.core.annotation.GraphFeignTenant;
 import com.skycstech.graphclient.core.annotation.GraphFeignVariable;
+import com.skycstech.graphclient.core.cache.GraphFeignNormalizedCache;
+import com.skycstech.graphclient.core.cache.GraphFeignResponseStore;
+import com.skycstech.graphclient.core.cache.NormalizedCacheGraphQlTransport;
+import com.skycstech.graphclient.core.capture.GraphFeignTrafficCapture;
+import com.skycstech.graphclient.core.document.GraphFeignDocumentGenerator;
 import com.skycstech.graphclient.core.exception.GraphFeignException;
+import com.skycstech.graphclient.core.metrics.GraphFeignMetrics;
+import com.skycstech.graphclient.core.ratelimit.GraphFeignRateLimiter;
+import com.skycstech.graphclient.core.tracing.GraphFeignTracing;
+import com.skycstech.graphclient.core.transport.GraphFeignTransport;
+import com.skycstech.graphclient.core.transport.GetHttpGraphQlTransport;
+import com.skycstech.graphclient.core.transport.GraphFeignETagCache;
+import com.skycstech.graphclient.core.transport.IncrementalHttpGraphQlTransport;
+import com.skycstech.graphclient.core.transport.JsonHttpGraphQlTransport;
+import com.skycstech.graphclient.core.transport.RawHttpGraphQlExchange;
+import com.skycstech.graphclient.core.transport.SharedWebSocketGraphQlTransport;
+import com.skycstech.graphclient.core.transport.WebSocketKeepAliveHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.graphql.client.ClientGraphQlResponse;
-import org.springframework.graphql.client.GraphQlClient;
-import org.springframework.graphql.client.HttpGraphQlClient;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.graphql.client.*;
+import org.springframework.graphql.support.CachingDocumentSource;
+import org.springframework.graphql.support.DocumentSource;
+import org.springframework.graphql.support.ResourceDocumentSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.*;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @SuppressWarnings({"unused"})
 public class GraphFeign {
 
+    private static final Logger log = LoggerFactory.getLogger(GraphFeign.class);
+
+    static final String GENERATED_IMPLEMENTATION_SUFFIX = "_GraphFeignImpl";
+
+    /**
+     * Same location the GraphQlClient builders load documents from by default.
+     */
+    static final String DEFAULT_DOCUMENT_LOCATION = "graphql-documents/";
+
     private final String name;
     private final Class<?> type;
+    private final String url;
     private final HttpGraphQlClient.Builder<?> gqlClientBuilder;
     private final GraphFeignClientConfiguration gqlClientConfiguration;
+    private final GraphFeignTransport transport;
+    private final WebSocketGraphQlClient webSocketGraphQlClient;
+    private final Retry resubscribeRetry;
+    private final WebClient webClient;
+    private final GraphFeignCustomizer customizer;
+    private final DocumentSource documentSource;
+    private final GraphFeignMetrics metrics;
+    private final GraphFeignTracing tracing;
+    private final GraphFeignNormalizedCache normalizedCache;
+    private final GraphFeignRateLimiter rateLimiter;
+    private final GraphFeignETagCache etagCache;
+    private final List<ExchangeFilterFunction> filters;
+    private final GraphFeignClientProperties.Tenants tenantsProperties;
+    private final GraphFeignClientProperties.Raw rawProperties;
+    private final Map<String, String> shards;
+    private final Duration shardTimeout;
+    private final Duration sharedGracePeriod;
+    private final Class<?> implementation;
+    private GraphFeignInvocationHandler invocationHandler;
 
-    GraphFeign(String name, Class<?> type,
+    GraphFeign(String name, Class<?> type, String url,
                HttpGraphQlClient.Builder<?> gqlClientBuilder,
-               GraphFeignClientConfiguration gqlClientConfiguration) {
+               GraphFeignClientConfiguration gqlClientConfiguration,
+               GraphFeignTransport transport,
+               WebSocketGraphQlClient webSocketGraphQlClient,
+               Retry resubscribeRetry,
+               WebClient webClient,
+               GraphFeignCustomizer customizer,
+               DocumentSource documentSource,
+               GraphFeignMetrics metrics,
+               GraphFeignTracing tracing,
+               GraphFeignNormalizedCache normalizedCache,
+               GraphFeignRateLimiter rateLimiter,
+               GraphFeignETagCache etagCache,
+               List<ExchangeFilterFunction> filters,
+               GraphFeignClientProperties.Tenants tenantsProperties,
+               GraphFeignClientProperties.Raw rawProperties,
+               Map<String, String> shards,
+               Duration shardTimeout,
+               Duration sharedGracePeriod,
+               Class<?> implementation) {
         this.name = name;
         this.type = type;
+        this.url = url;
         this.gqlClientBuilder = gqlClientBuilder;
         this.gqlClientConfiguration = gqlClientConfiguration;
+        this.transport = transport;
+        this.webSocketGraphQlClient = webSocketGraphQlClient;
+        this.resubscribeRetry = resubscribeRetry;
+        this.webClient = webClient;
+        this.customizer = customizer;
+        this.documentSource = documentSource;
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.normalizedCache = normalizedCache;
+        this.rateLimiter = rateLimiter;
+        this.etagCache = etagCache;
+        this.filters = filters;
+        this.tenantsProperties = tenantsProperties;
+        this.rawProperties = rawProperties;
+        this.shards = shards;
+        this.shardTimeout = shardTimeout;
+        this.sharedGracePeriod = sharedGracePeriod;
+        this.implementation = implementation;
     }
 
     public static Builder builder() {
@@ -46,17 +164,39 @@ public class GraphFeign {
     }
 
     public static class Builder {
+
+        private static final Logger log = LoggerFactory.getLogger(Builder.class);
+
         // From annotation
         private String name;
         private Class<?> type;
         private String url;
+        private String webSocketUrl;
+        private Map<String, String> shards = Map.of();
+        private GraphFeignTransport transport = GraphFeignTransport.HTTP;
         private GraphFeignClientConfiguration graphFeignClientConfiguration;
 
+        // From annotation processor
+        private Class<?> implementation;
+
         // From context
         private GraphFeignCustomizer customizer;
+        private MeterRegistry meterRegistry;
+        private double[] metricsPercentiles = new double[0];
+        private GraphFeignTracing tracing = GraphFeignTracing.disabled();
+        private GraphFeignTrafficCapture trafficCapture = GraphFeignTrafficCapture.disabled();
 
         // From properties
         private boolean disableSslValidation = Boolean.FALSE;
+        private GraphFeignClientProperties.WebSocket webSocketProperties = new GraphFeignClientProperties.WebSocket();
+        private GraphFeignClientProperties.NormalizedCache normalizedCacheProperties = new GraphFeignClientProperties.NormalizedCache();
+        private GraphFeignClientProperties.Tenants tenantsProperties = new GraphFeignClientProperties.Tenants();
+        private GraphFeignClientProperties.Token tokenProperties = new GraphFeignClientProperties.Token();
+        private GraphFeignClientProperties.RateLimit rateLimitProperties = new GraphFeignClientProperties.RateLimit();
+        private GraphFeignClientProperties.Scatter scatterProperties = new GraphFeignClientProperties.Scatter();
+        private GraphFeignClientProperties.HttpGet httpGetProperties = new GraphFeignClientProperties.HttpGet();
+        private GraphFeignClientProperties.Raw rawProperties = new GraphFeignClientProperties.Raw();
+        private GraphFeignClientProperties.SharedSubscriptions sharedSubscriptionsProperties = new GraphFeignClientProperties.SharedSubscriptions();
 
         public Builder name(String name) {
             this.name = name;
@@ -73,6 +213,21 @@ public class GraphFeign {
             return this;
         }
 
+        public Builder webSocketUrl(String webSocketUrl) {
+            this.webSocketUrl = webSocketUrl;
+            return this;
+        }
+
+        public Builder shards(Map<String, String> shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        public Builder transport(GraphFeignTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
         public Builder graphFeignClientConfiguration(GraphFeignClientConfiguration graphFeignClientConfiguration) {
             this.graphFeignClientConfiguration = graphFeignClientConfiguration;
             return this;
@@ -88,6 +243,76 @@ public class GraphFeign {
             return this;
         }
 
+        public Builder implementation(Class<?> implementation) {
+            this.implementation = implementation;
+            return this;
+        }
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public Builder metricsPercentiles(double... metricsPercentiles) {
+            this.metricsPercentiles = metricsPercentiles;
+            return this;
+        }
+
+        public Builder tracing(GraphFeignTracing tracing) {
+            this.tracing = tracing;
+            return this;
+        }
+
+        public Builder trafficCapture(GraphFeignTrafficCapture trafficCapture) {
+            this.trafficCapture = trafficCapture;
+            return this;
+        }
+
+        public Builder webSocketProperties(GraphFeignClientProperties.WebSocket webSocketProperties) {
+            this.webSocketProperties = webSocketProperties;
+            return this;
+        }
+
+        public Builder normalizedCacheProperties(GraphFeignClientProperties.NormalizedCache normalizedCacheProperties) {
+            this.normalizedCacheProperties = normalizedCacheProperties;
+            return this;
+        }
+
+        public Builder tenantsProperties(GraphFeignClientProperties.Tenants tenantsProperties) {
+            this.tenantsProperties = tenantsProperties;
+            return this;
+        }
+
+        public Builder tokenProperties(GraphFeignClientProperties.Token tokenProperties) {
+            this.tokenProperties = tokenProperties;
+            return this;
+        }
+
+        public Builder rateLimitProperties(GraphFeignClientProperties.RateLimit rateLimitProperties) {
+            this.rateLimitProperties = rateLimitProperties;
+            return this;
+        }
+
+        public Builder scatterProperties(GraphFeignClientProperties.Scatter scatterProperties) {
+            this.scatterProperties = scatterProperties;
+            return this;
+        }
+
+        public Builder httpGetProperties(GraphFeignClientProperties.HttpGet httpGetProperties) {
+            this.httpGetProperties = httpGetProperties;
+            return this;
+        }
+
+        public Builder rawProperties(GraphFeignClientProperties.Raw rawProperties) {
+            this.rawProperties = rawProperties;
+            return this;
+        }
+
+        public Builder sharedSubscriptionsProperties(GraphFeignClientProperties.SharedSubscriptions sharedSubscriptionsProperties) {
+            this.sharedSubscriptionsProperties = sharedSubscriptionsProperties;
+            return this;
+        }
+
         public <T> T target() {
             return build().newInstance();
         }
@@ -95,15 +320,13 @@ public class GraphFeign {
         public GraphFeign build() {
             WebClient webClient = WebClient.builder()
                     .baseUrl(this.url)
-                    .filter(this.customizer.getGraphFeignLogger().logRequest())
-                    .filter(this.customizer.getGraphFeignLogger().logResponse())
+                    .filter(this.customizer.getGraphFeignLogger().filter())
                     .build();
 
             if (this.customizer.getWebClient() != null) {
                 webClient = this.customizer.getWebClient().mutate()
                         .baseUrl(this.url)
-                        .filter(this.customizer.getGraphFeignLogger().logRequest())
-                        .filter(this.customizer.getGraphFeignLogger().logResponse())
+                        .filter(this.customizer.getGraphFeignLogger().filter())
                         .build();
             } else if (this.disableSslValidation) {
                 try {
@@ -117,32 +340,300 @@ public class GraphFeign {
                     webClient = WebClient.builder()
                             .clientConnector(new ReactorClientHttpConnector(httpClient))
                             .baseUrl(this.url)
-                            .filter(this.customizer.getGraphFeignLogger().logRequest())
-                            .filter(this.customizer.getGraphFeignLogger().logResponse())
+                            .filter(this.customizer.getGraphFeignLogger().filter())
                             .build();
                 } catch (Exception e) {
                     throw new GraphFeignException("Unable to construct web client with disable ssl validation.", e);
                 }
             }
 
+            GraphFeignMetrics metrics = GraphFeignMetrics.of(this.meterRegistry, this.name, this.metricsPercentiles);
+            List<ExchangeFilterFunction> instrumentation = new ArrayList<>();
+            GraphFeignTokenProvider tokenProvider = Optional.ofNullable(this.graphFeignClientConfiguration)
+                    .map(GraphFeignClientConfiguration::tokenProvider)
+                    .orElse(null);
+            ExchangeFilterFunction tokenFilter = null;
+            if (tokenProvider != null) {
+                GraphFeignTokenCache tokenCache = new GraphFeignTokenCache(this.name, tokenProvider, this.tokenProperties.getRefreshBefore(),
+                        this.tokenProperties.getFetchTimeout(), this.tokenProperties.getRetryInterval());
+                ExchangeFilterFunction bearerFilter = tokenCache.filter(this.graphFeignClientConfiguration.tokenAudience());
+                // First, so the logger and the capture see the request with its token
+                webClient = webClient.mutate().filters(filters -> filters.add(0, bearerFilter)).build();
+                tokenFilter = bearerFilter;
+            }
+            GraphFeignRateLimiter rateLimiter = null;
+            if (this.rateLimitProperties.isEnabled()) {
+                rateLimiter = new GraphFeignRateLimiter(this.name, this.rateLimitProperties.getRate(), this.rateLimitProperties.getCapacity(),
+                        this.rateLimitProperties.getDefaultCost(), this.rateLimitProperties.getMaxWait(),
+                        this.rateLimitProperties.getMaxRetries(), this.meterRegistry);
+                // Before the token, so requests sent again get a fresh one
+                ExchangeFilterFunction rateLimitFilter = rateLimiter.filter();
+                webClient = webClient.mutate().filters(filters -> filters.add(0, rateLimitFilter)).build();
+            }
+            // First, so every other filter sees the headers of the request
+            ExchangeFilterFunction requestHeadersFilter = GraphFeignRequestHeaders.filter();
+            webClient = webClient.mutate().filters(filters -> filters.add(0, requestHeadersFilter)).build();
+            if (this.meterRegistry != null) {
+                instrumentation.add(metrics.exchangeFilter());
+            }
+            if (this.tracing.isEnabled()) {
+                instrumentation.add(this.tracing.exchangeFilter());
+            }
+            if (this.trafficCapture.isEnabled()) {
+                instrumentation.add(this.trafficCapture.filter());
+            }
+            if (!instrumentation.isEmpty()) {
+                webClient = webClient.mutate().filters(filters -> filters.addAll(instrumentation)).build();
+            }
+            // Applied to the WebClients supplied per tenant as well
+            List<ExchangeFilterFunction> filters = new ArrayList<>();
+            filters.add(requestHeadersFilter);
+            Optional.ofNullable(rateLimiter).map(GraphFeignRateLimiter::filter).ifPresent(filters::add);
+            Optional.ofNullable(tokenFilter).ifPresent(filters::add);
+            filters.add(this.customizer.getGraphFeignLogger().filter());
+            filters.addAll(instrumentation);
+
             HttpGraphQlClient.Builder<?> gqlClientBuilder = HttpGraphQlClient.builder(webClient);
             if (this.customizer.getCodecConfigurer() != null) {
                 gqlClientBuilder.codecConfigurer(this.customizer.getCodecConfigurer());
             }
 
-            if (this.customizer.getContentLoader() != null) {
-                gqlClientBuilder.documentSource(this.customizer.getContentLoader());
+            // Shared by every client of this GraphFeign so documents are loaded once, and can be preloaded on warm-up
+            DocumentSource documentSource = Optional.ofNullable(this.customizer.getContentLoader())
+                    .orElseGet(() -> new CachingDocumentSource(new ResourceDocumentSource(
+                            List.of(new ClassPathResource(DEFAULT_DOCUMENT_LOCATION)), ResourceDocumentSource.FILE_EXTENSIONS)));
+            gqlClientBuilder.documentSource(documentSource);
+            if (this.tracing.isEnabled()) {
+                gqlClientBuilder.interceptor(this.tracing.interceptor());
+            }
+            Optional.ofNullable(rateLimiter).map(GraphFeignRateLimiter::interceptor).ifPresent(gqlClientBuilder::interceptor);
+
+            WebSocketGraphQlClient webSocketGraphQlClient = null;
+            Retry resubscribeRetry = null;
+            if (this.transport.requiresWebSocket()) {
+                webSocketGraphQlClient = buildWebSocketGraphQlClient(documentSource);
+                resubscribeRetry = Retry.backoff(this.webSocketProperties.getReconnectMaxAttempts(), this.webSocketProperties.getReconnectMinBackoff())
+                        .maxBackoff(this.webSocketProperties.getReconnectMaxBackoff())
+                        .filter(e -> e instanceof GraphQlTransportException || e instanceof IOException)
+                        .doBeforeRetry(signal -> log.warn("WebSocket connection lost for GraphFeignClient [{}], resubscribing (attempt {})", this.name, signal.totalRetries() + 1));
+            }
+
+            // Only clients with a method answered from the cache keep one, the others send their documents unchanged
+            GraphFeignNormalizedCache normalizedCache = null;
+            if (this.type.isAnnotationPresent(GraphFeignCache.class)
+                    || Arrays.stream(this.type.getMethods()).anyMatch(method -> method.isAnnotationPresent(GraphFeignCache.class))) {
+                GraphFeignClientProperties.NormalizedCache.Store storeProperties = this.normalizedCacheProperties.getStore();
+                GraphFeignResponseStore store = null;
+                if (storeProperties.isEnabled()) {
+                    Path file = Path.of(storeProperties.getDirectory(), this.name + ".store");
+                    try {
+                        store = GraphFeignResponseStore.open(file, storeProperties.getMaxSize().toBytes());
+                    } catch (IOException e) {
+                        log.warn("Unable to open response store [{}] for GraphFeignClient [{}], continuing without it: {}", file, this.name, e.getMessage());
+                    }
+                }
+                normalizedCache = new GraphFeignNormalizedCache(this.normalizedCacheProperties.getMaxEntities(),
+                        this.normalizedCacheProperties.getTtl(), this.customizer.getObjectMapper(), store, storeProperties.getTtl());
+            }
+
+            // Only clients with a method sent as GET keep the ETags of their responses
+            GraphFeignETagCache etagCache = null;
+            if (Arrays.stream(this.type.getMethods())
+                    .map(method -> method.getAnnotation(GraphFeignRequest.class))
+                    .anyMatch(request -> request != null && (request.isGet() || request.isPersistedQuery()))) {
+                etagCache = new GraphFeignETagCache(this.httpGetProperties.getMaxEntries());
             }
 
-            return new GraphFeign(this.name, this.type, gqlClientBuilder, this.graphFeignClientConfiguration);
+            return new GraphFeign(this.name, this.type, this.url, gqlClientBuilder, this.graphFeignClientConfiguration,
+                    this.transport, webSocketGraphQlClient, resubscribeRetry, webClient, this.customizer, documentSource, metrics, this.tracing,
+                    normalizedCache, rateLimiter, etagCache, List.copyOf(filters), this.tenantsProperties, this.rawProperties,
+                    Collections.unmodifiableMap(new LinkedHashMap<>(this.shards)), this.scatterProperties.getShardTimeout(),
+                    this.sharedSubscriptionsProperties.getGracePeriod(), this.implementation);
+        }
+
+        private WebSocketGraphQlClient buildWebSocketGraphQlClient(DocumentSource documentSource) {
+            HttpClient httpClient = HttpClient.create();
+            if (this.disableSslValidation) {
+                try {
+                    SslContext sslContext = SslContextBuilder
+                            .forClient()
+                            .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                            .build();
+                    httpClient = httpClient.secure(t -> t.sslContext(sslContext));
+                } catch (Exception e) {
+                    throw new GraphFeignException("Unable to construct websocket client with disable ssl validation.", e);
+                }
+            }
+
+            Duration keepAliveInterval = this.webSocketProperties.getKeepAliveInterval();
+            if (keepAliveInterval != null && !keepAliveInterval.isZero() && !keepAliveInterval.isNegative()) {
+                httpClient = httpClient.doOnConnected(connection -> connection
+                        .addHandlerLast(new IdleStateHandler(0, keepAliveInterval.toMillis(), 0, TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WebSocketKeepAliveHandler()));
+            }
+
+            // The WebSocket session is established lazily on the first request, and re-established
+            // on the next request once closed, so all methods of the client share one connection.
+            WebSocketGraphQlClient.Builder<?> webSocketClientBuilder = WebSocketGraphQlClient
+                    .builder(this.webSocketUrl, new ReactorNettyWebSocketClient(httpClient));
+            if (this.customizer.getCodecConfigurer() != null) {
+                webSocketClientBuilder.codecConfigurer(this.customizer.getCodecConfigurer());
+            }
+
+            webSocketClientBuilder.documentSource(documentSource);
+            if (this.tracing.isEnabled()) {
+                webSocketClientBuilder.interceptor(this.tracing.interceptor());
+            }
+
+            Optional.ofNullable(this.graphFeignClientConfiguration)
+                    .map(GraphFeignClientConfiguration::webSocketHeadersConsumer)
+                    .ifPresent(webSocketClientBuilder::headers);
+
+            return webSocketClientBuilder.build();
         }
 
     }
 
     @SuppressWarnings("unchecked")
     public <T> T newInstance() {
+        if (this.implementation != null) {
+            log.debug("Using generated implementation [{}] for GraphFeignClient [{}]", this.implementation.getName(), this.name);
+            Constructor<?> constructor = ClassUtils.getConstructorIfAvailable(this.implementation, GraphFeign.class);
+            if (constructor == null) {
+                throw new GraphFeignException("Generated implementation [" + this.implementation.getName() + "] has no GraphFeign constructor");
+            }
+            return (T) BeanUtils.instantiateClass(constructor, this);
+        }
         return (T) Proxy.newProxyInstance(this.type.getClassLoader(), new Class[]{this.type},
-                new GraphFeignInvocationHandler(this.gqlClientBuilder, this.gqlClientConfiguration));
+                getInvocationHandler());
+    }
+
+    /**
+     * Handle to execute the given method of the client directly, without going through a proxy, the response decoded
+     * to the type resolved from the return type of the method.
+     *
+     * @throws GraphFeignException if the client type has no such method
+     * @see #methodHandle(ParameterizedTypeReference, String, Class[])
+     */
+    public GraphFeignMethodHandle methodHandle(String methodName, Class<?>... parameterTypes) {
+        return methodHandle(null, methodName, parameterTypes);
+    }
+
+    /**
+     * Handle to execute the given method of the client directly, without going through a proxy.
+     * <p>Used by implementations generated at build time, which bind the arguments of each call and pass the type
+     * of the entities the response is decoded to, e.g. {@code Book} for a method returning {@code Mono<List<Book>>}.
+     * The metadata of the return type is resolved once here.
+     *
+     * @param entityType type of the entities of the response, {@code null} to resolve it from the return type
+     * @throws GraphFeignException if the client type has no such method
+     */
+    public GraphFeignMethodHandle methodHandle(ParameterizedTypeReference<?> entityType, String methodName, Class<?>... parameterTypes) {
+        try {
+            return getInvocationHandler().methodHandle(this.type.getMethod(methodName, parameterTypes), entityType);
+        } catch (NoSuchMethodException e) {
+            throw new GraphFeignException("No method [" + methodName + "] found in [" + this.type.getName() + "]", e);
+        }
+    }
+
+    /**
+     * Name of the implementation generated at build time for the given GraphFeignClient interface.
+     */
+    public static String generatedImplementationName(Class<?> type) {
+        return ClassUtils.getPackageName(type) + "." + ClassUtils.getShortName(type).replace('.', '_') + GENERATED_IMPLEMENTATION_SUFFIX;
+    }
+
+    /**
+     * Resolves the binding of every method and preloads the documents they use, then opens the given number of
+     * pooled connections to the endpoint and, if requested, sends a {@code { __typename }} query to it.
+     * <p>Connections are opened with concurrent {@code OPTIONS} requests, any response counts as opened.
+     * The WebSocket session, if the client uses one, is started as well.
+     */
+    public Mono<Void> warmUp(int connections, boolean ping) {
+        GraphFeignInvocationHandler handler = getInvocationHandler();
+        Mono<Void> documents = Flux.fromArray(this.type.getMethods())
+                .filter(method -> method.isAnnotationPresent(GraphFeignRequest.class))
+                .concatMap(handler::preload)
+                .then();
+
+        Mono<Void> pooledConnections = Flux.range(0, Math.max(connections, 0))
+                .flatMap(i -> this.webClient.method(HttpMethod.OPTIONS)
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode())))
+                .doOnNext(status -> log.debug("Opened connection to [{}] for GraphFeignClient [{}], status [{}]", this.url, this.name, status))
+                .then();
+
+        Mono<Void> typenamePing = !ping ? Mono.empty() : HttpGraphQlClient.builder(this.webClient).build()
+                .document("{ __typename }")
+                .retrieve("__typename")
+                .toEntity(String.class)
+                .doOnNext(typename -> log.debug("Ping of GraphFeignClient [{}] answered with [{}]", this.name, typename))
+                .then();
+
+        Mono<Void> webSocket = this.webSocketGraphQlClient != null ? this.webSocketGraphQlClient.start() : Mono.empty();
+
+        return documents.then(pooledConnections).then(typenamePing).then(webSocket);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    public String getUrl() {
+        return this.url;
+    }
+
+    public GraphFeignTransport getTransport() {
+        return this.transport;
+    }
+
+    public Class<?> getImplementation() {
+        return this.implementation;
+    }
+
+    public GraphFeignMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * The normalized cache of the client, {@code null} if none of its methods uses {@link GraphFeignCache}.
+     */
+    public GraphFeignNormalizedCache getNormalizedCache() {
+        return this.normalizedCache;
+    }
+
+    /**
+     * Rate limiter of the client, null if rate limiting is disabled.
+     */
+    public GraphFeignRateLimiter getRateLimiter() {
+        return this.rateLimiter;
+    }
+
+    /**
+     * Releases the resources held by the client, the response store of its normalized cache is forced to the
+     * disk and unlocked. Called when the client bean is destroyed.
+     */
+    public void close() {
+        GraphFeignResponseStore store = this.normalizedCache != null ? this.normalizedCache.getStore() : null;
+        if (store == null) {
+            return;
+        }
+        try {
+            store.close();
+            log.debug("Closed response store of GraphFeignClient [{}]", this.name);
+        } catch (IOException e) {
+            log.warn("Unable to close response store of GraphFeignClient [{}]: {}", this.name, e.getMessage());
+        }
+    }
+
+    private synchronized GraphFeignInvocationHandler getInvocationHandler() {
+        if (this.invocationHandler == null) {
+            this.invocationHandler = new GraphFeignInvocationHandler(this);
+        }
+        return this.invocationHandler;
     }
 
 
@@ -150,12 +641,63 @@ public class GraphFeign {
 
         private static final Logger log = LoggerFactory.getLogger(GraphFeignInvocationHandler.class);
 
-        private final HttpGraphQlClient.Builder<?> builder;
+        private final HttpGraphQlClient graphQlClient;
         private final GraphFeignClientConfiguration configuration;
+        private final GraphFeignTransport transport;
+        private final WebSocketGraphQlClient webSocketGraphQlClient;
+        private final Retry resubscribeRetry;
+        private final WebClient webClient;
+        private final GraphFeignCustomizer customizer;
+        private final DocumentSource documentSource;
+        private final GraphFeignMetrics metrics;
+        private final GraphFeignTracing tracing;
+        private final GraphFeignNormalizedCache normalizedCache;
+        private final GraphFeignRateLimiter rateLimiter;
+        private final GraphFeignETagCache etagCache;
+        private final String url;
+        private final List<ExchangeFilterFunction> filters;
+        private final GraphFeignTenants<TenantClient> tenants;
+        private final GraphFeignClientProperties.Raw rawProperties;
+        private final Map<String, TenantClient> shards;
+        private final List<String> shardNames;
+        private final Duration shardTimeout;
+        private final Duration sharedGracePeriod;
+        private final GraphFeignDocumentGenerator documentGenerator;
+        private final Map<Method, ArgumentBinder> argumentBinders = new ConcurrentHashMap<>();
+        private final Map<Method, CachePolicy> cachePolicies = new ConcurrentHashMap<>();
+        private final Map<Method, ScatterPolicy> scatterPolicies = new ConcurrentHashMap<>();
+        private final Map<SharedKey, Flux<?>> sharedSubscriptions = new ConcurrentHashMap<>();
+        private final Map<Method, ResponseBinder> responseBinders = new ConcurrentHashMap<>();
+        private final Map<Method, GraphQlClient> webSocketClients = new ConcurrentHashMap<>();
+        private final Map<Method, GraphQlClient> clients = new ConcurrentHashMap<>();
 
-        GraphFeignInvocationHandler(HttpGraphQlClient.Builder<?> builder, GraphFeignClientConfiguration configuration) {
-            this.builder = builder;
-            this.configuration = configuration;
+        GraphFeignInvocationHandler(GraphFeign graphFeign) {
+            this.graphQlClient = graphFeign.gqlClientBuilder.build();
+            this.configuration = graphFeign.gqlClientConfiguration;
+            this.transport = graphFeign.transport;
+            this.webSocketGraphQlClient = graphFeign.webSocketGraphQlClient;
+            this.resubscribeRetry = graphFeign.resubscribeRetry;
+            this.webClient = graphFeign.webClient;
+            this.customizer = graphFeign.customizer;
+            this.documentSource = graphFeign.documentSource;
+            this.metrics = graphFeign.metrics;
+            this.tracing = graphFeign.tracing;
+            this.normalizedCache = graphFeign.normalizedCache;
+            this.rateLimiter = graphFeign.rateLimiter;
+            this.etagCache = graphFeign.etagCache;
+            this.url = graphFeign.url;
+            this.filters = graphFeign.filters;
+            this.tenants = new GraphFeignTenants<>(graphFeign.name, graphFeign.tenantsProperties.getMaxTenants(),
+                    graphFeign.tenantsProperties.getIdleTimeout(), this::createTenant);
+            this.rawProperties = graphFeign.rawProperties;
+            // Shards are built once, each with its own base URL and the filters of the client
+            this.shards = new HashMap<>();
+            graphFeign.shards.forEach((shard, shardUrl) -> this.shards.put(shard,
+                    new TenantClient(shard, this.webClient.mutate().baseUrl(shardUrl).build(), null, new ConcurrentHashMap<>())));
+            this.shardNames = List.copyOf(graphFeign.shards.keySet());
+            this.shardTimeout = graphFeign.shardTimeout;
+            this.sharedGracePeriod = graphFeign.sharedGracePeriod;
+            this.documentGenerator = new GraphFeignDocumentGenerator(graphFeign.customizer.getObjectMapper());
         }
 
         @Override
@@ -172,45 +714,158 @@ public class GraphFeign {
                 }
                 case "hashCode" -> hashCode();
                 case "toString" -> toString();
-                default -> buildAndExecuteRequest(method, args);
+                default -> execute(method, getArgumentBinder(method).bind(args));
             };
         }
 
+        /**
+         * Resolves the metadata of the given method once and returns a handle that executes it directly with the
+         * arguments bound by the caller, the response decoded to the given entity type if there is one.
+         */
+        GraphFeignMethodHandle methodHandle(Method method, ParameterizedTypeReference<?> entityType) {
+            if (!method.isAnnotationPresent(GraphFeignRequest.class)) {
+                throw new IllegalArgumentException("Method [" + method.getName() + "] must be annotated with @GraphFeignRequest");
+            }
+            getArgumentBinder(method);
+            this.responseBinders.computeIfAbsent(method, key -> resolveResponseBinder(key, entityType));
+            if (this.normalizedCache != null) {
+                this.cachePolicies.computeIfAbsent(method, this::resolveCachePolicy);
+            }
+            return arguments -> execute(method, arguments);
+        }
+
+        /**
+         * Resolves the binding of the given method and loads its document, so it is cached before the first request.
+         * Documents passed as a {@code GraphFeignDocument} parameter are only known per request and are skipped.
+         */
+        Mono<String> preload(Method method) {
+            getArgumentBinder(method);
+            getResponseBinder(method);
+            GraphFeignRequest annotation = method.getAnnotation(GraphFeignRequest.class);
+            if (StringUtils.hasText(annotation.documentName())) {
+                DocumentSource source = Optional.ofNullable(configuration)
+                        .map(config -> config.documentSource(method))
+                        .orElse(this.documentSource);
+                return source.getDocument(annotation.documentName())
+                        .doOnNext(document -> log.debug("Preloaded document [{}] for method: [{}]", annotation.documentName(), method.getName()));
+            }
+            boolean hasDocumentParam = getArgumentBinder(method).has(ParamType.DOCUMENT);
+            if (!hasDocumentParam && StringUtils.hasText(annotation.retrievePath())) {
+                return Mono.fromCallable(() -> this.documentGenerator.getDocument(method, getResponseBinder(method).type()))
+                        .doOnNext(document -> log.debug("Generated document for method: [{}]", method.getName()));
+            }
+            return Mono.empty();
+        }
+
         enum ParamType {
             VARIABLE,
             DOCUMENT,
-            HEADER
+            HEADER,
+            TENANT,
+            SHARD_KEY,
+            SINK
         }
 
-        record ParamInfo(String name, Object value, Class<?> type, ParamType paramType) {
+        record ParamDescriptor(String name, Class<?> type, ParamType paramType) {
         }
 
-        record ResponseBinder(Class<?> type, boolean isList, boolean isMono, boolean isFlux, String methodKey) {
+        /**
+         * Binds the arguments of a call through the proxy, like an implementation generated at build time does.
+         * The document name of the {@code GraphFeignRequest} takes precedence over a {@code GraphFeignDocument} parameter.
+         */
+        record ArgumentBinder(String documentName, ParamDescriptor[] params) {
+            GraphFeignArguments bind(Object[] args) {
+                GraphFeignArguments arguments = new GraphFeignArguments();
+                if (this.documentName != null) {
+                    arguments.documentName(this.documentName);
+                }
+                for (int i = 0; i < this.params.length; i++) {
+                    ParamDescriptor param = this.params[i];
+                    Object value = args[i];
+                    switch (param.paramType()) {
+                        case VARIABLE -> {
+                            if (param.type().isAssignableFrom(Map.class)) {
+                                arguments.variables(param.name(), value);
+                            } else {
+                                arguments.variable(param.name(), value);
+                            }
+                        }
+                        case DOCUMENT -> {
+                            if (this.documentName == null && param.name().equalsIgnoreCase("documentName")) {
+                                arguments.documentName((String) value);
+                            } else if (this.documentName == null) {
+                                arguments.document((String) value);
+                            }
+                        }
+                        case HEADER -> {
+                            if (param.type().isAssignableFrom(String.class)) {
+                                arguments.header(param.name(), (String) value);
+                            }
+                        }
+                        case TENANT -> arguments.tenant((String) value);
+                        case SHARD_KEY -> arguments.shardKey((String) value);
+                        case SINK -> arguments.sink((WritableByteChannel) value);
+                    }
+                }
+                return arguments;
+            }
+
+            boolean has(ParamType paramType) {
+                for (ParamDescriptor param : this.params) {
+                    if (param.paramType() == paramType) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+
+        record TenantClient(String key, WebClient webClient, Consumer<HttpHeaders> headersConsumer,
+                            Map<Method, GraphQlClient> clients) {
+        }
+
+        /**
+         * The client answering the method from the normalized cache, {@code null} if the method bypasses it.
+         */
+        record CachePolicy(boolean read, List<GraphFeignNormalizedCache.Eviction> evictions, GraphQlClient client) {
+        }
+
+        record ScatterPolicy(Comparator<Object> comparator, Duration timeout, boolean partialResults) {
+        }
+
+        record SharedKey(Method method, GraphFeignArguments arguments, String tenant) {
+        }
+
+        record ResponseBinder(Class<?> type, ParameterizedTypeReference<?> entityType, boolean isList, boolean isMono, boolean isFlux, boolean isRaw, boolean isShared, String methodKey,
+                              Retry resubscribeRetry, GraphFeignMetrics.MethodMetrics metrics,
+                              GraphFeignTracing.MethodTracing tracing, GraphFeignSubscriptionBuffer subscriptionBuffer) {
             public Object response(GraphQlClient.RetrieveSubscriptionSpec spec) {
                 Flux<?> response;
                 if (this.isList) {
-                    response = spec.toEntityList(this.type);
+                    response = spec.toEntityList(this.entityType);
                 } else {
-                    response = spec.toEntity(this.type);
+                    response = spec.toEntity(this.entityType);
                 }
+                response = instrument(resubscribe(response));
 
                 if (isFlux) {
-                    return response
+                    return bounded(response)
                             .onErrorMap(e -> new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + e.getMessage()));
                 } else {
-                    return response
+                    return collect(response)
                             .onErrorMap(e -> new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + e.getMessage()))
-                            .collectList().block();
+                            .block();
                 }
             }
 
             public Object response(GraphQlClient.RetrieveSpec spec) {
                 Mono<?> response;
                 if (this.isList) {
-                    response = spec.toEntityList(this.type);
+                    response = spec.toEntityList(this.entityType);
                 } else {
-                    response = spec.toEntity(this.type);
+                    response = spec.toEntity(this.entityType);
                 }
+                response = instrument(response);
 
                 if (isMono) {
                     return response
@@ -223,23 +878,24 @@ public class GraphFeign {
             }
 
             public Object response(Flux<ClientGraphQlResponse> responseFlux) {
-                Flux<?> finalResponse = responseFlux.map(response -> {
+                Flux<ClientGraphQlResponse> responses = instrument(resubscribe(responseFlux));
+                Function<ClientGraphQlResponse, Flux<?>> checkErrors = response -> {
                     if (!response.getErrors().isEmpty()) {
                         response.getErrors().forEach(error -> log.error("Error while calling Graph API [method: {}]: Errors [path: {}, message: {}]", this.methodKey, error.getPath(), error.getMessage()));
                         return Flux.error(new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + response.getErrors().get(0).getMessage()));
                     } else {
                         return Flux.just(response);
                     }
-                });
+                };
                 if (isFlux) {
-                    return finalResponse;
+                    return bounded(responses).map(checkErrors);
                 } else {
-                    return finalResponse.collectList().block();
+                    return collect(responses).map(list -> list.stream().map(checkErrors).toList()).block();
                 }
             }
 
             public Object response(Mono<ClientGraphQlResponse> responseMono) {
-                Mono<?> finalResponse = responseMono.map(response -> {
+                Mono<?> finalResponse = instrument(responseMono).map(response -> {
                     if (!response.getErrors().isEmpty()) {
                         response.getErrors().forEach(error -> log.error("Error while calling Graph API [method: {}]: Errors [path: {}, message: {}]", this.methodKey, error.getPath(), error.getMessage()));
                         return Mono.error(new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + response.getErrors().get(0).getMessage()));
@@ -254,31 +910,568 @@ public class GraphFeign {
                     return finalResponse.block();
                 }
             }
+
+            /**
+             * The raw body of the response, written to the sink if there is one.
+             */
+            public Object response(Flux<DataBuffer> body, WritableByteChannel sink) {
+                Flux<DataBuffer> response = instrument(body)
+                        .onErrorMap(e -> new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + e.getMessage()));
+                if (sink != null) {
+                    Mono<Void> written = DataBufferUtils.write(response, sink).map(DataBufferUtils::release).then();
+                    return this.isMono ? written : written.block();
+                }
+                if (DataBuffer.class.equals(this.type)) {
+                    return response;
+                }
+                if (InputStream.class.equals(this.type)) {
+                    return RawHttpGraphQlExchange.inputStream(response);
+                }
+                Mono<byte[]> bytes = DataBufferUtils.join(response).map(buffer -> {
+                    byte[] content = new byte[buffer.readableByteCount()];
+                    buffer.read(content);
+                    DataBufferUtils.release(buffer);
+                    return content;
+                });
+                return this.isMono ? bytes : bytes.block();
+            }
+
+            /**
+             * The nodes of every page, each page fetched with the cursor of the previous one as soon as it arrives.
+             */
+            public Flux<?> response(Function<String, Mono<ClientGraphQlResponse>> pageFetcher, GraphFeignPaginated paginated) {
+                Flux<Object> nodes = GraphFeignPager.nodes(cursor -> pageFetcher.apply(cursor).map(response -> page(response, paginated)),
+                        paginated.prefetch());
+                return instrument(nodes)
+                        .onErrorMap(e -> !(e instanceof GraphFeignException),
+                                e -> new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + e.getMessage()));
+            }
+
+            /**
+             * The results of the shards, merged in order with the comparator of the policy, concatenated otherwise.
+             */
+            public Object response(List<String> shards, List<Flux<Object>> shardResults, ScatterPolicy scatterPolicy) {
+                AtomicInteger failures = new AtomicInteger();
+                List<Flux<Object>> results = new ArrayList<>(shardResults.size());
+                for (int i = 0; i < shardResults.size(); i++) {
+                    String shard = shards.get(i);
+                    Flux<Object> result = shardResults.get(i);
+                    results.add(!scatterPolicy.partialResults() ? result : result.onErrorResume(e -> {
+                        failures.incrementAndGet();
+                        log.warn("Leaving shard [{}] out of the result of method [{}]: {}", shard, this.methodKey, e.toString());
+                        return Flux.empty();
+                    }));
+                }
+                Flux<Object> merged = scatterPolicy.comparator() != null
+                        ? Flux.mergeComparing(scatterPolicy.comparator(), results.toArray(Flux[]::new))
+                        : Flux.mergeSequential(results);
+                Flux<Object> response = instrument(merged.concatWith(Mono.defer(() -> failures.get() > 0 && failures.get() == results.size()
+                                ? Mono.error(new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: every shard failed"))
+                                : Mono.empty())))
+                        .onErrorMap(e -> !(e instanceof GraphFeignException),
+                                e -> new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + e.getMessage()));
+                if (this.isFlux) {
+                    return response;
+                } else if (this.isMono) {
+                    return response.collectList();
+                }
+                return response.collectList().block();
+            }
+
+            /**
+             * The retrieve path of the response of a shard, as a list whether it holds a list or a single element.
+             */
+            private List<?> shardResult(ClientGraphQlResponse response, String retrievePath) {
+                ClientResponseField field = response.field(retrievePath);
+                if (field.getValue() instanceof List<?>) {
+                    return field.toEntityList(this.entityType);
+                }
+                Object entity = field.toEntity(this.entityType);
+                return entity != null ? List.of(entity) : List.of();
+            }
+
+            private GraphFeignPager.Page page(ClientGraphQlResponse response, GraphFeignPaginated paginated) {
+                if (!response.getErrors().isEmpty()) {
+                    response.getErrors().forEach(error -> log.error("Error while calling Graph API [method: {}]: Errors [path: {}, message: {}]", this.methodKey, error.getPath(), error.getMessage()));
+                    throw new GraphFeignException("Error while calling Graph API [method: {" + this.methodKey + "}]: " + response.getErrors().get(0).getMessage());
+                }
+                List<?> nodes = response.field(paginated.nodesPath()).toEntityList(this.entityType);
+                boolean hasNextPage = Boolean.TRUE.equals(response.field(paginated.pageInfoPath() + ".hasNextPage").getValue());
+                String endCursor = response.field(paginated.pageInfoPath() + ".endCursor").getValue();
+                log.debug("Received page of [{}] nodes for method [{}], hasNextPage [{}]", nodes.size(), this.methodKey, hasNextPage);
+                return new GraphFeignPager.Page(nodes, hasNextPage, endCursor);
+            }
+
+            private <R> Mono<R> instrument(Mono<R> response) {
+                return this.tracing.instrument(this.metrics.instrument(response));
+            }
+
+            private <R> Flux<R> instrument(Flux<R> response) {
+                return this.tracing.instrument(this.metrics.instrument(response));
+            }
+
+            private <R> Flux<R> resubscribe(Flux<R> response) {
+                return this.resubscribeRetry != null ? response.retryWhen(this.resubscribeRetry) : response;
+            }
+
+            private <R> Flux<R> bounded(Flux<R> response) {
+                // A shared subscription is bounded per subscriber instead, see perSubscriber
+                return this.subscriptionBuffer != null && !this.isShared ? this.subscriptionBuffer.apply(response) : response;
+            }
+
+            /**
+             * The shared subscription, bounded by a buffer of its own for each subscriber.
+             */
+            private <R> Flux<R> perSubscriber(Flux<R> shared) {
+                return this.subscriptionBuffer != null ? this.subscriptionBuffer.apply(shared) : shared;
+            }
+
+            private <R> Mono<List<R>> collect(Flux<R> response) {
+                return this.subscriptionBuffer != null ? this.subscriptionBuffer.collect(response) : response.collectList();
+            }
+        }
+
+        private Object execute(Method method, GraphFeignArguments arguments) {
+            if (method.isAnnotationPresent(GraphFeignShared.class)) {
+                return share(method, arguments);
+            }
+            return buildAndExecuteRequest(method, arguments);
         }
 
-        private Object buildAndExecuteRequest(Method method, Object[] args) {
-            Map<ParamType, List<ParamInfo>> params = getParams(method, args);
-            HttpGraphQlClient httpGraphQlClient = getHttpGraphQlClient(method, params);
-            GraphQlClient.RequestSpec requestSpec = buildRequestSpec(httpGraphQlClient, method, params);
+        private Object buildAndExecuteRequest(Method method, GraphFeignArguments arguments) {
+            if (method.isAnnotationPresent(GraphFeignScatter.class)) {
+                return scatter(method, arguments);
+            }
+            if (getResponseBinder(method).isRaw()) {
+                return raw(method, arguments);
+            }
+            GraphQlClient graphQlClient;
+            GraphFeignRequest annotation = method.getAnnotation(GraphFeignRequest.class);
+            String tenant = getTenant(arguments);
+            CachePolicy cachePolicy = this.normalizedCache != null ? this.cachePolicies.computeIfAbsent(method, this::resolveCachePolicy) : null;
+            if (annotation.isIncremental()) {
+                graphQlClient = getIncrementalGraphQlClient(method, tenant != null ? this.tenants.get(tenant) : null);
+            } else if (tenant == null && cachePolicy != null && cachePolicy.client() != null) {
+                graphQlClient = cachePolicy.client();
+            } else if (annotation.isGet() || annotation.isPersistedQuery()) {
+                graphQlClient = getHttpGetGraphQlClient(method, tenant != null ? this.tenants.get(tenant) : null);
+            } else if (useWebSocket(method)) {
+                graphQlClient = getWebSocketGraphQlClient(method, arguments);
+            } else if (tenant != null) {
+                graphQlClient = getTenantGraphQlClient(method, arguments, this.tenants.get(tenant));
+            } else {
+                graphQlClient = getHttpGraphQlClient(method);
+            }
+            TenantClient tenantClient = tenant != null ? this.tenants.get(tenant) : null;
+            GraphFeignPaginated paginated = method.getAnnotation(GraphFeignPaginated.class);
+            if (paginated != null) {
+                return paginate(graphQlClient, method, arguments, tenantClient, paginated);
+            }
+            GraphQlClient.RequestSpec requestSpec = buildRequestSpec(graphQlClient, method, arguments, tenantClient);
             return executeRequest(requestSpec, method);
         }
 
-        private synchronized HttpGraphQlClient getHttpGraphQlClient(Method method, Map<ParamType, List<ParamInfo>> params) {
-            applyConfiguration(method, params);
-            return this.builder.build();
+        /**
+         * The subscription opened by an invocation with the same arguments, if it is still open, or a new one.
+         * The subscription is registered when subscribed to, and removed once the subscription to the server is
+         * cancelled or terminated, so an invocation never subscribed to leaves nothing behind.
+         */
+        private Flux<?> share(Method method, GraphFeignArguments arguments) {
+            SharedKey key = new SharedKey(method, arguments, getTenant(arguments));
+            // Each subscriber has its own buffer, so a slow one does not hold the others back
+            return Flux.defer(() -> getResponseBinder(method).perSubscriber(this.sharedSubscriptions.computeIfAbsent(key, k -> {
+                GraphFeignShared annotation = method.getAnnotation(GraphFeignShared.class);
+                Duration gracePeriod = StringUtils.hasText(annotation.gracePeriod())
+                        ? DurationStyle.detectAndParse(annotation.gracePeriod()) : this.sharedGracePeriod;
+                AtomicReference<Flux<?>> self = new AtomicReference<>();
+                Flux<?> upstream = ((Flux<?>) buildAndExecuteRequest(method, arguments))
+                        .doOnSubscribe(subscription -> log.debug("Opening shared subscription of method: [{}]", method.getName()))
+                        .doFinally(signal -> {
+                            log.debug("Closing shared subscription of method: [{}] on [{}]", method.getName(), signal);
+                            this.sharedSubscriptions.remove(k, self.get());
+                        });
+                Flux<?> multicast = (annotation.replay() > 0 ? upstream.replay(annotation.replay()) : upstream.publish())
+                        .refCount(1, gracePeriod);
+                self.set(multicast);
+                return multicast;
+            })));
+        }
+
+        /**
+         * Sends the request over HTTP and passes the body of the response through, without decoding it.
+         */
+        private Object raw(Method method, GraphFeignArguments arguments) {
+            String tenant = getTenant(arguments);
+            TenantClient tenantClient = tenant != null ? this.tenants.get(tenant) : null;
+            RawHttpGraphQlExchange exchange = new RawHttpGraphQlExchange(tenantClient != null ? tenantClient.webClient() : this.webClient,
+                    getHeaders(method, arguments, tenantClient), this.customizer.getObjectMapper(),
+                    this.rawProperties.getMaxSize().toBytes(), this.rawProperties.isCheckErrors());
+            String operationName = method.getAnnotation(GraphFeignRequest.class).operationName();
+            Map<String, Object> variables = arguments.getVariables();
+            Flux<DataBuffer> body = getRawDocument(method, arguments).flatMapMany(document -> {
+                Map<String, Object> request = new LinkedHashMap<>();
+                request.put("query", document);
+                if (StringUtils.hasText(operationName)) {
+                    request.put("operationName", operationName);
+                }
+                if (!variables.isEmpty()) {
+                    request.put("variables", variables);
+                }
+                return exchange.execute(request);
+            });
+            ResponseBinder responseBinder = getResponseBinder(method);
+            WritableByteChannel sink = arguments.getSink();
+            if (sink == null && getArgumentBinder(method).has(ParamType.SINK)) {
+                throw new IllegalArgumentException("GraphFeignSink parameter of method [" + method.getName() + "] must not be null");
+            }
+            return responseBinder.response(body, sink);
+        }
+
+        /**
+         * The document of a raw method, from the document name or the document of the arguments.
+         */
+        private Mono<String> getRawDocument(Method method, GraphFeignArguments arguments) {
+            String name = arguments.getDocumentName();
+            if (name == null) {
+                if (arguments.getDocument() == null) {
+                    throw new IllegalArgumentException("Raw response method [" + method.getName() + "] requires a documentName in GraphFeignRequest or a GraphFeignDocument parameter");
+                }
+                return Mono.just(arguments.getDocument());
+            }
+            return Optional.ofNullable(configuration)
+                    .map(config -> config.documentSource(method))
+                    .orElse(this.documentSource)
+                    .getDocument(name)
+                    .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Document [" + name + "] could not be loaded")));
+        }
+
+        /**
+         * Sends the request to every shard chosen by the shard key in parallel, each bounded by the shard timeout.
+         */
+        private Object scatter(Method method, GraphFeignArguments arguments) {
+            ScatterPolicy scatterPolicy = this.scatterPolicies.computeIfAbsent(method, this::resolveScatterPolicy);
+            String retrievePath = method.getAnnotation(GraphFeignRequest.class).retrievePath();
+            ResponseBinder responseBinder = getResponseBinder(method);
+            List<String> shardNames = getShards(method, arguments);
+            List<Flux<Object>> shardResults = new ArrayList<>(shardNames.size());
+            for (String shard : shardNames) {
+                TenantClient shardClient = this.shards.get(shard);
+                shardResults.add(Mono.defer(() -> buildRequestSpec(getTenantGraphQlClient(method, arguments, shardClient), method, arguments, shardClient).execute())
+                        .timeout(scatterPolicy.timeout())
+                        .flatMapIterable(response -> responseBinder.shardResult(response, retrievePath)));
+            }
+            return responseBinder.response(shardNames, shardResults, scatterPolicy);
+        }
+
+        /**
+         * The shards chosen by the shard key, in the order they are declared, every shard without a key.
+         */
+        private List<String> getShards(Method method, GraphFeignArguments arguments) {
+            String shardKey = arguments.getShardKey();
+            if (shardKey == null) {
+                return this.shardNames;
+            }
+            Collection<String> shards = Optional.ofNullable(configuration)
+                    .map(config -> config.shards(shardKey))
+                    .orElseGet(() -> List.of(shardKey));
+            for (String shard : shards) {
+                if (!this.shards.containsKey(shard)) {
+                    throw new IllegalArgumentException("Unknown shard [" + shard + "] for method [" + method.getName() + "]");
+                }
+            }
+            return this.shardNames.stream().filter(shards::contains).toList();
+        }
+
+        @SuppressWarnings("unchecked")
+        private ScatterPolicy resolveScatterPolicy(Method method) {
+            GraphFeignScatter scatter = method.getAnnotation(GraphFeignScatter.class);
+            Comparator<Object> comparator = scatter.comparator() != Comparator.class
+                    ? BeanUtils.instantiateClass(scatter.comparator()) : null;
+            Duration timeout = StringUtils.hasText(scatter.timeout())
+                    ? DurationStyle.detectAndParse(scatter.timeout()) : this.shardTimeout;
+            return new ScatterPolicy(comparator, timeout, scatter.partialResults());
+        }
+
+        /**
+         * The first page is fetched with the variables of the method, the next ones with the cursor variable set.
+         */
+        private Flux<?> paginate(GraphQlClient graphQlClient, Method method, GraphFeignArguments arguments,
+                                 TenantClient tenantClient, GraphFeignPaginated paginated) {
+            return getResponseBinder(method).response(cursor -> Mono.defer(() -> {
+                GraphQlClient.RequestSpec requestSpec = buildRequestSpec(graphQlClient, method, arguments, tenantClient);
+                if (cursor != null) {
+                    requestSpec.variable(paginated.cursorVariable(), cursor);
+                }
+                return requestSpec.execute();
+            }), paginated);
+        }
+
+        private boolean useWebSocket(Method method) {
+            return this.webSocketGraphQlClient != null
+                    && this.transport.useWebSocket(method.getAnnotation(GraphFeignRequest.class).isSubscription());
+        }
+
+        /**
+         * The shared WebSocket client, or for a method with its own DocumentSource, a client of its own built once
+         * on the shared connection, as the WebSocket client cannot be rebuilt per method without a new connection.
+         */
+        private GraphQlClient getWebSocketGraphQlClient(Method method, GraphFeignArguments arguments) {
+            String tenant = getTenant(arguments);
+            if (tenant != null) {
+                throw new IllegalArgumentException("Method [" + method.getName() + "] is sent over the WebSocket connection shared by all tenants, "
+                        + "it cannot be sent for tenant [" + tenant + "]");
+            }
+            DocumentSource methodDocumentSource = configuration != null ? configuration.documentSource(method) : null;
+            if (methodDocumentSource == null) {
+                return this.webSocketGraphQlClient;
+            }
+            return this.webSocketClients.computeIfAbsent(method, key -> GraphQlClient
+                    .builder(new SharedWebSocketGraphQlTransport(this.webSocketGraphQlClient))
+                    .documentSource(methodDocumentSource)
+                    .build());
+        }
+
+        /**
+         * Requests over WebSocket carry no headers of their own, the headers are sent once on the handshake, and do
+         * not go through the filters of the WebClient. Methods depending on them are rejected rather than sent without.
+         */
+        private void checkWebSocketMethod(Method method, boolean isSubscription) {
+            if (Arrays.stream(method.getParameters()).anyMatch(parameter -> parameter.isAnnotationPresent(GraphFeignHeader.class))) {
+                throw new IllegalArgumentException("Method [" + method.getName() + "] is sent over WebSocket and cannot have GraphFeignHeader parameters, "
+                        + "use webSocketHeadersConsumer for the headers of the handshake");
+            }
+            if (isSubscription) {
+                return;
+            }
+            if (configuration != null) {
+                HttpHeaders headers = new HttpHeaders();
+                Optional.ofNullable(configuration.headersConsumer(method)).ifPresent(headersConsumer -> headersConsumer.accept(headers));
+                if (!headers.isEmpty()) {
+                    throw new IllegalArgumentException("Method [" + method.getName() + "] is sent over WebSocket and cannot have headers [" + headers.keySet()
+                            + "], use webSocketHeadersConsumer for the headers of the handshake");
+                }
+                if (configuration.tokenProvider() != null) {
+                    throw new IllegalArgumentException("Method [" + method.getName() + "] is sent over WebSocket and cannot use the tokenProvider of the client");
+                }
+            }
+            if (this.rateLimiter != null) {
+                throw new IllegalArgumentException("Method [" + method.getName() + "] is sent over WebSocket and cannot be rate limited");
+            }
+        }
+
+        /**
+         * The incremental client of the method, or of the tenant for the method, built on its first use.
+         * The headers are sent per request, see {@link #applyRequestHeaders}.
+         */
+        private GraphQlClient getIncrementalGraphQlClient(Method method, TenantClient tenant) {
+            return getClient(tenant != null ? tenant.clients() : this.clients, method, key -> {
+                log.debug("Building incremental client for method: [{}]", key.getName());
+                return transportGraphQlClient(key, new IncrementalHttpGraphQlTransport(tenant != null ? tenant.webClient() : this.webClient,
+                        new HttpHeaders(), this.customizer.getObjectMapper()));
+            });
+        }
+
+        /**
+         * The GET client of the method, or of the tenant for the method, built on its first use. The queries of
+         * tenants keep their ETags apart. The headers are sent per request, see {@link #applyRequestHeaders}.
+         */
+        private GraphQlClient getHttpGetGraphQlClient(Method method, TenantClient tenant) {
+            return getClient(tenant != null ? tenant.clients() : this.clients, method, key -> {
+                log.debug("Building GET client for method: [{}]", key.getName());
+                return transportGraphQlClient(key, new GetHttpGraphQlTransport(tenant != null ? tenant.webClient() : this.webClient,
+                        new HttpHeaders(), this.customizer.getObjectMapper(), this.etagCache, tenant != null ? tenant.key() : "",
+                        key.getAnnotation(GraphFeignRequest.class).isPersistedQuery()));
+            });
+        }
+
+        /**
+         * The client of the tenant for the method, built on its first use. The headers of the method and the tenant
+         * are sent per request, see {@link #applyRequestHeaders}.
+         */
+        private GraphQlClient getTenantGraphQlClient(Method method, GraphFeignArguments arguments, TenantClient tenant) {
+            return getClient(tenant.clients(), method, key -> buildTenantGraphQlClient(key, tenant));
+        }
+
+        /**
+         * The client of the method among the given clients, built on its first use. A method is always sent by the
+         * same kind of client, so the clients of every kind share the map of the client or tenant.
+         */
+        private static GraphQlClient getClient(Map<Method, GraphQlClient> clients, Method method,
+                                               Function<Method, GraphQlClient> clientFactory) {
+            GraphQlClient graphQlClient = clients.get(method);
+            if (graphQlClient == null) {
+                graphQlClient = clients.computeIfAbsent(method, clientFactory);
+            }
+            return graphQlClient;
+        }
+
+        private HttpGraphQlClient buildTenantGraphQlClient(Method method, TenantClient tenant) {
+            log.debug("Building client of tenant [{}] for method: [{}]", tenant.key(), method.getName());
+            HttpGraphQlClient.Builder<?> tenantBuilder = HttpGraphQlClient.builder(tenant.webClient());
+            if (this.customizer.getCodecConfigurer() != null) {
+                tenantBuilder.codecConfigurer(this.customizer.getCodecConfigurer());
+            }
+            tenantBuilder.interceptor(GraphFeignRequestHeaders.interceptor());
+            applyInterceptorsAndDocumentSource(tenantBuilder, method);
+            return tenantBuilder.build();
+        }
+
+        private TenantClient createTenant(String key) {
+            GraphFeignTenantConfiguration tenantConfiguration = Optional.ofNullable(configuration)
+                    .map(config -> config.tenantConfiguration(key))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown tenant [" + key + "], no GraphFeignTenantConfiguration found"));
+            String tenantUrl = Optional.ofNullable(tenantConfiguration.url()).orElse(this.url);
+            WebClient.Builder tenantWebClientBuilder = tenantConfiguration.webClient() != null
+                    ? tenantConfiguration.webClient().mutate().filters(filters -> filters.addAll(this.filters))
+                    : this.webClient.mutate();
+            tenantWebClientBuilder.baseUrl(tenantUrl);
+            if (tenantConfiguration.tokenAudience() != null) {
+                tenantWebClientBuilder.defaultRequest(request -> request.attribute(GraphFeignTokenCache.AUDIENCE_ATTRIBUTE, tenantConfiguration.tokenAudience()));
+            }
+            WebClient tenantWebClient = tenantWebClientBuilder.build();
+            return new TenantClient(key, tenantWebClient, tenantConfiguration.headersConsumer(), new ConcurrentHashMap<>());
+        }
+
+        private String getTenant(GraphFeignArguments arguments) {
+            return arguments.getTenant() != null ? arguments.getTenant() : GraphFeignTenantContext.getCurrent();
+        }
+
+        private HttpHeaders getHeaders(Method method, GraphFeignArguments arguments, TenantClient tenant) {
+            HttpHeaders headers = new HttpHeaders();
+            Optional.ofNullable(configuration)
+                    .map(config -> config.headersConsumer(method))
+                    .ifPresent(headersConsumer -> headersConsumer.accept(headers));
+            Optional.ofNullable(tenant)
+                    .map(TenantClient::headersConsumer)
+                    .ifPresent(headersConsumer -> headersConsumer.accept(headers));
+            if (arguments.getHeaders() != null) {
+                headers.putAll(arguments.getHeaders());
+            }
+            return headers;
+        }
+
+        private GraphQlClient transportGraphQlClient(Method method, GraphQlTransport graphQlTransport) {
+            GraphQlClient.Builder<?> transportBuilder = GraphQlClient.builder(graphQlTransport);
+            transportBuilder.interceptor(GraphFeignRequestHeaders.interceptor());
+            applyInterceptorsAndDocumentSource(transportBuilder, method);
+            return transportBuilder.build();
+        }
+
+        private void applyInterceptorsAndDocumentSource(GraphQlClient.Builder<?> clientBuilder, Method method) {
+            if (this.tracing.isEnabled()) {
+                clientBuilder.interceptor(this.tracing.interceptor());
+            }
+            Optional.ofNullable(this.rateLimiter)
+                    .map(GraphFeignRateLimiter::interceptor)
+                    .ifPresent(clientBuilder::interceptor);
+            Optional.ofNullable(configuration)
+                    .map(config -> config.interceptorsConsumer(method))
+                    .ifPresent(clientBuilder::interceptors);
+            Optional.ofNullable(configuration)
+                    .map(config -> config.documentSource(method))
+                    .or(() -> Optional.of(this.documentSource))
+                    .ifPresent(clientBuilder::documentSource);
+        }
+
+        /**
+         * The client of the method, built on its first use from the client shared by every method, so requests
+         * neither lock nor rebuild it. The headers are sent per request, see {@link #applyRequestHeaders}.
+         */
+        private GraphQlClient getHttpGraphQlClient(Method method) {
+            return getClient(this.clients, method, this::buildHttpGraphQlClient);
+        }
+
+        private HttpGraphQlClient buildHttpGraphQlClient(Method method) {
+            log.debug("Building client for method: [{}]", method.getName());
+            HttpGraphQlClient.Builder<?> methodBuilder = this.graphQlClient.mutate();
+            methodBuilder.interceptor(GraphFeignRequestHeaders.interceptor());
+            Optional.ofNullable(configuration)
+                    .map(config -> config.interceptorsConsumer(method))
+                    .ifPresent(methodBuilder::interceptors);
+            Optional.ofNullable(configuration)
+                    .map(config -> config.documentSource(method))
+                    .ifPresent(methodBuilder::documentSource);
+            return methodBuilder.build();
         }
 
-        private GraphQlClient.RequestSpec buildRequestSpec(HttpGraphQlClient httpGraphQlClient, Method method, Map<ParamType, List<ParamInfo>> params) {
-            GraphQlClient.RequestSpec requestSpec = applyDocument(httpGraphQlClient, method, params);
+        private GraphQlClient.RequestSpec buildRequestSpec(GraphQlClient graphQlClient, Method method, GraphFeignArguments arguments,
+                                                           TenantClient tenant) {
+            GraphQlClient.RequestSpec requestSpec = applyDocument(graphQlClient, method, arguments);
             applyOperationName(requestSpec, method);
-            applyVariables(requestSpec, params);
+            applyVariables(requestSpec, arguments);
+            applyRequestHeaders(requestSpec, method, arguments, tenant);
+            if (this.normalizedCache != null) {
+                applyCachePolicy(requestSpec, method);
+            }
             return requestSpec;
         }
 
+        /**
+         * The headers of the method, of the tenant and the {@code GraphFeignHeader} parameters, resolved for every
+         * request as the clients are shared between requests, see {@link GraphFeignRequestHeaders}.
+         */
+        private void applyRequestHeaders(GraphQlClient.RequestSpec requestSpec, Method method, GraphFeignArguments arguments,
+                                         TenantClient tenant) {
+            HttpHeaders headers = getHeaders(method, arguments, tenant);
+            if (!headers.isEmpty()) {
+                requestSpec.attribute(GraphFeignRequestHeaders.ATTRIBUTE, headers);
+            }
+        }
+
+        private void applyCachePolicy(GraphQlClient.RequestSpec requestSpec, Method method) {
+            CachePolicy cachePolicy = this.cachePolicies.computeIfAbsent(method, this::resolveCachePolicy);
+            if (cachePolicy.read()) {
+                requestSpec.attribute(NormalizedCacheGraphQlTransport.READ_ATTRIBUTE, Boolean.TRUE);
+            }
+            if (!cachePolicy.evictions().isEmpty()) {
+                requestSpec.attribute(NormalizedCacheGraphQlTransport.EVICT_ATTRIBUTE, cachePolicy.evictions());
+            }
+        }
+
+        private CachePolicy resolveCachePolicy(Method method) {
+            boolean read = method.isAnnotationPresent(GraphFeignCache.class)
+                    || method.getDeclaringClass().isAnnotationPresent(GraphFeignCache.class);
+            List<GraphFeignNormalizedCache.Eviction> evictions = new ArrayList<>();
+            for (GraphFeignCacheEvict evict : method.getAnnotationsByType(GraphFeignCacheEvict.class)) {
+                if (!StringUtils.hasText(evict.type()) && !StringUtils.hasText(evict.rootField())) {
+                    throw new IllegalArgumentException("GraphFeignCacheEvict on method [" + method.getName() + "] requires a type or a rootField");
+                }
+                if (StringUtils.hasText(evict.idVariable()) && !StringUtils.hasText(evict.type())) {
+                    throw new IllegalArgumentException("GraphFeignCacheEvict idVariable on method [" + method.getName() + "] requires a type");
+                }
+                evictions.add(new GraphFeignNormalizedCache.Eviction(evict.type(), evict.idVariable(), evict.rootField()));
+            }
+            return new CachePolicy(read, List.copyOf(evictions), buildNormalizedCacheGraphQlClient(method, read, !evictions.isEmpty()));
+        }
+
+        /**
+         * The client of a method reading or evicting the normalized cache, built once. Methods with
+         * {@code GraphFeignHeader} parameters bypass the cache, as their responses may depend on the caller,
+         * like the requests of tenants.
+         */
+        private GraphQlClient buildNormalizedCacheGraphQlClient(Method method, boolean read, boolean evict) {
+            GraphFeignRequest annotation = method.getAnnotation(GraphFeignRequest.class);
+            boolean isGet = annotation.isGet() || annotation.isPersistedQuery();
+            if ((!read && !evict) || annotation.isSubscription() || annotation.isIncremental() || (!isGet && useWebSocket(method))) {
+                return null;
+            }
+            if (getArgumentBinder(method).has(ParamType.HEADER)) {
+                log.debug("Bypassing normalized cache for method: [{}], it has GraphFeignHeader parameters", method.getName());
+                return null;
+            }
+            // The headers are sent per request, see applyRequestHeaders
+            HttpHeaders headers = new HttpHeaders();
+            GraphQlTransport httpTransport = isGet
+                    ? new GetHttpGraphQlTransport(this.webClient, headers, this.customizer.getObjectMapper(), this.etagCache, "", annotation.isPersistedQuery())
+                    : new JsonHttpGraphQlTransport(this.webClient, headers);
+            return transportGraphQlClient(method, new NormalizedCacheGraphQlTransport(httpTransport, this.normalizedCache));
+        }
+
         private Object executeRequest(GraphQlClient.RequestSpec requestSpec, Method method) {
             ResponseBinder responseBinder = getResponseBinder(method);
             GraphFeignRequest annotation = method.getAnnotation(GraphFeignRequest.class);
-            boolean isSubscription = annotation.isSubscription();
+            // Incremental responses are consumed like a subscription when the caller wants every payload
+            boolean isSubscription = annotation.isSubscription() || (annotation.isIncremental() && responseBinder.isFlux());
             String retrievePath = annotation.retrievePath();
 
             if (StringUtils.hasText(retrievePath)) {
@@ -302,101 +1495,79 @@ public class GraphFeign {
             }
         }
 
-        private Map<ParamType, List<ParamInfo>> getParams(Method method, Object[] args) {
-            List<ParamInfo> params = new ArrayList<>();
-            // Iterate over the method parameters and arguments
+        private ArgumentBinder getArgumentBinder(Method method) {
+            return this.argumentBinders.computeIfAbsent(method, this::resolveArgumentBinder);
+        }
+
+        private ArgumentBinder resolveArgumentBinder(Method method) {
+            // Iterate over the method parameters once, the result is cached per method
             Parameter[] parameters = method.getParameters();
+            ParamDescriptor[] descriptors = new ParamDescriptor[parameters.length];
+            boolean hasDocumentParam = false;
             for (int i = 0; i < parameters.length; i++) {
                 if (parameters[i].isAnnotationPresent(GraphFeignDocument.class)) {
+                    if (!String.class.equals(parameters[i].getType())) {
+                        throw new IllegalArgumentException("GraphFeignDocument parameter must be a String");
+                    }
+                    if (hasDocumentParam) {
+                        throw new IllegalArgumentException("Method [" + method.getName() + "] must have at most one GraphFeignDocument parameter");
+                    }
+                    hasDocumentParam = true;
                     String paramName = parameters[i].getName();
                     GraphFeignDocument annotation = parameters[i].getAnnotation(GraphFeignDocument.class);
                     if (annotation.isDocumentName()) {
                         paramName = "documentName";
                     }
-                    Object paramValue = args[i];
-                    Class<?> paramClassType = parameters[i].getType();
-                    params.add(new ParamInfo(paramName, paramValue, paramClassType, ParamType.DOCUMENT));
+                    descriptors[i] = new ParamDescriptor(paramName, parameters[i].getType(), ParamType.DOCUMENT);
                 } else if (parameters[i].isAnnotationPresent(GraphFeignHeader.class)) {
                     String paramName = parameters[i].getName();
                     GraphFeignHeader annotation = parameters[i].getAnnotation(GraphFeignHeader.class);
                     if (StringUtils.hasText(annotation.value())) {
                         paramName = annotation.value();
                     }
-                    Object paramValue = args[i];
-                    Class<?> paramClassType = parameters[i].getType();
-                    params.add(new ParamInfo(paramName, paramValue, paramClassType, ParamType.HEADER));
+                    descriptors[i] = new ParamDescriptor(paramName, parameters[i].getType(), ParamType.HEADER);
+                } else if (parameters[i].isAnnotationPresent(GraphFeignTenant.class)) {
+                    if (!String.class.equals(parameters[i].getType())) {
+                        throw new IllegalArgumentException("GraphFeignTenant parameter must be a String");
+                    }
+                    descriptors[i] = new ParamDescriptor("tenant", String.class, ParamType.TENANT);
+                } else if (parameters[i].isAnnotationPresent(GraphFeignShardKey.class)) {
+                    if (!String.class.equals(parameters[i].getType())) {
+                        throw new IllegalArgumentException("GraphFeignShardKey parameter must be a String");
+                    }
+                    descriptors[i] = new ParamDescriptor("shardKey", String.class, ParamType.SHARD_KEY);
+                } else if (parameters[i].isAnnotationPresent(GraphFeignSink.class)) {
+                    if (!WritableByteChannel.class.isAssignableFrom(parameters[i].getType())) {
+                        throw new IllegalArgumentException("GraphFeignSink parameter must be a WritableByteChannel");
+                    }
+                    descriptors[i] = new ParamDescriptor("sink", parameters[i].getType(), ParamType.SINK);
                 } else {
                     String paramName = parameters[i].getName();
                     GraphFeignVariable annotation = parameters[i].getAnnotation(GraphFeignVariable.class);
                     if (StringUtils.hasText(annotation.value())) {
                         paramName = annotation.value();
                     }
-                    Object paramValue = args[i];
-                    Class<?> paramClassType = parameters[i].getType();
-                    params.add(new ParamInfo(paramName, paramValue, paramClassType, ParamType.VARIABLE));
+                    descriptors[i] = new ParamDescriptor(paramName, parameters[i].getType(), ParamType.VARIABLE);
                 }
             }
-
-            return params.stream().collect(Collectors.groupingBy(ParamInfo::paramType));
-        }
-
-        private void applyConfiguration(Method method, Map<ParamType, List<ParamInfo>> params) {
-            log.debug("Applying configuration for method: [{}]", method.getName());
-
-            // applying headers
-            log.debug("Applying headers configuration for method: [{}]", method.getName());
-            Optional.ofNullable(configuration)
-                    .map(config -> config.headersConsumer(method))
-                    .ifPresent(this.builder::headers);
-
-            params.getOrDefault(ParamType.HEADER, Collections.emptyList())
-                    .forEach(paramInfo -> {
-                        if (paramInfo.type().isAssignableFrom(String.class)) {
-                            this.builder.headers(headers -> headers.set(paramInfo.name(), (String) paramInfo.value()));
-                        }
-                    });
-
-            // applying interceptors
-            log.debug("Applying interceptors configuration for method: [{}]", method.getName());
-            Optional.ofNullable(configuration)
-                    .map(config -> config.interceptorsConsumer(method))
-                    .ifPresent(this.builder::interceptors);
-
-            // applying document source
-            log.debug("Applying document source configuration for method: [{}]", method.getName());
-            Optional.ofNullable(configuration)
-                    .map(config -> config.documentSource(method))
-                    .ifPresent(this.builder::documentSource);
+            String documentName = method.getAnnotation(GraphFeignRequest.class).documentName();
+            return new ArgumentBinder(StringUtils.hasText(documentName) ? documentName : null, descriptors);
         }
 
-        private GraphQlClient.RequestSpec applyDocument(HttpGraphQlClient httpGraphQlClient, Method method, Map<ParamType, List<ParamInfo>> params) {
-            return Optional.ofNullable(method.getAnnotation(GraphFeignRequest.class))
-                    .map(GraphFeignRequest::documentName)
-                    .filter(StringUtils::hasText)
-                    .map(documentName -> {
-                        log.debug("Using documentName specified in GraphFeignRequest annotation: [{}]", documentName);
-                        return httpGraphQlClient.documentName(documentName);
-                    })
-                    .orElseGet(() -> {
-                        log.debug("No documentName specified in GraphFeignRequest annotation. Searching GraphFeignDocument parameter");
-                        var documentParams = params.getOrDefault(ParamType.DOCUMENT, Collections.emptyList());
-                        if (documentParams.size() != 1) {
-                            throw new IllegalArgumentException("Either documentName in GraphFeignRequest or GraphFeignDocument parameter is required");
-                        }
-
-                        ParamInfo paramInfo = documentParams.get(0);
-                        if (paramInfo.type().isAssignableFrom(String.class)) {
-                            if (paramInfo.name().equalsIgnoreCase("documentName")) {
-                                log.debug("Using documentName specified in GraphFeignDocument parameter");
-                                return httpGraphQlClient.documentName((String) paramInfo.value());
-                            } else {
-                                log.debug("Using document specified in GraphFeignDocument parameter");
-                                return httpGraphQlClient.document((String) paramInfo.value());
-                            }
-                        } else {
-                            throw new IllegalArgumentException("GraphFeignDocument parameter must be a String");
-                        }
-                    });
+        private GraphQlClient.RequestSpec applyDocument(GraphQlClient graphQlClient, Method method, GraphFeignArguments arguments) {
+            if (arguments.getDocumentName() != null) {
+                log.debug("Using documentName: [{}]", arguments.getDocumentName());
+                return graphQlClient.documentName(arguments.getDocumentName());
+            }
+            if (arguments.getDocument() != null) {
+                log.debug("Using document specified in GraphFeignDocument parameter");
+                return graphQlClient.document(arguments.getDocument());
+            }
+            if (StringUtils.hasText(method.getAnnotation(GraphFeignRequest.class).retrievePath())) {
+                log.debug("No documentName or GraphFeignDocument parameter found. Using document generated from return type");
+                return graphQlClient.document(this.documentGenerator.getDocument(method, getResponseBinder(method).type()));
+            }
+            throw new IllegalArgumentException("Either documentName in GraphFeignRequest, GraphFeignDocument parameter or retrievePath to generate the document is required");
         }
 
         private void applyOperationName(GraphQlClient.RequestSpec requestSpec, Method method) {
@@ -409,34 +1580,24 @@ public class GraphFeign {
                     });
         }
 
-        private void applyVariables(GraphQlClient.RequestSpec requestSpec, Map<ParamType, List<ParamInfo>> params) {
-            var variablesParams = params.getOrDefault(ParamType.VARIABLE, Collections.emptyList());
-            if (variablesParams.isEmpty()) {
-                log.debug("Not variables found in method parameters");
+        private void applyVariables(GraphQlClient.RequestSpec requestSpec, GraphFeignArguments arguments) {
+            Map<String, Object> variables = arguments.getVariables();
+            if (variables.isEmpty()) {
                 return;
             }
 
-            Map<String, Object> variables = new HashMap<>();
-            for (ParamInfo param : variablesParams) {
-                if (param.type().isAssignableFrom(Map.class) && param.value() instanceof Map<?, ?> paramMap) {
-                    paramMap.forEach((key, value) -> {
-                        if (key instanceof String keyStr) {
-                            variables.put(keyStr, value);
-                        } else {
-                            throw new IllegalArgumentException("Map key must be a String");
-                        }
-                    });
-                } else {
-                    variables.put(param.name(), param.value());
-                }
-            }
-
             log.debug("applying variables: [{}]", variables);
             requestSpec.variables(variables);
         }
 
         private ResponseBinder getResponseBinder(Method method) {
+            return this.responseBinders.computeIfAbsent(method, key -> resolveResponseBinder(key, null));
+        }
+
+        private ResponseBinder resolveResponseBinder(Method method, ParameterizedTypeReference<?> entityType) {
             Class<?> returnType = method.getReturnType();
+            boolean isSubscription = method.getAnnotation(GraphFeignRequest.class).isSubscription();
+            Retry resubscribe = isSubscription && useWebSocket(method) ? this.resubscribeRetry : null;
             String methodKey = method.getDeclaringClass().getName() + "#" + method.getName();
             boolean isList = false;
             boolean isMono = false;
@@ -472,7 +1633,89 @@ public class GraphFeign {
                 returnType = (Class<?>) actualTypeArguments[0];
             }
 
-            return new ResponseBinder(returnType, isList, isMono, isFlux, methodKey);
+            GraphFeignRequest request = method.getAnnotation(GraphFeignRequest.class);
+            if ((request.isGet() || request.isPersistedQuery())
+                    && (isSubscription || request.isMutation() || request.isIncremental())) {
+                throw new IllegalArgumentException("GET request method [" + method.getName() + "] must be a query, not a subscription, mutation or incremental request");
+            }
+            if (method.isAnnotationPresent(GraphFeignScatter.class)) {
+                if ((!isFlux && !isList) || (isFlux && isList) || isSubscription || request.isIncremental()
+                        || method.isAnnotationPresent(GraphFeignPaginated.class)) {
+                    throw new IllegalArgumentException("GraphFeignScatter method [" + method.getName() + "] must be a query returning List<T>, Mono<List<T>> or Flux<T>");
+                }
+                if (!StringUtils.hasText(request.retrievePath())) {
+                    throw new IllegalArgumentException("GraphFeignScatter method [" + method.getName() + "] requires a retrievePath");
+                }
+            }
+
+            GraphFeignPaginated paginated = method.getAnnotation(GraphFeignPaginated.class);
+            if (paginated != null) {
+                if (!isFlux || isList || isSubscription || method.getAnnotation(GraphFeignRequest.class).isIncremental()) {
+                    throw new IllegalArgumentException("GraphFeignPaginated method [" + method.getName() + "] must be a query returning Flux<T>");
+                }
+                if (paginated.prefetch() < 0) {
+                    throw new IllegalArgumentException("GraphFeignPaginated prefetch of method [" + method.getName() + "] must not be negative");
+                }
+            }
+
+            boolean hasSink = Arrays.stream(method.getParameters()).anyMatch(parameter -> parameter.isAnnotationPresent(GraphFeignSink.class));
+            boolean isRaw = hasSink || (isFlux && DataBuffer.class.equals(returnType))
+                    || (!isFlux && !isList && (byte[].class.equals(returnType) || InputStream.class.equals(returnType)));
+            if (isRaw) {
+                boolean supported = hasSink ? (isMono ? Void.class.equals(returnType) : void.class.equals(returnType))
+                        : DataBuffer.class.equals(returnType) ? !isList
+                        : byte[].class.equals(returnType) || !isMono;
+                if (!supported || isSubscription || request.isIncremental() || request.isGet() || request.isPersistedQuery()
+                        || paginated != null || method.isAnnotationPresent(GraphFeignScatter.class)) {
+                    throw new IllegalArgumentException("Raw response method [" + method.getName() + "] must be a query or mutation returning Flux<DataBuffer>, "
+                            + "byte[], Mono<byte[]> or InputStream, or void or Mono<Void> with a GraphFeignSink parameter");
+                }
+            }
+            if (useWebSocket(method) && !isRaw && !request.isIncremental() && !request.isGet() && !request.isPersistedQuery()
+                    && !method.isAnnotationPresent(GraphFeignScatter.class)) {
+                checkWebSocketMethod(method, isSubscription);
+            }
+
+            String operationName = method.getAnnotation(GraphFeignRequest.class).operationName();
+            GraphFeignMetrics.MethodMetrics methodMetrics = this.metrics.forMethod(methodKey, operationName);
+            GraphFeignSubscriptionBuffer subscriptionBuffer = null;
+            GraphFeignBackpressure backpressure = method.getAnnotation(GraphFeignBackpressure.class);
+            if (backpressure != null) {
+                subscriptionBuffer = resolveSubscriptionBuffer(method, backpressure, isSubscription, methodMetrics);
+            }
+            GraphFeignShared shared = method.getAnnotation(GraphFeignShared.class);
+            if (shared != null) {
+                if (!isSubscription || !isFlux || method.isAnnotationPresent(GraphFeignScatter.class)) {
+                    throw new IllegalArgumentException("GraphFeignShared method [" + method.getName() + "] must be a subscription returning Flux<T>");
+                }
+                if (shared.replay() < 0) {
+                    throw new IllegalArgumentException("GraphFeignShared replay of method [" + method.getName() + "] must not be negative");
+                }
+            }
+            if (entityType == null) {
+                entityType = ParameterizedTypeReference.forType(returnType);
+            }
+            return new ResponseBinder(returnType, entityType, isList, isMono, isFlux, isRaw, shared != null, methodKey, resubscribe, methodMetrics,
+                    this.tracing.forMethod(methodKey, method.getName(), operationName), subscriptionBuffer);
+        }
+
+        @SuppressWarnings("unchecked")
+        private GraphFeignSubscriptionBuffer resolveSubscriptionBuffer(Method method, GraphFeignBackpressure backpressure, boolean isSubscription,
+                                                                       GraphFeignMetrics.MethodMetrics methodMetrics) {
+            if (!isSubscription) {
+                throw new IllegalArgumentException("GraphFeignBackpressure method [" + method.getName() + "] must be a subscription");
+            }
+            if (backpressure.bufferSize() <= 0) {
+                throw new IllegalArgumentException("GraphFeignBackpressure bufferSize of method [" + method.getName() + "] must be positive");
+            }
+            Function<Object, Object> conflateKey = null;
+            if (backpressure.conflateKey() != Function.class) {
+                conflateKey = BeanUtils.instantiateClass(backpressure.conflateKey());
+            } else if (backpressure.overflow() == GraphFeignBackpressure.Overflow.CONFLATE) {
+                throw new IllegalArgumentException("GraphFeignBackpressure of method [" + method.getName() + "] requires a conflateKey to conflate");
+            }
+            Duration sample = StringUtils.hasText(backpressure.sample()) ? DurationStyle.detectAndParse(backpressure.sample()) : null;
+            return new GraphFeignSubscriptionBuffer(backpressure.bufferSize(), backpressure.overflow(), conflateKey, sample, methodMetrics);
         }
     }
 }
@@ -0,0 +1,156 @@
+package com.skycstech.graphclient.core;
+
+import org.springframework.http.HttpHeaders;
+
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Arguments of a single call of a {@link com.skycstech.graphclient.core.annotation.GraphFeignRequest} method,
+ * bound to the variables, document, headers, tenant, shard key and sink of the request.
+ * <p>Built directly by implementations generated at build time, see {@link GraphFeignMethodHandle}, and from the
+ * method parameters for calls through the proxy. Two calls with equal arguments send the same request.
+ *
+ * @author Akash Patel
+ */
+public final class GraphFeignArguments {
+
+    private Map<String, Object> variables;
+    private HttpHeaders headers;
+    private String document;
+    private String documentName;
+    private String tenant;
+    private String shardKey;
+    private WritableByteChannel sink;
+
+    /**
+     * Set the variable of the given name.
+     */
+    public GraphFeignArguments variable(String name, Object value) {
+        if (this.variables == null) {
+            this.variables = new LinkedHashMap<>();
+        }
+        this.variables.put(name, value);
+        return this;
+    }
+
+    /**
+     * Set the entries of the value as variables if it is a {@link Map}, the variable of the given name otherwise.
+     *
+     * @throws IllegalArgumentException if a key of the map is not a String
+     */
+    public GraphFeignArguments variables(String name, Object value) {
+        if (!(value instanceof Map<?, ?> map)) {
+            return variable(name, value);
+        }
+        map.forEach((key, entry) -> {
+            if (key instanceof String keyStr) {
+                variable(keyStr, entry);
+            } else {
+                throw new IllegalArgumentException("Map key must be a String");
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Send the given document, unless a document name is set.
+     */
+    public GraphFeignArguments document(String document) {
+        this.document = document;
+        return this;
+    }
+
+    /**
+     * Send the document of the given name, loaded from the {@code DocumentSource} of the method.
+     */
+    public GraphFeignArguments documentName(String documentName) {
+        this.documentName = documentName;
+        return this;
+    }
+
+    /**
+     * Set the header of the request, replacing the header of the same name of the client.
+     */
+    public GraphFeignArguments header(String name, String value) {
+        if (this.headers == null) {
+            this.headers = new HttpHeaders();
+        }
+        this.headers.set(name, value);
+        return this;
+    }
+
+    /**
+     * Send the request for the given tenant, {@code null} for the tenant of the {@link GraphFeignTenantContext}.
+     */
+    public GraphFeignArguments tenant(String tenant) {
+        this.tenant = tenant;
+        return this;
+    }
+
+    /**
+     * Send the request to the shards of the given key, {@code null} for every shard.
+     */
+    public GraphFeignArguments shardKey(String shardKey) {
+        this.shardKey = shardKey;
+        return this;
+    }
+
+    /**
+     * Write the raw response to the given channel.
+     */
+    public GraphFeignArguments sink(WritableByteChannel sink) {
+        this.sink = sink;
+        return this;
+    }
+
+    Map<String, Object> getVariables() {
+        return this.variables != null ? this.variables : Collections.emptyMap();
+    }
+
+    HttpHeaders getHeaders() {
+        return this.headers;
+    }
+
+    String getDocument() {
+        return this.document;
+    }
+
+    String getDocumentName() {
+        return this.documentName;
+    }
+
+    String getTenant() {
+        return this.tenant;
+    }
+
+    String getShardKey() {
+        return this.shardKey;
+    }
+
+    WritableByteChannel getSink() {
+        return this.sink;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof GraphFeignArguments that)) {
+            return false;
+        }
+        return getVariables().equals(that.getVariables()) && Objects.equals(this.headers, that.headers)
+                && Objects.equals(this.document, that.document) && Objects.equals(this.documentName, that.documentName)
+                && Objects.equals(this.tenant, that.tenant) && Objects.equals(this.shardKey, that.shardKey)
+                && Objects.equals(this.sink, that.sink);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getVariables(), this.headers, this.document, this.documentName, this.tenant, this.shardKey, this.sink);
+    }
+}
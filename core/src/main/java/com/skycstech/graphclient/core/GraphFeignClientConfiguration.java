@@ -1,10 +1,12 @@
 package com.skycstech.graphclient.core;
 
+import com.skycstech.graphclient.core.auth.GraphFeignTokenProvider;
 import org.springframework.graphql.client.GraphQlClientInterceptor;
 import org.springframework.graphql.support.DocumentSource;
 import org.springframework.http.HttpHeaders;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -31,4 +33,44 @@ public interface GraphFeignClientConfiguration {
         return null;
     }
 
+    /**
+     * Headers consumer for the WebSocket handshake of the given GraphFeignClient
+     * <p> Applied once, as the connection is shared by all methods
+     */
+    default Consumer<HttpHeaders> webSocketHeadersConsumer() {
+        return headers -> {
+        };
+    }
+
+    /**
+     * Configuration of the given tenant of the GraphFeignClient, {@code null} if the tenant is unknown
+     * <p> Called once per tenant, the result is cached until the tenant is evicted
+     */
+    default GraphFeignTenantConfiguration tenantConfiguration(String tenant) {
+        return null;
+    }
+
+    /**
+     * Provider of the bearer tokens of the given GraphFeignClient, {@code null} if it sends none
+     * <p> Tokens are cached and refreshed before they expire, the provider is not called per request
+     */
+    default GraphFeignTokenProvider tokenProvider() {
+        return null;
+    }
+
+    /**
+     * Audience of the tokens of the given GraphFeignClient, passed to the {@link #tokenProvider()}
+     */
+    default String tokenAudience() {
+        return null;
+    }
+
+    /**
+     * Names of the shards the requests with the given routing key are sent to
+     * <p> Defaults to the shard named by the key
+     */
+    default Collection<String> shards(String routingKey) {
+        return List.of(routingKey);
+    }
+
 }
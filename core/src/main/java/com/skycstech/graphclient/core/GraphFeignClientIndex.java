@@ -0,0 +1,113 @@
+package com.skycstech.graphclient.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Index of GraphFeign clients generated at build time by the GraphFeign annotation processor.
+ * <p>Each {@value #INDEX_LOCATION} entry maps a {@link com.skycstech.graphclient.core.annotation.GraphFeignClient}
+ * interface to its generated implementation, or to an empty value when only the interface was indexed.
+ * Every indexed client was validated at build time.
+ * <p>Each {@value #PACKAGES_LOCATION} resource lists the packages compiled along with an index. Clients in
+ * those packages are registered from the index, the other base packages are still scanned, as their clients may
+ * come from jars built without the processor.
+ *
+ * @author Akash Patel
+ */
+class GraphFeignClientIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignClientIndex.class);
+
+    static final String INDEX_LOCATION = "META-INF/graphfeign.index";
+    static final String PACKAGES_LOCATION = "META-INF/graphfeign.packages";
+
+    private static final Map<ClassLoader, Optional<GraphFeignClientIndex>> cache = new ConcurrentReferenceHashMap<>();
+
+    private final Map<String, String> entries;
+    private final Set<String> packages;
+
+    private GraphFeignClientIndex(Map<String, String> entries, Set<String> packages) {
+        this.entries = entries;
+        this.packages = packages;
+    }
+
+    /**
+     * Load the index from all {@value #INDEX_LOCATION} and {@value #PACKAGES_LOCATION} resources of the given
+     * class loader.
+     *
+     * @return the index, or {@code null} if no index is present
+     */
+    @Nullable
+    static GraphFeignClientIndex load(@Nullable ClassLoader classLoader) {
+        ClassLoader indexClassLoader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+        return cache.computeIfAbsent(indexClassLoader, GraphFeignClientIndex::doLoad).orElse(null);
+    }
+
+    private static Optional<GraphFeignClientIndex> doLoad(ClassLoader classLoader) {
+        try {
+            Properties properties = PropertiesLoaderUtils.loadAllProperties(INDEX_LOCATION, classLoader);
+            if (properties.isEmpty()) {
+                return Optional.empty();
+            }
+            Map<String, String> entries = new LinkedHashMap<>();
+            properties.stringPropertyNames().stream().sorted()
+                    .forEach(client -> entries.put(client, properties.getProperty(client).trim()));
+            Set<String> packages = new HashSet<>();
+            for (URL url : Collections.list(classLoader.getResources(PACKAGES_LOCATION))) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    reader.lines().map(String::trim).filter(StringUtils::hasText).forEach(packages::add);
+                }
+            }
+            log.debug("Loaded GraphFeign index with [{}] clients in [{}] packages", entries.size(), packages.size());
+            return Optional.of(new GraphFeignClientIndex(entries, packages));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load GraphFeign index from location [" + INDEX_LOCATION + "]", e);
+        }
+    }
+
+    /**
+     * Whether the given base package was compiled along with an index, so its clients can be registered from it.
+     */
+    boolean covers(String basePackage) {
+        return this.packages.contains(basePackage);
+    }
+
+    /**
+     * Class names of the indexed clients in the given package or any of its sub-packages.
+     */
+    Set<String> getClients(String basePackage) {
+        Set<String> clients = new LinkedHashSet<>();
+        for (String client : this.entries.keySet()) {
+            String packageName = ClassUtils.getPackageName(client);
+            if (packageName.equals(basePackage) || packageName.startsWith(basePackage + ".")) {
+                clients.add(client);
+            }
+        }
+        return clients;
+    }
+
+    boolean contains(String client) {
+        return this.entries.containsKey(client);
+    }
+
+    /**
+     * Class name of the generated implementation of the given client, validated at build time.
+     */
+    @Nullable
+    String getImplementation(String client) {
+        String implementation = this.entries.get(client);
+        return StringUtils.hasText(implementation) ? implementation : null;
+    }
+}
@@ -4,7 +4,9 @@ import com.skycstech.graphclient.core.logger.GraphFeignLogger;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,4 +19,294 @@ public class GraphFeignClientProperties {
     private GraphFeignLogger.Level loggerLevel = GraphFeignLogger.Level.NONE;
     private List<String> sensitiveHeaders = new ArrayList<>();
 
+    /**
+     * Maximum size of each request and response body logged at FULL level, the rest is truncated.
+     */
+    private DataSize loggerMaxBodySize = DataSize.ofKilobytes(8);
+
+    /**
+     * Fraction of the requests logged, between 0 and 1.
+     */
+    private double loggerSampleRate = 1.0;
+
+    /**
+     * Log only failed requests, HTTP error statuses and responses with GraphQL errors.
+     */
+    private boolean loggerErrorsOnly = Boolean.FALSE;
+
+    private WebSocket webSocket = new WebSocket();
+    private WarmUp warmUp = new WarmUp();
+    private Metrics metrics = new Metrics();
+    private Tracing tracing = new Tracing();
+    private Capture capture = new Capture();
+    private NormalizedCache normalizedCache = new NormalizedCache();
+    private Tenants tenants = new Tenants();
+    private Token token = new Token();
+    private RateLimit rateLimit = new RateLimit();
+    private Scatter scatter = new Scatter();
+    private HttpGet httpGet = new HttpGet();
+    private Raw raw = new Raw();
+    private SharedSubscriptions sharedSubscriptions = new SharedSubscriptions();
+
+    @Getter
+    @Setter
+    public static class WebSocket {
+
+        /**
+         * Interval of write inactivity after which a ping frame is sent. Zero or negative disables keepalive.
+         */
+        private Duration keepAliveInterval = Duration.ofSeconds(30);
+
+        /**
+         * Maximum number of attempts to resubscribe a subscription after the connection is lost.
+         */
+        private long reconnectMaxAttempts = Long.MAX_VALUE;
+
+        /**
+         * Initial backoff between reconnect attempts, doubled on every attempt.
+         */
+        private Duration reconnectMinBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Upper bound of the backoff between reconnect attempts.
+         */
+        private Duration reconnectMaxBackoff = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUp {
+
+        /**
+         * Instantiate the clients and preload their documents once the application is ready,
+         * before it reports readiness.
+         */
+        private boolean enabled = Boolean.FALSE;
+
+        /**
+         * Number of pooled connections opened per endpoint. Zero opens none.
+         */
+        private int connections = 1;
+
+        /**
+         * Send a {@code { __typename }} query to every endpoint.
+         */
+        private boolean ping = Boolean.FALSE;
+
+        /**
+         * Maximum time to wait for the warm-up, the application starts anyway once it elapsed.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+
+        /**
+         * Record metrics of every call to the MeterRegistry of the application, if there is one.
+         */
+        private boolean enabled = Boolean.TRUE;
+
+        /**
+         * Percentiles published by the request timers, also reported by the graphfeign actuator endpoint.
+         */
+        private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.95, 0.99));
+    }
+
+    @Getter
+    @Setter
+    public static class Tracing {
+
+        /**
+         * Wrap every call in a span of the Spring Cloud Sleuth Tracer of the application, if there is one.
+         */
+        private boolean enabled = Boolean.TRUE;
+    }
+
+    @Getter
+    @Setter
+    public static class Capture {
+
+        /**
+         * Record a sample of the HTTP exchanges of every client to a local file, for offline replay.
+         */
+        private boolean enabled = Boolean.FALSE;
+
+        /**
+         * File the exchanges are appended to, shared by all clients.
+         */
+        private String file = "graphfeign-capture.jsonl";
+
+        /**
+         * Fraction of the exchanges captured, between 0 and 1.
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * Maximum size of a request or response body parsed for its shape, only the size of larger bodies is recorded.
+         */
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+        /**
+         * Size of the file at which capture stops.
+         */
+        private DataSize maxFileSize = DataSize.ofMegabytes(100);
+    }
+
+    @Getter
+    @Setter
+    public static class NormalizedCache {
+
+        /**
+         * Maximum number of entities, and of query root fields, cached by each client using the normalized cache.
+         */
+        private int maxEntities = 10000;
+
+        /**
+         * Time to live of each cached field, zero for no expiry.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        private Store store = new Store();
+
+        @Getter
+        @Setter
+        public static class Store {
+
+            /**
+             * Keep the responses of the cached queries in a memory-mapped file as well, to start warm after a restart.
+             */
+            private boolean enabled = Boolean.FALSE;
+
+            /**
+             * Directory of the store files, one per client.
+             */
+            private String directory = "graphfeign-cache";
+
+            /**
+             * Size of the file of each client, at most 2GB.
+             */
+            private DataSize maxSize = DataSize.ofMegabytes(64);
+
+            /**
+             * Time to live of the stored responses.
+             */
+            private Duration ttl = Duration.ofHours(1);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Tenants {
+
+        /**
+         * Maximum number of tenants kept per client, the least recently used are evicted beyond.
+         */
+        private int maxTenants = 100;
+
+        /**
+         * Time after which a tenant without requests is evicted, zero to keep tenants until the maximum is reached.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Token {
+
+        /**
+         * How long before its expiry a token in use is refreshed in the background.
+         */
+        private Duration refreshBefore = Duration.ofSeconds(60);
+
+        /**
+         * Maximum time to wait for the token provider.
+         */
+        private Duration fetchTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Interval between attempts to refresh a token that is still valid after a failed refresh.
+         */
+        private Duration retryInterval = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+
+        private boolean enabled = false;
+
+        /**
+         * Cost restored per second, until the server reports its own restore rate.
+         */
+        private double rate = 50;
+
+        /**
+         * Maximum cost available at once, until the server reports its own maximum.
+         */
+        private double capacity = 1000;
+
+        /**
+         * Cost of an operation whose cost was not reported by the server yet.
+         */
+        private double defaultCost = 1;
+
+        /**
+         * Maximum time a request waits for its cost to be available, it fails beyond.
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        /**
+         * Maximum number of times a throttled request is sent again.
+         */
+        private int maxRetries = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Scatter {
+
+        /**
+         * Maximum time to wait for each shard, unless the method sets its own.
+         */
+        private Duration shardTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class HttpGet {
+
+        /**
+         * Maximum number of ETags, with their response, kept by each client sending queries as GET requests.
+         */
+        private int maxEntries = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Raw {
+
+        /**
+         * Maximum size of the raw body of a response, passed through without decoding.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Fail raw responses with errors. The body is then received in full before being passed through.
+         */
+        private boolean checkErrors = Boolean.FALSE;
+    }
+
+    @Getter
+    @Setter
+    public static class SharedSubscriptions {
+
+        /**
+         * Time a shared subscription to the server is kept after its last subscriber left, unless the method sets
+         * its own.
+         */
+        private Duration gracePeriod = Duration.ofSeconds(5);
+    }
+
 }
@@ -2,10 +2,12 @@ package com.skycstech.graphclient.core;
 
 import com.skycstech.graphclient.core.annotation.GraphFeignClient;
 import com.skycstech.graphclient.core.annotation.GraphFeignRequest;
+import com.skycstech.graphclient.core.transport.GraphFeignTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
 import org.springframework.beans.factory.config.*;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
@@ -27,8 +29,10 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -40,8 +44,19 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
 
     private static Logger log = LoggerFactory.getLogger(GraphFeignClientsRegistrar.class);
 
+    /**
+     * Set to true to ignore the build-time index and always scan the base packages.
+     */
+    static final String IGNORE_INDEX_PROPERTY = "graph-feign.client.ignore-index";
+
+    /**
+     * Attribute of the bean definition of every client, holding its {@link GraphFeignFactoryBean}.
+     */
+    static final String FACTORY_BEAN_ATTRIBUTE = "graphFeignClientsRegistrarFactoryBean";
+
     private ResourceLoader resourceLoader;
     private Environment environment;
+    private GraphFeignClientIndex index;
 
     GraphFeignClientsRegistrar() {
     }
@@ -62,17 +77,37 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
     }
 
     private void registerGraphFeignClients(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
-        LinkedHashSet<BeanDefinition> candidateComponents = new LinkedHashSet<>();
+        // Keyed by class name, as a client may be both indexed and scanned
+        Map<String, BeanDefinition> candidateComponents = new LinkedHashMap<>();
 
-        ClassPathScanningCandidateComponentProvider scanner = getScanner();
-        scanner.setResourceLoader(this.resourceLoader);
-        scanner.addIncludeFilter(new AnnotationTypeFilter(GraphFeignClient.class));
         Set<String> basePackages = getBasePackages(metadata);
-        for (String basePackage : basePackages) {
-            candidateComponents.addAll(scanner.findCandidateComponents(basePackage));
+        Set<String> scannedPackages = new LinkedHashSet<>(basePackages);
+        this.index = getIndex();
+        if (this.index != null) {
+            for (String basePackage : basePackages) {
+                if (!this.index.covers(basePackage)) {
+                    log.info("Base package [{}] is not covered by the GraphFeign index, scanning it", basePackage);
+                    continue;
+                }
+                log.debug("Registering GrapheignClients of base package [{}] from index [{}]", basePackage, GraphFeignClientIndex.INDEX_LOCATION);
+                scannedPackages.remove(basePackage);
+                for (String client : this.index.getClients(basePackage)) {
+                    candidateComponents.putIfAbsent(client, new AnnotatedGenericBeanDefinition(ClassUtils.resolveClassName(client, getClassLoader())));
+                }
+            }
+        }
+        if (!scannedPackages.isEmpty()) {
+            ClassPathScanningCandidateComponentProvider scanner = getScanner();
+            scanner.setResourceLoader(this.resourceLoader);
+            scanner.addIncludeFilter(new AnnotationTypeFilter(GraphFeignClient.class));
+            for (String basePackage : scannedPackages) {
+                for (BeanDefinition candidateComponent : scanner.findCandidateComponents(basePackage)) {
+                    candidateComponents.putIfAbsent(candidateComponent.getBeanClassName(), candidateComponent);
+                }
+            }
         }
 
-        for (BeanDefinition candidateComponent : candidateComponents) {
+        for (BeanDefinition candidateComponent : candidateComponents.values()) {
             if (candidateComponent instanceof AnnotatedBeanDefinition beanDefinition) {
                 // verify annotated class is an interface
                 AnnotationMetadata annotationMetadata = beanDefinition.getMetadata();
@@ -83,12 +118,26 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
 
                 // Register GrapheignClient
                 assert attributes != null;
-                registerClientConfiguration(registry, attributes.get("name"), attributes.get("configuration"));
+                if (Boolean.TRUE.equals(attributes.get("isolatedContext"))) {
+                    // Only clients with an isolated context get a child context in GraphFeignContext
+                    registerClientConfiguration(registry, attributes.get("name"), attributes.get("configuration"));
+                }
                 registerGraphFeignClient(registry, annotationMetadata, attributes);
             }
         }
     }
 
+    private GraphFeignClientIndex getIndex() {
+        if (this.environment != null && this.environment.getProperty(IGNORE_INDEX_PROPERTY, Boolean.class, false)) {
+            return null;
+        }
+        return GraphFeignClientIndex.load(getClassLoader());
+    }
+
+    private ClassLoader getClassLoader() {
+        return this.resourceLoader != null ? this.resourceLoader.getClassLoader() : null;
+    }
+
     protected ClassPathScanningCandidateComponentProvider getScanner() {
         return new ClassPathScanningCandidateComponentProvider(false, this.environment) {
             @Override
@@ -152,10 +201,21 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
 
         String className = annotationMetadata.getClassName();
         Class<?> clazz = ClassUtils.resolveClassName(className, null);
-        validateMethods(clazz);
+        Class<?> implementation = getGeneratedImplementation(clazz);
+        // Indexed clients were validated at build time
+        if (implementation == null && (this.index == null || !this.index.contains(clazz.getName()))) {
+            validateMethods(clazz);
+        }
 
         String name = (String) attributes.get("name");
-        String url = getUrl(beanFactory, attributes);
+        Map<String, String> shards = getShards(beanFactory, attributes);
+        String url = Optional.ofNullable(getUrl(beanFactory, attributes))
+                .filter(StringUtils::hasText)
+                .orElseGet(() -> shards.values().stream().findFirst().orElse(null));
+        String webSocketUrl = getWebSocketUrl(beanFactory, attributes, url);
+        GraphFeignTransport transport = attributes.get("transport") != null
+                ? (GraphFeignTransport) attributes.get("transport") : GraphFeignTransport.HTTP;
+        boolean isolatedContext = Boolean.TRUE.equals(attributes.get("isolatedContext"));
         Class<? extends GraphFeignClientConfiguration> requestInterceptor = attributes.get("configuration") != null
                 ? (Class<? extends GraphFeignClientConfiguration>) attributes.get("configuration") : DefaultGraphFeignClientConfiguration.class;
 
@@ -166,6 +226,11 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
 
         BeanDefinitionBuilder definition = BeanDefinitionBuilder.genericBeanDefinition(clazz, () -> {
             factoryBean.setUrl(url);
+            factoryBean.setWebSocketUrl(webSocketUrl);
+            factoryBean.setShards(shards);
+            factoryBean.setTransport(transport);
+            factoryBean.setImplementation(implementation);
+            factoryBean.setIsolatedContext(isolatedContext);
             factoryBean.setClientConfiguration(requestInterceptor);
             return factoryBean.getTarget();
         });
@@ -174,7 +239,7 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
 
         AbstractBeanDefinition beanDefinition = definition.getBeanDefinition();
         beanDefinition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, className);
-        beanDefinition.setAttribute("graphFeignClientsRegistrarFactoryBean", factoryBean);
+        beanDefinition.setAttribute(FACTORY_BEAN_ATTRIBUTE, factoryBean);
         beanDefinition.setPrimary(true);
 
         String[] qualifiers = new String[]{name + "GraphFeignClient"};
@@ -183,7 +248,7 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
         BeanDefinitionReaderUtils.registerBeanDefinition(holder, registry);
 
         log.info("Registered GrapheignClient [{}]", name);
-        log.debug("Registered GrapheignClient [{}] with URL [{}] and RequestInterceptor [{}]", name, url, requestInterceptor.getSimpleName());
+        log.debug("Registered GrapheignClient [{}] with URL [{}], Transport [{}] and RequestInterceptor [{}]", name, url, transport, requestInterceptor.getSimpleName());
     }
 
     private void validateGraphFeignClientAttributes(Map<String, Object> attributes) {
@@ -197,11 +262,33 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
         }
 
         String url = (String) attributes.get("url");
-        if (!StringUtils.hasText(url)) {
-            throw new IllegalStateException("URL must be provided in @" + GraphFeignClient.class.getSimpleName());
+        String[] shards = (String[]) attributes.get("shards");
+        if (!StringUtils.hasText(url) && (shards == null || shards.length == 0)) {
+            throw new IllegalStateException("URL or shards must be provided in @" + GraphFeignClient.class.getSimpleName());
         }
     }
 
+    /**
+     * Implementation generated by the GraphFeign annotation processor, if present.
+     * <p>Its methods were validated at build time, so runtime validation is skipped.
+     */
+    private Class<?> getGeneratedImplementation(Class<?> clazz) {
+        if (this.index != null && this.index.contains(clazz.getName())) {
+            String indexedImplementation = this.index.getImplementation(clazz.getName());
+            return indexedImplementation != null ? ClassUtils.resolveClassName(indexedImplementation, clazz.getClassLoader()) : null;
+        }
+
+        String implementationName = GraphFeign.generatedImplementationName(clazz);
+        if (ClassUtils.isPresent(implementationName, clazz.getClassLoader())) {
+            Class<?> implementation = ClassUtils.resolveClassName(implementationName, clazz.getClassLoader());
+            if (clazz.isAssignableFrom(implementation)) {
+                log.debug("Found generated implementation [{}] for [{}]", implementationName, clazz.getName());
+                return implementation;
+            }
+        }
+        return null;
+    }
+
     private void validateMethods(Class<?> clazz) {
         Method[] methods = clazz.getMethods();
         for (Method method : methods) {
@@ -218,6 +305,36 @@ class GraphFeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Resou
         return getUrl(url);
     }
 
+    private Map<String, String> getShards(ConfigurableBeanFactory beanFactory, Map<String, Object> attributes) {
+        Map<String, String> shards = new LinkedHashMap<>();
+        for (String shard : Optional.ofNullable((String[]) attributes.get("shards")).orElse(new String[0])) {
+            int separator = shard.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Shard [" + shard + "] must be a name=url entry");
+            }
+            String shardName = shard.substring(0, separator).trim();
+            if (shards.put(shardName, getUrl(resolve(beanFactory, shard.substring(separator + 1).trim()))) != null) {
+                throw new IllegalArgumentException("Shard [" + shardName + "] is declared more than once");
+            }
+        }
+        return shards;
+    }
+
+    private String getWebSocketUrl(ConfigurableBeanFactory beanFactory, Map<String, Object> attributes, String url) {
+        String webSocketUrl = resolve(beanFactory, (String) attributes.get("webSocketUrl"));
+        if (StringUtils.hasText(webSocketUrl)) {
+            return webSocketUrl;
+        }
+        if (StringUtils.hasText(url)) {
+            if (url.startsWith("https://")) {
+                return "wss://" + url.substring("https://".length());
+            } else if (url.startsWith("http://")) {
+                return "ws://" + url.substring("http://".length());
+            }
+        }
+        return url;
+    }
+
     private String resolve(ConfigurableBeanFactory beanFactory, String value) {
         if (StringUtils.hasText(value)) {
             if (beanFactory == null || value.startsWith("${")) {
@@ -0,0 +1,102 @@
+package com.skycstech.graphclient.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Resolves the {@link GraphFeignClientConfiguration}, {@link GraphFeignCustomizer} and {@link GraphFeign.Builder}
+ * of each client from the application context, without creating a child context per client.
+ * <p>Configurations that are not beans are instantiated once per class and shared by the clients using them.
+ * <p>Clients declared with {@code isolatedContext = true} resolve them from their own child context
+ * in {@link GraphFeignContext} instead, where the configuration class can declare beans of its own.
+ * <p>Every {@link GraphFeign} built for a client is registered here once the client bean is created, and closed
+ * when the context is closed. Client beans are created from a supplier, so Spring has no destroy callback of theirs to run.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignConfigurationRegistry implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignConfigurationRegistry.class);
+
+    private final BeanFactory beanFactory;
+    private final GraphFeignContext context;
+    private final Map<Class<?>, Object> instances = new ConcurrentHashMap<>();
+    private final Map<String, GraphFeign> clients = new ConcurrentHashMap<>();
+    private final Queue<GraphFeign> built = new ConcurrentLinkedQueue<>();
+
+    public GraphFeignConfigurationRegistry(BeanFactory beanFactory, GraphFeignContext context) {
+        this.beanFactory = beanFactory;
+        this.context = context;
+    }
+
+    public GraphFeignClientConfiguration getConfiguration(String clientName, boolean isolatedContext,
+                                                          Class<? extends GraphFeignClientConfiguration> configuration) {
+        if (configuration == null) {
+            return null;
+        }
+        if (isolatedContext) {
+            return getIsolated(clientName, configuration);
+        }
+        return getOrInstantiate(configuration);
+    }
+
+    public GraphFeignCustomizer getCustomizer(String clientName, boolean isolatedContext) {
+        if (isolatedContext) {
+            return getIsolated(clientName, GraphFeignCustomizer.class);
+        }
+        return getOrInstantiate(GraphFeignCustomizer.class);
+    }
+
+    public GraphFeign.Builder getBuilder(String clientName, boolean isolatedContext) {
+        if (isolatedContext) {
+            return getIsolated(clientName, GraphFeign.Builder.class);
+        }
+        return this.beanFactory.getBean(GraphFeign.Builder.class);
+    }
+
+    public void register(GraphFeign graphFeign) {
+        this.clients.put(graphFeign.getName(), graphFeign);
+        this.built.add(graphFeign);
+    }
+
+    public Collection<GraphFeign> getClients() {
+        return Collections.unmodifiableCollection(this.clients.values());
+    }
+
+    @Override
+    public void destroy() {
+        GraphFeign graphFeign;
+        while ((graphFeign = this.built.poll()) != null) {
+            graphFeign.close();
+        }
+    }
+
+    private <T> T getIsolated(String clientName, Class<T> type) {
+        log.debug("Resolving [{}] from isolated context of GraphFeignClient [{}]", type.getSimpleName(), clientName);
+        T instance = this.context.getInstance(clientName, type);
+        if (instance == null) {
+            throw new IllegalStateException("No bean found of type " + type + " for " + clientName);
+        }
+        return instance;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getOrInstantiate(Class<T> type) {
+        try {
+            return this.beanFactory.getBean(type);
+        } catch (NoSuchBeanDefinitionException e) {
+            return (T) this.instances.computeIfAbsent(type, BeanUtils::instantiateClass);
+        }
+    }
+}
@@ -7,6 +7,12 @@ import org.springframework.lang.Nullable;
 
 import java.util.Map;
 
+/**
+ * Child application contexts for GraphFeign clients declared with {@code isolatedContext = true}.
+ * <p>Other clients are configured through {@link GraphFeignConfigurationRegistry} and never create a child context.
+ *
+ * @author Akash Patel
+ */
 public class GraphFeignContext extends NamedContextFactory<GraphFeignClientSpecification> {
 
     public GraphFeignContext() {
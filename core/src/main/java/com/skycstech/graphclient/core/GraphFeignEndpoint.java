@@ -0,0 +1,201 @@
+package com.skycstech.graphclient.core;
+
+import com.skycstech.graphclient.core.annotation.GraphFeignDocument;
+import com.skycstech.graphclient.core.annotation.GraphFeignRequest;
+import com.skycstech.graphclient.core.cache.GraphFeignNormalizedCache;
+import com.skycstech.graphclient.core.cache.GraphFeignResponseStore;
+import com.skycstech.graphclient.core.metrics.GraphFeignMetrics;
+import com.skycstech.graphclient.core.ratelimit.GraphFeignRateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/graphfeign} endpoint, reporting the runtime state of every GraphFeign client.
+ * <p>Clients are created on their first use, or on warm-up; clients not created yet are listed with their
+ * declaration only. Latencies, in-flight requests and the slowest recent calls are reported when metrics are
+ * enabled. Connection pool usage is read from the Reactor Netty connection provider meters, so it is only
+ * reported when those are enabled.
+ *
+ * @author Akash Patel
+ */
+@Endpoint(id = "graphfeign")
+public class GraphFeignEndpoint {
+
+    private static final String CONNECTION_PROVIDER_PREFIX = "reactor.netty.connection.provider.";
+    private static final int SLOWEST_CALLS = 10;
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final GraphFeignConfigurationRegistry registry;
+    private final MeterRegistry meterRegistry;
+
+    public GraphFeignEndpoint(ConfigurableListableBeanFactory beanFactory, GraphFeignConfigurationRegistry registry,
+                              MeterRegistry meterRegistry) {
+        this.beanFactory = beanFactory;
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record ClientDescriptor(String name, String url, String type, String transport, String implementation,
+                                   boolean created, Integer activeRequests, Map<String, Double> connectionPool,
+                                   NormalizedCacheDescriptor normalizedCache, RateLimitDescriptor rateLimit,
+                                   List<MethodDescriptor> methods,
+                                   List<GraphFeignMetrics.RecentCall> slowestRecentCalls) {
+    }
+
+    public record NormalizedCacheDescriptor(int entities, int maxEntities, long hits, long misses,
+                                            Integer storedResponses, Long storedBytes, Long storeHits) {
+    }
+
+    public record RateLimitDescriptor(double available, double rate) {
+    }
+
+    public record MethodDescriptor(String method, String document, String operationName, boolean subscription,
+                                   boolean incremental, Map<GraphFeignMetrics.Outcome, LatencyDescriptor> calls) {
+    }
+
+    public record LatencyDescriptor(long count, double meanMillis, double maxMillis, Map<String, Double> percentilesMillis) {
+    }
+
+    @ReadOperation
+    public Map<String, ClientDescriptor> clients() {
+        Map<String, ClientDescriptor> clients = new TreeMap<>();
+        for (GraphFeignFactoryBean factoryBean : getFactoryBeans()) {
+            clients.put(factoryBean.getName(), describe(factoryBean));
+        }
+        return clients;
+    }
+
+    @ReadOperation
+    public ClientDescriptor client(@Selector String name) {
+        return getFactoryBeans().stream()
+                .filter(factoryBean -> factoryBean.getName().equals(name))
+                .findFirst()
+                .map(this::describe)
+                .orElse(null);
+    }
+
+    private List<GraphFeignFactoryBean> getFactoryBeans() {
+        List<GraphFeignFactoryBean> factoryBeans = new ArrayList<>();
+        for (String beanName : this.beanFactory.getBeanDefinitionNames()) {
+            Object attribute = this.beanFactory.getBeanDefinition(beanName).getAttribute(GraphFeignClientsRegistrar.FACTORY_BEAN_ATTRIBUTE);
+            if (attribute instanceof GraphFeignFactoryBean factoryBean) {
+                factoryBeans.add(factoryBean);
+            }
+        }
+        return factoryBeans;
+    }
+
+    private ClientDescriptor describe(GraphFeignFactoryBean factoryBean) {
+        GraphFeign graphFeign = this.registry.getClients().stream()
+                .filter(client -> client.getName().equals(factoryBean.getName()))
+                .findFirst()
+                .orElse(null);
+        GraphFeignMetrics metrics = graphFeign != null && graphFeign.getMetrics().isEnabled() ? graphFeign.getMetrics() : null;
+
+        List<MethodDescriptor> methods = new ArrayList<>();
+        for (Method method : factoryBean.getType().getMethods()) {
+            GraphFeignRequest annotation = method.getAnnotation(GraphFeignRequest.class);
+            if (annotation != null) {
+                String methodKey = method.getDeclaringClass().getName() + "#" + method.getName();
+                methods.add(new MethodDescriptor(method.getName(), document(method, annotation),
+                        StringUtils.hasText(annotation.operationName()) ? annotation.operationName() : null,
+                        annotation.isSubscription(), annotation.isIncremental(),
+                        metrics != null ? calls(metrics.getMethod(methodKey)) : null));
+            }
+        }
+        methods.sort(Comparator.comparing(MethodDescriptor::method));
+
+        return new ClientDescriptor(factoryBean.getName(), factoryBean.getUrl(), factoryBean.getType().getName(),
+                factoryBean.getTransport().name(),
+                factoryBean.getImplementation() != null ? factoryBean.getImplementation().getName() : "proxy",
+                graphFeign != null,
+                metrics != null ? metrics.getActiveRequests() : null,
+                connectionPool(factoryBean.getUrl()),
+                graphFeign != null ? normalizedCache(graphFeign.getNormalizedCache()) : null,
+                graphFeign != null ? rateLimit(graphFeign.getRateLimiter()) : null,
+                methods,
+                metrics != null ? metrics.getSlowestRecentCalls(SLOWEST_CALLS) : null);
+    }
+
+    private String document(Method method, GraphFeignRequest annotation) {
+        if (StringUtils.hasText(annotation.documentName())) {
+            return annotation.documentName();
+        }
+        boolean hasDocumentParam = Arrays.stream(method.getParameters())
+                .anyMatch(parameter -> parameter.isAnnotationPresent(GraphFeignDocument.class));
+        return hasDocumentParam ? "@GraphFeignDocument parameter" : "generated from return type";
+    }
+
+    private Map<GraphFeignMetrics.Outcome, LatencyDescriptor> calls(GraphFeignMetrics.MethodMetrics methodMetrics) {
+        if (methodMetrics == null) {
+            return null;
+        }
+        Map<GraphFeignMetrics.Outcome, LatencyDescriptor> calls = new EnumMap<>(GraphFeignMetrics.Outcome.class);
+        for (GraphFeignMetrics.Outcome outcome : GraphFeignMetrics.Outcome.values()) {
+            Timer timer = methodMetrics.getTimer(outcome);
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                percentiles.put(String.valueOf(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+            }
+            calls.put(outcome, new LatencyDescriptor(snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                    snapshot.max(TimeUnit.MILLISECONDS), percentiles));
+        }
+        return calls;
+    }
+
+    private NormalizedCacheDescriptor normalizedCache(GraphFeignNormalizedCache cache) {
+        if (cache == null) {
+            return null;
+        }
+        GraphFeignResponseStore store = cache.getStore();
+        return new NormalizedCacheDescriptor(cache.size(), cache.getMaxEntities(), cache.getHits(), cache.getMisses(),
+                store != null ? store.size() : null, store != null ? store.getUsedBytes() : null,
+                store != null ? cache.getStoreHits() : null);
+    }
+
+    private RateLimitDescriptor rateLimit(GraphFeignRateLimiter rateLimiter) {
+        return rateLimiter != null ? new RateLimitDescriptor(rateLimiter.getAvailable(), rateLimiter.getRate()) : null;
+    }
+
+    private Map<String, Double> connectionPool(String url) {
+        if (this.meterRegistry == null || !StringUtils.hasText(url)) {
+            return null;
+        }
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build();
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        String remoteAddress = uri.getHost() + ":" + port;
+
+        Map<String, Double> connectionPool = new TreeMap<>();
+        for (Gauge gauge : this.meterRegistry.find(CONNECTION_PROVIDER_PREFIX + "total.connections").gauges()) {
+            if (remoteAddress.equals(gauge.getId().getTag("remote.address"))) {
+                for (String meter : List.of("total.connections", "active.connections", "idle.connections", "pending.connections")) {
+                    Gauge poolGauge = this.meterRegistry.find(CONNECTION_PROVIDER_PREFIX + meter)
+                            .tags(gauge.getId().getTags())
+                            .gauge();
+                    if (poolGauge != null) {
+                        connectionPool.merge(meter, poolGauge.value(), Double::sum);
+                    }
+                }
+            }
+        }
+        return connectionPool.isEmpty() ? null : connectionPool;
+    }
+}
@@ -1,16 +1,22 @@
 package com.skycstech.graphclient.core;
 
+import com.skycstech.graphclient.core.capture.GraphFeignTrafficCapture;
+import com.skycstech.graphclient.core.tracing.GraphFeignTracing;
+import com.skycstech.graphclient.core.transport.GraphFeignTransport;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.*;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.util.Assert;
 
+import java.nio.file.Path;
+import java.util.Map;
+
 /**
  * Factory bean for creating Grapheign clients.
  *
@@ -26,6 +32,11 @@ public class GraphFeignFactoryBean
     private Class<?> type;
     private String name;
     private String url;
+    private String webSocketUrl;
+    private Map<String, String> shards = Map.of();
+    private GraphFeignTransport transport = GraphFeignTransport.HTTP;
+    private Class<?> implementation;
+    private boolean isolatedContext;
     Class<? extends GraphFeignClientConfiguration> clientConfiguration;
 
     private ApplicationContext applicationContext;
@@ -37,53 +48,62 @@ public class GraphFeignFactoryBean
         Assert.hasText(url, "URL must be set");
     }
 
-    protected GraphFeign.Builder graphFeign(GraphFeignContext context) {
-        GraphFeign.Builder builder = get(context, GraphFeign.Builder.class)
+    protected GraphFeign.Builder graphFeign(GraphFeignConfigurationRegistry registry) {
+        GraphFeign.Builder builder = registry.getBuilder(name, isolatedContext)
                 .name(name)
                 .type(type)
                 .url(url)
-                .graphFeignClientConfiguration(getOrInstantiate(clientConfiguration));
+                .webSocketUrl(webSocketUrl)
+                .shards(shards)
+                .transport(transport)
+                .implementation(implementation)
+                .graphFeignClientConfiguration(registry.getConfiguration(name, isolatedContext, clientConfiguration));
 
-        configureGraphFeign(context, builder);
+        configureGraphFeign(registry, builder);
         return builder;
     }
 
-    protected void configureGraphFeign(GraphFeignContext context, GraphFeign.Builder builder) {
+    protected void configureGraphFeign(GraphFeignConfigurationRegistry registry, GraphFeign.Builder builder) {
         GraphFeignClientProperties properties = beanFactory != null ? beanFactory.getBean(GraphFeignClientProperties.class) : applicationContext.getBean(GraphFeignClientProperties.class);
 
         builder.disableSslValidation(properties.isDisableSslValidation());
+        builder.webSocketProperties(properties.getWebSocket());
+        builder.normalizedCacheProperties(properties.getNormalizedCache());
+        builder.tenantsProperties(properties.getTenants());
+        builder.tokenProperties(properties.getToken());
+        builder.rateLimitProperties(properties.getRateLimit());
+        builder.scatterProperties(properties.getScatter());
+        builder.httpGetProperties(properties.getHttpGet());
+        builder.rawProperties(properties.getRaw());
+        builder.sharedSubscriptionsProperties(properties.getSharedSubscriptions());
+        BeanFactory factory = beanFactory != null ? beanFactory : applicationContext;
+        if (properties.getMetrics().isEnabled()) {
+            builder.meterRegistry(factory.getBeanProvider(MeterRegistry.class).getIfAvailable());
+            builder.metricsPercentiles(properties.getMetrics().getPercentiles().stream().mapToDouble(Double::doubleValue).toArray());
+        }
+        if (properties.getTracing().isEnabled()) {
+            builder.tracing(GraphFeignTracing.of(factory, name));
+        }
+        GraphFeignClientProperties.Capture capture = properties.getCapture();
+        if (capture.isEnabled()) {
+            builder.trafficCapture(GraphFeignTrafficCapture.of(name, Path.of(capture.getFile()), capture.getSampleRate(),
+                    (int) capture.getMaxBodySize().toBytes(), capture.getMaxFileSize().toBytes()));
+        }
 
-        GraphFeignCustomizer customizer = getOrInstantiate(GraphFeignCustomizer.class);
-        customizer.getGraphFeignLogger().setObjectMapper(customizer.getObjectMapper());
+        GraphFeignCustomizer customizer = registry.getCustomizer(name, isolatedContext);
         customizer.getGraphFeignLogger().setLevel(properties.getLoggerLevel());
         customizer.getGraphFeignLogger().setSensitiveHeaders(properties.getSensitiveHeaders());
+        customizer.getGraphFeignLogger().setMaxBodySize((int) properties.getLoggerMaxBodySize().toBytes());
+        customizer.getGraphFeignLogger().setSampleRate(properties.getLoggerSampleRate());
+        customizer.getGraphFeignLogger().setErrorsOnly(properties.isLoggerErrorsOnly());
         builder.customizer(customizer);
     }
 
     <T> T getTarget() {
-        GraphFeignContext context = beanFactory != null ? beanFactory.getBean(GraphFeignContext.class) : applicationContext.getBean(GraphFeignContext.class);
-        GraphFeign.Builder builder = graphFeign(context);
-        return builder.target();
-    }
-
-    protected <T> T get(GraphFeignContext context, Class<T> type) {
-        T instance = context.getInstance(name, type);
-        if (instance == null) {
-            throw new IllegalStateException("No bean found of type " + type + " for " + name);
-        }
-        return instance;
-    }
-
-    private <T> T getOrInstantiate(Class<T> tClass) {
-        if (tClass == null) {
-            return null;
-        }
-
-        try {
-            return beanFactory != null ? beanFactory.getBean(tClass) : applicationContext.getBean(tClass);
-        } catch (NoSuchBeanDefinitionException e) {
-            return BeanUtils.instantiateClass(tClass);
-        }
+        GraphFeignConfigurationRegistry registry = beanFactory != null ? beanFactory.getBean(GraphFeignConfigurationRegistry.class) : applicationContext.getBean(GraphFeignConfigurationRegistry.class);
+        GraphFeign graphFeign = graphFeign(registry).build();
+        registry.register(graphFeign);
+        return graphFeign.newInstance();
     }
 
 
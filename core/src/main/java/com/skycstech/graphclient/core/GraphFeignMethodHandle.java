@@ -0,0 +1,20 @@
+package com.skycstech.graphclient.core;
+
+/**
+ * Executes one {@link com.skycstech.graphclient.core.annotation.GraphFeignRequest} method of a client,
+ * with the metadata of its return type resolved ahead of the call.
+ * <p>Obtained from {@link GraphFeign#methodHandle(org.springframework.core.ParameterizedTypeReference, String, Class[])}
+ * by implementations generated at build time, which bind the arguments of each call themselves and pass the type
+ * the response is decoded to.
+ *
+ * @author Akash Patel
+ */
+@FunctionalInterface
+public interface GraphFeignMethodHandle {
+
+    /**
+     * Execute the request with the given arguments.
+     */
+    Object invoke(GraphFeignArguments arguments);
+
+}
@@ -0,0 +1,203 @@
+package com.skycstech.graphclient.core;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Emits the nodes of the pages of a cursor paginated connection, see
+ * {@link com.skycstech.graphclient.core.annotation.GraphFeignPaginated}.
+ * <p>A page is fetched as soon as the previous one arrives, as long as fewer than {@code prefetch} pages are
+ * waiting behind the page being consumed, so the next pages are on their way while the nodes of the current one are
+ * processed. With a {@code prefetch} of 0, a page is only fetched once the previous one is consumed.
+ * A page with a next page but no end cursor fails the nodes, as the next page could not be requested.
+ * Nodes are emitted as the subscriber requests them, on the thread receiving a page or requesting nodes.
+ * Cancelling the subscription cancels the fetch in flight.
+ *
+ * @author Akash Patel
+ */
+final class GraphFeignPager {
+
+    record Page(List<?> nodes, boolean hasNextPage, String endCursor) {
+    }
+
+    private final Function<String, Mono<Page>> pageFetcher;
+    private final int prefetch;
+    private final FluxSink<Object> sink;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // Guarded by this
+    private final ArrayDeque<Iterator<?>> pages = new ArrayDeque<>();
+    private Iterator<?> current;
+    private long requested;
+    private String cursor;
+    private Fetch fetching;
+    private boolean lastPage;
+    private boolean cancelled;
+    private Throwable error;
+
+    private GraphFeignPager(Function<String, Mono<Page>> pageFetcher, int prefetch, FluxSink<Object> sink) {
+        this.pageFetcher = pageFetcher;
+        this.prefetch = prefetch;
+        this.sink = sink;
+    }
+
+    /**
+     * The nodes of every page, the first page is fetched with a {@code null} cursor.
+     */
+    static Flux<Object> nodes(Function<String, Mono<Page>> pageFetcher, int prefetch) {
+        return Flux.create(sink -> {
+            GraphFeignPager pager = new GraphFeignPager(pageFetcher, prefetch, sink);
+            sink.onDispose(pager::cancel);
+            sink.onRequest(pager::request);
+            pager.fetch();
+        });
+    }
+
+    private void request(long n) {
+        synchronized (this) {
+            this.requested = this.requested + n < 0 ? Long.MAX_VALUE : this.requested + n;
+        }
+        drain();
+    }
+
+    private void cancel() {
+        Fetch fetch;
+        synchronized (this) {
+            this.cancelled = true;
+            this.pages.clear();
+            fetch = this.fetching;
+        }
+        if (fetch != null && fetch.disposable != null) {
+            fetch.disposable.dispose();
+        }
+    }
+
+    /**
+     * Fetches the next page, unless one is in flight or enough pages are waiting to be consumed.
+     */
+    private void fetch() {
+        Fetch fetch = new Fetch();
+        String pageCursor;
+        synchronized (this) {
+            // Pages received and not started yet, the page being consumed is not ahead of the subscriber
+            int waiting = this.pages.size();
+            boolean consuming = this.current != null && this.current.hasNext();
+            if (this.fetching != null || this.lastPage || this.cancelled || this.error != null
+                    || (waiting >= this.prefetch && (waiting > 0 || consuming))) {
+                return;
+            }
+            this.fetching = fetch;
+            pageCursor = this.cursor;
+        }
+        fetch.disposable = this.pageFetcher.apply(pageCursor)
+                .subscribe(page -> onPage(fetch, page), e -> onError(fetch, e),
+                        () -> onError(fetch, new IllegalStateException("No page received")));
+        boolean cancelledMeanwhile;
+        synchronized (this) {
+            cancelledMeanwhile = this.cancelled;
+        }
+        if (cancelledMeanwhile) {
+            fetch.disposable.dispose();
+        }
+    }
+
+    private void onPage(Fetch fetch, Page page) {
+        synchronized (this) {
+            if (this.fetching != fetch || this.cancelled) {
+                return;
+            }
+            this.fetching = null;
+            if (!page.nodes().isEmpty()) {
+                this.pages.add(page.nodes().iterator());
+            }
+            this.cursor = page.endCursor();
+            this.lastPage = !page.hasNextPage();
+            if (page.hasNextPage() && page.endCursor() == null) {
+                // The next page would be requested with a null cursor, that is the first page again
+                this.error = new IllegalStateException("Page has a next page but no endCursor");
+                this.lastPage = true;
+            }
+        }
+        fetch();
+        drain();
+    }
+
+    private void onError(Fetch fetch, Throwable e) {
+        synchronized (this) {
+            // Completion after the page was received
+            if (this.fetching != fetch || this.cancelled) {
+                return;
+            }
+            this.fetching = null;
+            this.error = e;
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (true) {
+                Object node;
+                boolean pageStarted;
+                boolean pageConsumed;
+                synchronized (this) {
+                    if (this.cancelled || this.requested == 0) {
+                        break;
+                    }
+                    pageStarted = (this.current == null || !this.current.hasNext()) && !this.pages.isEmpty();
+                    if (pageStarted) {
+                        this.current = this.pages.poll();
+                    }
+                    if (this.current == null || !this.current.hasNext()) {
+                        break;
+                    }
+                    node = this.current.next();
+                    pageConsumed = !this.current.hasNext();
+                    if (this.requested != Long.MAX_VALUE) {
+                        this.requested--;
+                    }
+                }
+                if (pageStarted) {
+                    fetch();
+                }
+                this.sink.next(node);
+                if (pageConsumed) {
+                    fetch();
+                }
+            }
+
+            Throwable failure;
+            boolean complete;
+            synchronized (this) {
+                boolean empty = this.pages.isEmpty() && (this.current == null || !this.current.hasNext());
+                // Nodes already received are emitted before the error
+                failure = this.cancelled || !empty ? null : this.error;
+                complete = !this.cancelled && empty && this.lastPage && this.fetching == null;
+                if (failure != null || complete) {
+                    this.cancelled = true;
+                }
+            }
+            if (failure != null) {
+                this.sink.error(failure);
+            } else if (complete) {
+                this.sink.complete();
+            }
+        } while (this.wip.decrementAndGet() != 0);
+    }
+
+    private static class Fetch {
+
+        private volatile Disposable disposable;
+    }
+}
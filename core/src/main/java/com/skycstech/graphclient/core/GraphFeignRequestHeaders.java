@@ -0,0 +1,58 @@
+package com.skycstech.graphclient.core;
+
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.GraphQlClientInterceptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Headers of a single request, so clients built once can send the headers of each call, from the {@code headersConsumer},
+ * the tenant and the {@code GraphFeignHeader} parameters.
+ * <p>The headers are set as the {@link #ATTRIBUTE} request attribute, carried in the subscriber context from the
+ * {@link #interceptor()} to the {@link #filter()}, and set on the HTTP request, replacing the headers of the client.
+ *
+ * @author Akash Patel
+ */
+final class GraphFeignRequestHeaders {
+
+    /**
+     * Request attribute, the {@link HttpHeaders} of the request.
+     */
+    static final String ATTRIBUTE = GraphFeignRequestHeaders.class.getName() + ".headers";
+
+    private GraphFeignRequestHeaders() {
+    }
+
+    static GraphQlClientInterceptor interceptor() {
+        return new GraphQlClientInterceptor() {
+            @Override
+            public Mono<ClientGraphQlResponse> intercept(ClientGraphQlRequest request, Chain chain) {
+                Object headers = request.getAttributes().get(ATTRIBUTE);
+                if (!(headers instanceof HttpHeaders)) {
+                    return chain.next(request);
+                }
+                return chain.next(request).contextWrite(context -> context.put(GraphFeignRequestHeaders.class, headers));
+            }
+
+            @Override
+            public Flux<ClientGraphQlResponse> interceptSubscription(ClientGraphQlRequest request, SubscriptionChain chain) {
+                // Incremental responses consumed payload by payload are executed as subscriptions
+                Object headers = request.getAttributes().get(ATTRIBUTE);
+                if (!(headers instanceof HttpHeaders)) {
+                    return chain.next(request);
+                }
+                return chain.next(request).contextWrite(context -> context.put(GraphFeignRequestHeaders.class, headers));
+            }
+        };
+    }
+
+    static ExchangeFilterFunction filter() {
+        return (request, next) -> Mono.deferContextual(context -> context.<HttpHeaders>getOrEmpty(GraphFeignRequestHeaders.class)
+                .map(headers -> next.exchange(ClientRequest.from(request).headers(httpHeaders -> httpHeaders.putAll(headers)).build()))
+                .orElseGet(() -> next.exchange(request)));
+    }
+}
@@ -0,0 +1,251 @@
+package com.skycstech.graphclient.core;
+
+import com.skycstech.graphclient.core.annotation.GraphFeignBackpressure.Overflow;
+import com.skycstech.graphclient.core.metrics.GraphFeignMetrics;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Bounded buffer between a subscription and its subscriber, see
+ * {@link com.skycstech.graphclient.core.annotation.GraphFeignBackpressure}.
+ * <p>The elements waiting for the subscriber, and the ones dropped, are recorded by the metrics of the method.
+ *
+ * @author Akash Patel
+ */
+final class GraphFeignSubscriptionBuffer {
+
+    private final int size;
+    private final Overflow overflow;
+    private final Function<Object, Object> key;
+    private final Duration sample;
+    private final GraphFeignMetrics.MethodMetrics metrics;
+
+    GraphFeignSubscriptionBuffer(int size, Overflow overflow, Function<Object, Object> key, Duration sample,
+                                 GraphFeignMetrics.MethodMetrics metrics) {
+        this.size = size;
+        this.overflow = overflow;
+        this.key = key;
+        this.sample = sample;
+        this.metrics = metrics;
+        metrics.bindSubscriptionBuffer();
+    }
+
+    /**
+     * The elements of the subscription, at most {@code size} of them waiting for the subscriber.
+     */
+    <T> Flux<T> apply(Flux<T> source) {
+        Flux<T> sampled = this.sample != null ? source.sample(this.sample) : source;
+        if (this.overflow == Overflow.CONFLATE) {
+            return Flux.create(sink -> new Conflation<>(sampled, sink));
+        }
+        BufferOverflowStrategy strategy = switch (this.overflow) {
+            case DROP_LATEST -> BufferOverflowStrategy.DROP_LATEST;
+            case ERROR -> BufferOverflowStrategy.ERROR;
+            default -> BufferOverflowStrategy.DROP_OLDEST;
+        };
+        return Flux.defer(() -> {
+            AtomicInteger waiting = new AtomicInteger();
+            return sampled
+                    .doOnNext(element -> buffered(waiting, 1))
+                    .onBackpressureBuffer(this.size, dropped -> {
+                        buffered(waiting, -1);
+                        this.metrics.recordDropped();
+                    }, strategy)
+                    .doOnNext(element -> buffered(waiting, -1))
+                    .doFinally(signal -> this.metrics.recordBuffered(-waiting.getAndSet(0)));
+        });
+    }
+
+    /**
+     * The elements of the subscription once it completes, at most {@code size} of them.
+     */
+    <T> Mono<List<T>> collect(Flux<T> source) {
+        Flux<T> sampled = this.sample != null ? source.sample(this.sample) : source;
+        return Mono.defer(() -> {
+            Map<Object, T> conflated = new LinkedHashMap<>();
+            ArrayDeque<T> elements = new ArrayDeque<>();
+            return sampled
+                    .<T>handle((element, sink) -> {
+                        if (this.overflow == Overflow.CONFLATE) {
+                            if (conflateInto(conflated, element)) {
+                                this.metrics.recordDropped();
+                            }
+                        } else if (elements.size() < this.size) {
+                            elements.add(element);
+                        } else if (this.overflow == Overflow.ERROR) {
+                            sink.error(new IllegalStateException("More than " + this.size + " elements received"));
+                        } else {
+                            this.metrics.recordDropped();
+                            if (this.overflow == Overflow.DROP_OLDEST) {
+                                elements.poll();
+                                elements.add(element);
+                            }
+                        }
+                    })
+                    .then(Mono.fromSupplier(() -> this.overflow == Overflow.CONFLATE
+                            ? new ArrayList<>(conflated.values()) : new ArrayList<>(elements)));
+        });
+    }
+
+    /**
+     * Keeps the latest element of its key, in the position of the key, dropping the oldest key when full.
+     * Returns whether an element was dropped.
+     */
+    private <T> boolean conflateInto(Map<Object, T> conflated, T element) {
+        Object elementKey = this.key.apply(element);
+        if (conflated.containsKey(elementKey)) {
+            conflated.put(elementKey, element);
+            return true;
+        }
+        boolean dropped = false;
+        if (conflated.size() >= this.size) {
+            Iterator<T> oldest = conflated.values().iterator();
+            oldest.next();
+            oldest.remove();
+            dropped = true;
+        }
+        conflated.put(elementKey, element);
+        return dropped;
+    }
+
+    private void buffered(AtomicInteger waiting, int delta) {
+        waiting.addAndGet(delta);
+        this.metrics.recordBuffered(delta);
+    }
+
+    /**
+     * Emits the latest element of each key as the subscriber requests them.
+     */
+    private final class Conflation<T> {
+
+        private final FluxSink<T> sink;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Disposable upstream;
+
+        // Guarded by this
+        private final Map<Object, T> pending = new LinkedHashMap<>();
+        private long requested;
+        private boolean done;
+        private Throwable error;
+        private boolean cancelled;
+
+        Conflation(Flux<T> source, FluxSink<T> sink) {
+            this.sink = sink;
+            sink.onRequest(this::request);
+            sink.onDispose(this::cancel);
+            this.upstream = source.subscribe(this::onNext, this::onError, this::onComplete);
+            boolean cancelledMeanwhile;
+            synchronized (this) {
+                cancelledMeanwhile = this.cancelled;
+            }
+            if (cancelledMeanwhile) {
+                this.upstream.dispose();
+            }
+        }
+
+        private void onNext(T element) {
+            boolean dropped;
+            int added;
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+                int before = this.pending.size();
+                dropped = conflateInto(this.pending, element);
+                added = this.pending.size() - before;
+            }
+            metrics.recordBuffered(added);
+            if (dropped) {
+                metrics.recordDropped();
+            }
+            drain();
+        }
+
+        private void onError(Throwable e) {
+            synchronized (this) {
+                this.error = e;
+                this.done = true;
+            }
+            drain();
+        }
+
+        private void onComplete() {
+            synchronized (this) {
+                this.done = true;
+            }
+            drain();
+        }
+
+        private void request(long n) {
+            synchronized (this) {
+                this.requested = this.requested + n < 0 ? Long.MAX_VALUE : this.requested + n;
+            }
+            drain();
+        }
+
+        private void cancel() {
+            int discarded;
+            synchronized (this) {
+                this.cancelled = true;
+                discarded = this.pending.size();
+                this.pending.clear();
+            }
+            metrics.recordBuffered(-discarded);
+            if (this.upstream != null) {
+                this.upstream.dispose();
+            }
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (true) {
+                    T element;
+                    synchronized (this) {
+                        if (this.cancelled || this.requested == 0 || this.pending.isEmpty()) {
+                            break;
+                        }
+                        Iterator<T> oldest = this.pending.values().iterator();
+                        element = oldest.next();
+                        oldest.remove();
+                        if (this.requested != Long.MAX_VALUE) {
+                            this.requested--;
+                        }
+                    }
+                    metrics.recordBuffered(-1);
+                    this.sink.next(element);
+                }
+
+                Throwable failure;
+                boolean complete;
+                synchronized (this) {
+                    complete = !this.cancelled && this.done && this.pending.isEmpty();
+                    failure = complete ? this.error : null;
+                    if (complete) {
+                        this.cancelled = true;
+                    }
+                }
+                if (failure != null) {
+                    this.sink.error(failure);
+                } else if (complete) {
+                    this.sink.complete();
+                }
+            } while (this.wip.decrementAndGet() != 0);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.skycstech.graphclient.core;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.function.Consumer;
+
+/**
+ * Configuration of a tenant of a GraphFeign client, applied on top of the configuration of the client.
+ *
+ * @param url             URL of the tenant, the URL of the client if {@code null}
+ * @param headersConsumer headers sent with every request of the tenant, after those of the method
+ * @param webClient       WebClient of the tenant, with its own connection pool, the WebClient of the client
+ *                        if {@code null}. The filters of the client are added to it.
+ * @param tokenAudience   audience of the tokens of the tenant, the audience of the client if {@code null}
+ * @author Akash Patel
+ */
+public record GraphFeignTenantConfiguration(String url, Consumer<HttpHeaders> headersConsumer, WebClient webClient,
+                                            String tokenAudience) {
+
+    public static GraphFeignTenantConfiguration of(String url, Consumer<HttpHeaders> headersConsumer) {
+        return new GraphFeignTenantConfiguration(url, headersConsumer, null, null);
+    }
+}
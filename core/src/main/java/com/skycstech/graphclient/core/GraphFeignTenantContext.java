@@ -0,0 +1,47 @@
+package com.skycstech.graphclient.core;
+
+import java.util.function.Supplier;
+
+/**
+ * Tenant of the GraphFeign requests made by the current thread, when the methods have no
+ * {@link com.skycstech.graphclient.core.annotation.GraphFeignTenant} parameter.
+ * <p>The tenant is resolved when a client method is invoked, a {@code Mono} or {@code Flux} returned inside
+ * {@link #callAs(String, Supplier)} is sent for that tenant wherever it is subscribed.
+ *
+ * @author Akash Patel
+ */
+public final class GraphFeignTenantContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private GraphFeignTenantContext() {
+    }
+
+    /**
+     * The tenant of the current thread, {@code null} if none.
+     */
+    public static String getCurrent() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(String tenant, Supplier<T> call) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runAs(String tenant, Runnable task) {
+        callAs(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
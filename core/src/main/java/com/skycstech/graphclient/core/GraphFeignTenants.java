@@ -0,0 +1,116 @@
+package com.skycstech.graphclient.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded registry of the per-tenant state of a GraphFeign client.
+ * <p>The state of a tenant is created on its first request and read without locking afterwards. When there are
+ * more than {@code maxTenants}, the least recently used tenants are evicted; tenants idle for longer than
+ * {@code idleTimeout} are evicted by a periodic sweep, started with the first tenant.
+ *
+ * @author Akash Patel
+ */
+class GraphFeignTenants<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignTenants.class);
+
+    private final String clientName;
+    private final int maxTenants;
+    private final long idleTimeoutNanos;
+    private final Function<String, T> factory;
+    private final Map<String, Tenant<T>> tenants = new ConcurrentHashMap<>();
+    private volatile Disposable sweeper;
+
+    GraphFeignTenants(String clientName, int maxTenants, Duration idleTimeout, Function<String, T> factory) {
+        if (maxTenants <= 0) {
+            throw new IllegalArgumentException("maxTenants must be positive");
+        }
+        this.clientName = clientName;
+        this.maxTenants = maxTenants;
+        this.idleTimeoutNanos = idleTimeout != null ? idleTimeout.toNanos() : 0;
+        this.factory = factory;
+    }
+
+    T get(String key) {
+        Tenant<T> tenant = this.tenants.get(key);
+        if (tenant == null) {
+            tenant = create(key);
+        }
+        tenant.lastUsed = System.nanoTime();
+        return tenant.state;
+    }
+
+    private Tenant<T> create(String key) {
+        Tenant<T> tenant = this.tenants.computeIfAbsent(key, k -> {
+            log.debug("Creating tenant [{}] of GraphFeignClient [{}]", k, this.clientName);
+            return new Tenant<>(this.factory.apply(k));
+        });
+        if (this.tenants.size() > this.maxTenants) {
+            evictLeastRecentlyUsed();
+        }
+        startSweeper();
+        return tenant;
+    }
+
+    private synchronized void evictLeastRecentlyUsed() {
+        int excess = this.tenants.size() - this.maxTenants;
+        if (excess > 0) {
+            this.tenants.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(this::evict);
+        }
+    }
+
+    private void startSweeper() {
+        if (this.sweeper == null && this.idleTimeoutNanos > 0) {
+            synchronized (this) {
+                if (this.sweeper == null) {
+                    long period = Math.min(this.idleTimeoutNanos, TimeUnit.MINUTES.toNanos(1));
+                    this.sweeper = Schedulers.parallel().schedulePeriodically(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        this.tenants.entrySet().stream()
+                .filter(entry -> now - entry.getValue().lastUsed > this.idleTimeoutNanos)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::evict);
+    }
+
+    private void evict(String key) {
+        if (this.tenants.remove(key) != null) {
+            log.debug("Evicted tenant [{}] of GraphFeignClient [{}]", key, this.clientName);
+        }
+    }
+
+    int size() {
+        return this.tenants.size();
+    }
+
+    private static final class Tenant<T> {
+
+        private final T state;
+        private volatile long lastUsed = System.nanoTime();
+
+        Tenant(T state) {
+            this.state = state;
+        }
+    }
+}
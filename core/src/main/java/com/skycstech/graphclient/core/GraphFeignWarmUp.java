@@ -0,0 +1,77 @@
+package com.skycstech.graphclient.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Warms up the GraphFeign clients once the application is ready, before it reports readiness.
+ * <p>Clients are registered lazily, so the first request would otherwise pay for creating the client,
+ * loading its documents, DNS, TCP and the TLS handshake. Every client bean is instantiated, the documents
+ * of its methods are preloaded and connections are opened once per endpoint, as configured by
+ * {@link GraphFeignClientProperties.WarmUp}.
+ * <p>Failures are logged and do not prevent the application from starting.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignWarmUp implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignWarmUp.class);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final GraphFeignConfigurationRegistry registry;
+    private final GraphFeignClientProperties.WarmUp properties;
+
+    public GraphFeignWarmUp(ConfigurableListableBeanFactory beanFactory, GraphFeignConfigurationRegistry registry,
+                            GraphFeignClientProperties.WarmUp properties) {
+        this.beanFactory = beanFactory;
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long start = System.nanoTime();
+        instantiateClients();
+
+        Collection<GraphFeign> clients = this.registry.getClients();
+        Set<String> endpoints = new HashSet<>();
+        try {
+            Flux.fromIterable(clients)
+                    .flatMap(graphFeign -> {
+                        // Clients sharing an endpoint share the connection pool, it is only opened once
+                        boolean firstOfEndpoint = endpoints.add(graphFeign.getUrl());
+                        return graphFeign.warmUp(firstOfEndpoint ? this.properties.getConnections() : 0,
+                                        firstOfEndpoint && this.properties.isPing())
+                                .doOnError(e -> log.warn("Warm-up of GraphFeignClient [{}] failed: {}", graphFeign.getName(), e.getMessage()))
+                                .onErrorResume(e -> Mono.empty());
+                    })
+                    .then()
+                    .block(this.properties.getTimeout());
+        } catch (IllegalStateException e) {
+            log.warn("Warm-up of GraphFeign clients did not complete within [{}]", this.properties.getTimeout());
+        }
+        log.info("Warmed up {} GraphFeign client(s) across {} endpoint(s) in {} ms", clients.size(), endpoints.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void instantiateClients() {
+        for (String beanName : this.beanFactory.getBeanDefinitionNames()) {
+            if (this.beanFactory.getBeanDefinition(beanName).hasAttribute(GraphFeignClientsRegistrar.FACTORY_BEAN_ATTRIBUTE)) {
+                try {
+                    this.beanFactory.getBean(beanName);
+                } catch (RuntimeException e) {
+                    log.warn("Unable to instantiate GraphFeignClient [{}] on warm-up: {}", beanName, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+import java.util.function.Function;
+
+/**
+ * Bounds the elements of a subscription waiting for a slow subscriber, see
+ * {@link GraphFeignRequest#isSubscription()}.
+ * <p>At most {@link #bufferSize()} elements are held, the {@link #overflow()} strategy decides what happens to
+ * the ones received beyond. With a {@link #sample()} window, only the latest element of each window is kept.
+ * Methods returning a {@code List} collect at most {@link #bufferSize()} elements the same way.
+ * <p>The elements are those of the retrieve path, or the {@code ClientGraphQlResponse} without one.
+ *
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignBackpressure(bufferSize = 100, overflow = Overflow.CONFLATE, conflateKey = TickSymbol.class)
+ *  &#064;GraphFeignRequest(documentName = "ticksSubscription", retrievePath = "ticks", isSubscription = true)
+ *  {@code Flux<Tick> ticks();}
+ * </pre>
+ *
+ * @author Akash Patel
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface GraphFeignBackpressure {
+
+    /**
+     * Maximum number of elements waiting for the subscriber, or of distinct keys when conflating.
+     */
+    int bufferSize() default 256;
+
+    Overflow overflow() default Overflow.DROP_OLDEST;
+
+    /**
+     * Function giving the key of an element, instantiated with its default constructor, required to
+     * {@link Overflow#CONFLATE}.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends Function> conflateKey() default Function.class;
+
+    /**
+     * Window, such as {@code 100ms}, of which only the latest element is kept. Every element is kept if not set.
+     */
+    String sample() default "";
+
+    enum Overflow {
+
+        /**
+         * Drop the oldest element waiting to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Drop the new element.
+         */
+        DROP_LATEST,
+
+        /**
+         * Fail the subscription.
+         */
+        ERROR,
+
+        /**
+         * Keep only the latest element of each key, in the order the keys were first received. The oldest key is
+         * dropped to make room for a new one.
+         */
+        CONFLATE
+    }
+}
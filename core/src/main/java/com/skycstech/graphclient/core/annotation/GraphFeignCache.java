@@ -0,0 +1,31 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Answers the queries of the annotated method, or of every method of the annotated client, from the
+ * normalized cache of the client when all their fields are cached.
+ * <p>Responses are split into entities keyed by {@code __typename} and {@code id}, so an entity fetched by one
+ * query answers the others selecting it. {@code __typename} is added to the documents sent and removed from the
+ * responses returned. Only the annotated methods and the mutations declaring {@link GraphFeignCacheEvict} go through
+ * the cache, their responses update it and the mutations evict the entries they declare.
+ * <p>Subscriptions, incremental requests, requests sent over WebSocket, requests for a tenant and methods with
+ * {@link GraphFeignHeader} parameters bypass the cache, as their responses may depend on the caller.
+ *
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignCache
+ *  &#064;GraphFeignRequest(documentName = "bookQuery", retrievePath = "bookById")
+ *  {@code Book getBookById(@GraphFeignVariable("bookId") String bookId);}
+ * </pre>
+ *
+ * @author Akash Patel
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface GraphFeignCache {
+
+}
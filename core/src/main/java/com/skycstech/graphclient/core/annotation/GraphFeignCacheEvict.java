@@ -0,0 +1,50 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Entries of the normalized cache evicted once the annotated mutation succeeded, in addition to the entities
+ * it returns, which are updated.
+ *
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignCacheEvict(type = "Book", idVariable = "bookId")
+ *  &#064;GraphFeignCacheEvict(rootField = "books")
+ *  &#064;GraphFeignRequest(documentName = "deleteBook")
+ *  {@code void deleteBook(@GraphFeignVariable("bookId") String bookId);}
+ * </pre>
+ *
+ * @author Akash Patel
+ * @see GraphFeignCache
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Repeatable(GraphFeignCacheEvict.List.class)
+public @interface GraphFeignCacheEvict {
+
+    /**
+     * The {@code __typename} of the entities to evict, all of them unless {@link #idVariable()} is set.
+     */
+    String type() default "";
+
+    /**
+     * Optional. The variable holding the id of the only entity of the {@link #type()} to evict.
+     */
+    String idVariable() default "";
+
+    /**
+     * Optional. A query root field whose cached results are evicted, whatever their arguments,
+     * e.g. a list query the mutation adds to.
+     */
+    String rootField() default "";
+
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Documented
+    @interface List {
+
+        GraphFeignCacheEvict[] value();
+    }
+}
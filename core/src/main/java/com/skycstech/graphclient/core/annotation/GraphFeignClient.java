@@ -2,6 +2,7 @@ package com.skycstech.graphclient.core.annotation;
 
 import com.skycstech.graphclient.core.DefaultGraphFeignClientConfiguration;
 import com.skycstech.graphclient.core.GraphFeignClientConfiguration;
+import com.skycstech.graphclient.core.transport.GraphFeignTransport;
 
 import java.lang.annotation.*;
 
@@ -39,11 +40,35 @@ public @interface GraphFeignClient {
     String name() default "";
 
     /**
-     * Required. The absolute URL of the GraphQL server.
+     * Required, unless {@link #shards()} are declared. The absolute URL of the GraphQL server.
      */
     String url() default "";
 
+    /**
+     * Optional. The absolute WebSocket URL of the GraphQL server.
+     * <p>Defaults to {@link #url()} with the scheme switched to ws/wss.
+     */
+    String webSocketUrl() default "";
+
+    /**
+     * Optional. The transport used to send requests, defaults to {@link GraphFeignTransport#HTTP}.
+     * <p>With a WebSocket transport all operations of the client share one connection.
+     */
+    GraphFeignTransport transport() default GraphFeignTransport.HTTP;
+
+    /**
+     * Optional. The shards of the client, as {@code name=url} entries, queried by {@link GraphFeignScatter} methods.
+     * <p>The shards share the schema of the client. {@link #url()} defaults to the URL of the first shard.
+     */
+    String[] shards() default {};
 
     Class<? extends GraphFeignClientConfiguration> configuration() default DefaultGraphFeignClientConfiguration.class;
 
+    /**
+     * Optional. Create a child application context for this client, with the {@link #configuration()}
+     * registered in it, so the client can declare isolated beans such as its own GraphFeignCustomizer.
+     * <p>Default is false - configuration and customizer are resolved from the application context.
+     */
+    boolean isolatedContext() default false;
+
 }
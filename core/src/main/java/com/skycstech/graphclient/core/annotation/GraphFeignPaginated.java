@@ -0,0 +1,47 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Streams every node of a Relay style connection from a method returning {@code Flux<T>}.
+ * <p>The query is sent once per page, with the {@code endCursor} of the previous page as the
+ * {@link #cursorVariable()}, until {@code hasNextPage} is false. The next page is requested as soon as the
+ * previous one arrives, while its nodes are consumed, up to {@link #prefetch()} pages ahead of the subscriber.
+ * Cancelling the subscription cancels the request in flight and stops the paging.
+ *
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignPaginated(cursorVariable = "after", pageInfoPath = "books.pageInfo", nodesPath = "books.nodes")
+ *  &#064;GraphFeignRequest(documentName = "booksQuery")
+ *  {@code Flux<Book> getBooks(@GraphFeignVariable("first") int first);}
+ * </pre>
+ *
+ * @author Akash Patel
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface GraphFeignPaginated {
+
+    /**
+     * The variable of the document receiving the cursor of the page to fetch, unset for the first page.
+     */
+    String cursorVariable() default "after";
+
+    /**
+     * Field path of the {@code PageInfo} of the connection, selecting {@code hasNextPage} and {@code endCursor}.
+     */
+    String pageInfoPath();
+
+    /**
+     * Field path of the list of nodes of a page, decoded to the element type of the {@code Flux}.
+     */
+    String nodesPath();
+
+    /**
+     * Number of pages fetched ahead of the page being consumed, 0 to fetch a page once the previous one is consumed.
+     */
+    int prefetch() default 1;
+}
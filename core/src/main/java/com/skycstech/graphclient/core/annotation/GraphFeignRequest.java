@@ -45,6 +45,14 @@ import java.lang.annotation.*;
  *  {@code T someMethod(@GraphFeignDocument String document, Map<String, Object> variables);}
  *  </pre>
  *
+ * <p>
+ * OR, to generate the document with a selection set derived from the return type
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignRequest(retrievePath = "someResponsePath")
+ *  {@code T someMethod(@GraphFeignVariable(value = "variableName", type = "ID!") String variableName);}
+ *  </pre>
+ *
  * @author Akash Patel
  */
 @Target(ElementType.METHOD)
@@ -87,4 +95,33 @@ public @interface GraphFeignRequest {
      */
     boolean isSubscription() default false;
 
+    /**
+     * Optional:
+     * <p>Set the request to be a mutation request, used only when the document is generated.
+     */
+    boolean isMutation() default false;
+
+    /**
+     * Optional:
+     * <p>Request incremental delivery for documents using {@code @defer} or {@code @stream}.
+     * <p>Methods returning {@code Flux<T>} emit the result merged so far as each
+     * {@code multipart/mixed} payload arrives, other return types receive the fully merged result.
+     */
+    boolean isIncremental() default false;
+
+    /**
+     * Optional:
+     * <p>Send the query as a GET request, with the query and its variables as URL parameters, so it can be cached
+     * by HTTP caches. The {@code ETag} of the response is sent back as {@code If-None-Match}, and a
+     * {@code 304 Not Modified} reuses the response already decoded. Only for queries.
+     */
+    boolean isGet() default false;
+
+    /**
+     * Optional:
+     * <p>Send the query as a GET request with only the SHA-256 hash of its document, as an automatic persisted
+     * query, see {@link #isGet()}. The document is sent along with its hash when the server does not know it yet.
+     */
+    boolean isPersistedQuery() default false;
+
 }
@@ -0,0 +1,49 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+import java.util.Comparator;
+
+/**
+ * Sends the request of the annotated method to the {@link GraphFeignClient#shards()} of the client in parallel,
+ * and merges their results.
+ * <p>The {@link GraphFeignRequest#retrievePath()} of every shard is decoded, as a list or a single element, and
+ * the results are concatenated in the order the shards are declared. With a {@link #comparator()}, the results
+ * of the shards, each already sorted, are merged in order instead. The method returns {@code List<T>},
+ * {@code Mono<List<T>>} or {@code Flux<T>}.
+ * <p>Shards failing or not answering within the {@link #timeout()} are left out of the result, with
+ * {@link #partialResults()}, unless every shard fails. Otherwise the first failure fails the method.
+ *
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignScatter(comparator = BookByName.class, timeout = "2s")
+ *  &#064;GraphFeignRequest(documentName = "booksQuery", retrievePath = "books")
+ *  {@code List<Book> getBooks(@GraphFeignShardKey String region);}
+ * </pre>
+ *
+ * @author Akash Patel
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface GraphFeignScatter {
+
+    /**
+     * Comparator of the results, instantiated with its default constructor, to merge the sorted results of the
+     * shards in order. The results are concatenated if not set.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends Comparator> comparator() default Comparator.class;
+
+    /**
+     * Maximum time to wait for each shard, such as {@code 500ms} or {@code 2s}.
+     * <p>Defaults to {@code graph-feign.client.scatter.shard-timeout}.
+     */
+    String timeout() default "";
+
+    /**
+     * Leave the shards failing or timing out out of the result, rather than failing the method.
+     */
+    boolean partialResults() default true;
+}
@@ -0,0 +1,17 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Binds passed in value as the routing key choosing the shards a {@link GraphFeignScatter} method is sent to, see
+ * {@link com.skycstech.graphclient.core.GraphFeignClientConfiguration#shards(String)}.
+ * <p>Every shard of the client is queried when the key is {@code null}.
+ *
+ * @author Akash Patel
+ */
+@Target({ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GraphFeignShardKey {
+
+}
@@ -0,0 +1,40 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Shares the subscription of the annotated method between the subscribers invoking it with the same arguments,
+ * see {@link GraphFeignRequest#isSubscription()}.
+ * <p>The first subscriber opens the subscription to the server, the next ones receive the same elements, after the
+ * last {@link #replay()} elements already received. Once the last subscriber leaves, the subscription to the
+ * server is kept for the {@link #gracePeriod()}, for a new subscriber to take it over, then cancelled.
+ * <p>The method returns {@code Flux<T>}. Without {@link GraphFeignBackpressure}, the slowest subscriber sets the
+ * pace of the others; with it, each subscriber has its own bounded buffer.
+ *
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignShared(replay = 1, gracePeriod = "10s")
+ *  &#064;GraphFeignRequest(documentName = "priceSubscription", retrievePath = "price", isSubscription = true)
+ *  {@code Flux<Price> prices(@GraphFeignVariable("symbol") String symbol);}
+ * </pre>
+ *
+ * @author Akash Patel
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface GraphFeignShared {
+
+    /**
+     * Number of the latest elements replayed to a subscriber joining a subscription already open.
+     */
+    int replay() default 0;
+
+    /**
+     * Time the subscription to the server is kept after the last subscriber left, such as {@code 5s}.
+     * <p>Defaults to {@code graph-feign.client.shared-subscriptions.grace-period}.
+     */
+    String gracePeriod() default "";
+}
@@ -0,0 +1,17 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Binds passed in {@link java.nio.channels.WritableByteChannel} as the channel the raw body of the response is
+ * written to, as it is received and without decoding it. The method returns {@code void}, once the body is
+ * written, or {@code Mono<Void>}. The channel is not closed.
+ *
+ * @author Akash Patel
+ */
+@Target({ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GraphFeignSink {
+
+}
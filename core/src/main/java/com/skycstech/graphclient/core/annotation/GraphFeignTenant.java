@@ -0,0 +1,17 @@
+package com.skycstech.graphclient.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Binds passed in value as the tenant the request is sent for, see
+ * {@link com.skycstech.graphclient.core.GraphFeignClientConfiguration#tenantConfiguration(String)}.
+ * <p>Takes precedence over the tenant of {@link com.skycstech.graphclient.core.GraphFeignTenantContext}.
+ *
+ * @author Akash Patel
+ */
+@Target({ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GraphFeignTenant {
+
+}
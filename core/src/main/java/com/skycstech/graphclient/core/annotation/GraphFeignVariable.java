@@ -17,4 +17,16 @@ public @interface GraphFeignVariable {
      */
     String value() default "";
 
+    /**
+     * The GraphQL input type of the variable, e.g. {@code ID!}.
+     * <p>Required only when the document is generated from the return type.
+     */
+    String type() default "";
+
+    /**
+     * The name of the field argument the variable is passed to, defaults to the variable name.
+     * <p>Used only when the document is generated from the return type.
+     */
+    String argument() default "";
+
 }
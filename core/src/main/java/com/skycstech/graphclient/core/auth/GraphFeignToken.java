@@ -0,0 +1,17 @@
+package com.skycstech.graphclient.core.auth;
+
+import java.time.Instant;
+
+/**
+ * Access token sent as a bearer token in the {@code Authorization} header.
+ *
+ * @param value     the token
+ * @param expiresAt when the token expires, {@code null} if it does not
+ * @author Akash Patel
+ */
+public record GraphFeignToken(String value, Instant expiresAt) {
+
+    boolean isValid(Instant now) {
+        return this.expiresAt == null || now.isBefore(this.expiresAt);
+    }
+}
@@ -0,0 +1,167 @@
+package com.skycstech.graphclient.core.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tokens of a GraphFeign client, cached per audience and sent as bearer tokens by {@link #filter(String)}.
+ * <p>Requests use the cached token without waiting while it is valid. A token used since it was fetched is
+ * refreshed in the background {@code refreshBefore} its expiry; a token used within that window triggers the
+ * refresh as well. Concurrent fetches for an audience are collapsed into one, and run on the bounded elastic
+ * scheduler rather than the thread of the request. When a refresh fails, the current token is kept until it
+ * expires, and the requests using it retry the refresh at most every {@code retryInterval}. Only requests without
+ * a valid token wait for a fetch, bounded by {@code fetchTimeout}.
+ * <p>A {@code 401} response discards the token it was sent with, the next request fetches a new one.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignTokenCache.class);
+
+    /**
+     * WebClient request attribute overriding the audience of the filter, used by the WebClients of tenants.
+     */
+    public static final String AUDIENCE_ATTRIBUTE = GraphFeignTokenCache.class.getName() + ".audience";
+
+    private static final String NO_AUDIENCE = "";
+
+    private final String clientName;
+    private final GraphFeignTokenProvider provider;
+    private final Duration refreshBefore;
+    private final Duration fetchTimeout;
+    private final Duration retryInterval;
+    private final Scheduler scheduler = Schedulers.parallel();
+    private final Scheduler fetchScheduler = Schedulers.boundedElastic();
+    private final Map<String, Audience> audiences = new ConcurrentHashMap<>();
+
+    public GraphFeignTokenCache(String clientName, GraphFeignTokenProvider provider, Duration refreshBefore,
+                                Duration fetchTimeout, Duration retryInterval) {
+        this.clientName = clientName;
+        this.provider = provider;
+        this.refreshBefore = refreshBefore;
+        this.fetchTimeout = fetchTimeout;
+        this.retryInterval = retryInterval;
+    }
+
+    /**
+     * Filter setting the bearer token of the audience of the request, the given audience unless the request
+     * has an {@link #AUDIENCE_ATTRIBUTE} attribute.
+     */
+    public ExchangeFilterFunction filter(String defaultAudience) {
+        return (request, next) -> {
+            String audienceKey = request.attribute(AUDIENCE_ATTRIBUTE)
+                    .map(String::valueOf)
+                    .orElse(defaultAudience != null ? defaultAudience : NO_AUDIENCE);
+            return token(audienceKey).flatMap(token -> next.exchange(ClientRequest.from(request)
+                            .headers(headers -> headers.setBearerAuth(token.value()))
+                            .build())
+                    .doOnNext(response -> {
+                        if (response.rawStatusCode() == HttpStatus.UNAUTHORIZED.value()) {
+                            invalidate(audienceKey, token);
+                        }
+                    }));
+        };
+    }
+
+    /**
+     * The token of the audience, from the cache while it is valid.
+     */
+    public Mono<GraphFeignToken> token(String audienceKey) {
+        Audience audience = this.audiences.get(audienceKey);
+        if (audience == null) {
+            audience = this.audiences.computeIfAbsent(audienceKey, Audience::new);
+        }
+        GraphFeignToken token = audience.token;
+        Instant now = Instant.now();
+        if (token != null && token.isValid(now)) {
+            audience.used = true;
+            if (token.expiresAt() != null && !now.isBefore(token.expiresAt().minus(this.refreshBefore))
+                    && System.nanoTime() - audience.nextAttempt >= 0) {
+                refresh(audience).subscribe(refreshed -> {
+                }, e -> {
+                });
+            }
+            return Mono.just(token);
+        }
+        return refresh(audience);
+    }
+
+    /**
+     * Discards the token of the audience if it is still the given one.
+     */
+    public void invalidate(String audienceKey, GraphFeignToken token) {
+        Audience audience = this.audiences.get(audienceKey);
+        if (audience != null && audience.token == token) {
+            log.debug("Discarding rejected token of audience [{}] of GraphFeignClient [{}]", audienceKey, this.clientName);
+            audience.token = null;
+        }
+    }
+
+    private Mono<GraphFeignToken> refresh(Audience audience) {
+        Mono<GraphFeignToken> inFlight = audience.refresh.get();
+        if (inFlight != null) {
+            return inFlight;
+        }
+        Mono<GraphFeignToken> fetch = Mono.defer(() -> this.provider.getToken(audience.key.isEmpty() ? null : audience.key))
+                .subscribeOn(this.fetchScheduler)
+                .timeout(this.fetchTimeout)
+                .doOnNext(token -> {
+                    log.debug("Fetched token of audience [{}] of GraphFeignClient [{}], expires at [{}]", audience.key, this.clientName, token.expiresAt());
+                    audience.token = token;
+                    audience.used = false;
+                    scheduleRefresh(audience, token);
+                })
+                .doOnError(e -> {
+                    log.warn("Unable to fetch token of audience [{}] of GraphFeignClient [{}]: {}", audience.key, this.clientName, e.toString());
+                    audience.nextAttempt = System.nanoTime() + this.retryInterval.toNanos();
+                })
+                .doFinally(signal -> audience.refresh.set(null))
+                .cache();
+        if (!audience.refresh.compareAndSet(null, fetch)) {
+            return audience.refresh.get() != null ? audience.refresh.get() : refresh(audience);
+        }
+        return fetch;
+    }
+
+    private void scheduleRefresh(Audience audience, GraphFeignToken token) {
+        if (token.expiresAt() == null) {
+            return;
+        }
+        Duration delay = Duration.between(Instant.now(), token.expiresAt().minus(this.refreshBefore));
+        this.scheduler.schedule(() -> {
+            // Tokens of audiences no longer used are fetched again on their next use instead
+            if (audience.token == token && audience.used) {
+                refresh(audience).subscribe(refreshed -> {
+                }, e -> {
+                });
+            }
+        }, Math.max(delay.toMillis(), 0), TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Audience {
+
+        private final String key;
+        private final AtomicReference<Mono<GraphFeignToken>> refresh = new AtomicReference<>();
+        private volatile GraphFeignToken token;
+        private volatile boolean used;
+        private volatile long nextAttempt = System.nanoTime();
+
+        Audience(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.skycstech.graphclient.core.auth;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Function;
+
+/**
+ * Fetches the access tokens of a GraphFeign client, see
+ * {@link com.skycstech.graphclient.core.GraphFeignClientConfiguration#tokenProvider()}.
+ * <p>Tokens are cached per client and audience by {@link GraphFeignTokenCache}, the provider is only called
+ * to fetch a new token, once at a time per audience.
+ *
+ * @author Akash Patel
+ */
+@FunctionalInterface
+public interface GraphFeignTokenProvider {
+
+    /**
+     * Fetches a new token for the given audience, {@code null} if the client has no audience.
+     */
+    Mono<GraphFeignToken> getToken(String audience);
+
+    /**
+     * Provider calling a blocking token endpoint client on the bounded elastic scheduler.
+     */
+    static GraphFeignTokenProvider blocking(Function<String, GraphFeignToken> fetcher) {
+        return audience -> Mono.fromCallable(() -> fetcher.apply(audience)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
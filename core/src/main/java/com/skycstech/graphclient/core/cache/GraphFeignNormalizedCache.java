@@ -0,0 +1,479 @@
+package com.skycstech.graphclient.core.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.Field;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Normalized cache of the entities returned by a GraphFeign client.
+ * <p>Objects with a {@code __typename} and an {@code id} are stored once, under {@code Type:id}, and referenced
+ * from the objects and root fields that contain them, so an entity updated by a mutation or another query is
+ * updated everywhere. Other objects are stored inside their parent. Root fields of queries are stored, with their
+ * arguments, in the {@value #ROOT_QUERY} entry.
+ * <p>A query is answered from the cache when every field it selects is cached and not expired. Fragments are
+ * followed only when their type condition is the {@code __typename} of the object, a fragment on an interface or
+ * a union is a miss since the cache has no schema to check it against.
+ * <p>When the number of entities exceeds {@link #getMaxEntities()}, expired entities are removed first, then the
+ * least recently written ones, down to nine tenths of the maximum.
+ * <p>With a {@link GraphFeignResponseStore}, the responses of the queries read from the cache are also kept in a
+ * file, keyed by their document and variables. A query missing from memory is answered from the store, and its
+ * entities loaded in memory, so a restarted instance starts warm. Stored responses are tagged with the root fields
+ * and entities they contain, and evicted with them.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignNormalizedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignNormalizedCache.class);
+
+    public static final String ROOT_QUERY = "ROOT_QUERY";
+
+    private static final Object MISS = new Object();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final int maxEntities;
+    private final int trimTarget;
+    private final long ttlNanos;
+    private final ObjectMapper keyMapper;
+    private final Map<String, Entity> entities = new ConcurrentHashMap<>();
+    private final Map<String, NormalizedOperation> operations = new ConcurrentReferenceHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final GraphFeignResponseStore store;
+    private final Duration storeTtl;
+    private final LongAdder storeHits = new LongAdder();
+
+    /**
+     * @param maxEntities maximum number of entities, and of cached root fields
+     * @param ttl time to live of each cached field, {@code null} or zero for no expiry
+     * @param objectMapper mapper used to serialize the arguments of the cached fields
+     */
+    public GraphFeignNormalizedCache(int maxEntities, Duration ttl, ObjectMapper objectMapper) {
+        this(maxEntities, ttl, objectMapper, null, null);
+    }
+
+    /**
+     * @param store second level store of the responses, may be {@code null}
+     * @param storeTtl time to live of the stored responses
+     */
+    public GraphFeignNormalizedCache(int maxEntities, Duration ttl, ObjectMapper objectMapper,
+                                     GraphFeignResponseStore store, Duration storeTtl) {
+        if (maxEntities <= 0) {
+            throw new IllegalArgumentException("maxEntities must be positive");
+        }
+        this.maxEntities = maxEntities;
+        this.trimTarget = maxEntities - Math.max(1, maxEntities / 10);
+        this.ttlNanos = ttl != null ? ttl.toNanos() : 0;
+        this.keyMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.store = store;
+        this.storeTtl = storeTtl;
+    }
+
+    /**
+     * Evicts an entity.
+     */
+    public void evict(String type, String id) {
+        this.entities.remove(type + ":" + id);
+        if (this.store != null) {
+            this.store.evictTags(tag -> tag.equals(type + ":" + id));
+        }
+        log.debug("Evicted {}:{} from the normalized cache", type, id);
+    }
+
+    /**
+     * Evicts every entity of a type.
+     */
+    public void evict(String type) {
+        this.entities.keySet().removeIf(key -> key.startsWith(type + ":"));
+        if (this.store != null) {
+            this.store.evictTags(tag -> tag.startsWith(type + ":"));
+        }
+        log.debug("Evicted all {} from the normalized cache", type);
+    }
+
+    /**
+     * Evicts a root query field, for all its arguments.
+     */
+    public void evictRootField(String field) {
+        Entity root = this.entities.get(ROOT_QUERY);
+        if (root != null) {
+            root.fields.keySet().removeIf(key -> key.equals(field) || key.startsWith(field + "("));
+        }
+        if (this.store != null) {
+            this.store.evictTags(tag -> tag.equals(ROOT_QUERY + "." + field));
+        }
+        log.debug("Evicted root field {} from the normalized cache", field);
+    }
+
+    void evict(Eviction eviction, Map<String, Object> variables) {
+        if (StringUtils.hasText(eviction.rootField())) {
+            evictRootField(eviction.rootField());
+        }
+        if (StringUtils.hasText(eviction.type())) {
+            if (!StringUtils.hasText(eviction.idVariable())) {
+                evict(eviction.type());
+            } else if (variables.get(eviction.idVariable()) != null) {
+                evict(eviction.type(), String.valueOf(variables.get(eviction.idVariable())));
+            }
+        }
+    }
+
+    /**
+     * Clears the cache, the response store included.
+     */
+    public void clear() {
+        this.entities.clear();
+        if (this.store != null) {
+            this.store.clear();
+        }
+    }
+
+    /**
+     * Number of cached entities, the root query entry included.
+     */
+    public int size() {
+        return this.entities.size();
+    }
+
+    public int getMaxEntities() {
+        return this.maxEntities;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * The second level store, {@code null} if there is none.
+     */
+    public GraphFeignResponseStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Number of queries missing from memory answered from the response store.
+     */
+    public long getStoreHits() {
+        return this.storeHits.sum();
+    }
+
+    NormalizedOperation operation(String document, String operationName) {
+        String key = operationName != null ? operationName + "\n" + document : document;
+        return this.operations.computeIfAbsent(key, k -> NormalizedOperation.parse(document, operationName));
+    }
+
+    /**
+     * Reads the data of a query, {@code null} if any selected field is missing or expired.
+     */
+    Map<String, Object> read(NormalizedOperation operation, Map<String, Object> variables) {
+        Entity root = this.entities.get(ROOT_QUERY);
+        Object data = root != null ? readObject(root, operation.getSelectionSet(), new Context(operation, variables, System.nanoTime(), null)) : MISS;
+        if (data == MISS) {
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = (Map<String, Object>) data;
+        return result;
+    }
+
+    private Object readObject(Fields record, SelectionSet selectionSet, Context context) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        return readInto(result, record, selectionSet, context) ? result : MISS;
+    }
+
+    private boolean readInto(Map<String, Object> result, Fields record, SelectionSet selectionSet, Context context) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                if (!NormalizedOperation.included(field, context.variables())) {
+                    continue;
+                }
+                FieldValue fieldValue = record.fields.get(NormalizedOperation.fieldKey(field, context.variables(), this.keyMapper));
+                if (fieldValue == null || isExpired(fieldValue.writtenAt(), context.now())) {
+                    return false;
+                }
+                Object value = readValue(fieldValue.value(), field.getSelectionSet(), context);
+                if (value == MISS) {
+                    return false;
+                }
+                merge(result, NormalizedOperation.responseKey(field), value);
+            } else if (selection instanceof InlineFragment fragment) {
+                if (NormalizedOperation.included(fragment, context.variables())) {
+                    if (fragment.getTypeCondition() != null && !fragment.getTypeCondition().getName().equals(record.typename())) {
+                        return false;
+                    }
+                    if (!readInto(result, record, fragment.getSelectionSet(), context)) {
+                        return false;
+                    }
+                }
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition definition = context.operation().getFragment(spread.getName());
+                if (definition == null || !NormalizedOperation.included(spread, context.variables())) {
+                    continue;
+                }
+                if (!definition.getTypeCondition().getName().equals(record.typename())
+                        || !readInto(result, record, definition.getSelectionSet(), context)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Object readValue(Object value, SelectionSet selectionSet, Context context) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> result = new ArrayList<>(list.size());
+            for (Object item : list) {
+                Object itemValue = readValue(item, selectionSet, context);
+                if (itemValue == MISS) {
+                    return MISS;
+                }
+                result.add(itemValue);
+            }
+            return result;
+        }
+        if (value instanceof Reference reference) {
+            Entity entity = this.entities.get(reference.key());
+            return entity != null && selectionSet != null ? readObject(entity, selectionSet, context) : MISS;
+        }
+        if (value instanceof Fields embedded) {
+            return selectionSet != null ? readObject(embedded, selectionSet, context) : MISS;
+        }
+        return selectionSet == null ? value : MISS;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void merge(Map<String, Object> result, String key, Object value) {
+        Object existing = result.get(key);
+        if (existing instanceof Map<?, ?> existingObject && value instanceof Map<?, ?> object) {
+            ((Map<String, Object>) object).forEach((field, fieldValue) -> merge((Map<String, Object>) existingObject, field, fieldValue));
+        } else {
+            result.put(key, value);
+        }
+    }
+
+    /**
+     * Reads the data of a query from the response store, and loads it in memory.
+     * The data is returned as stored, with the {@code __typename} of its objects.
+     */
+    Map<String, Object> readStored(NormalizedOperation operation, Map<String, Object> variables) {
+        if (this.store == null) {
+            return null;
+        }
+        byte[] stored = this.store.get(storeKey(operation, variables));
+        if (stored == null) {
+            return null;
+        }
+        try {
+            Map<String, Object> data = this.keyMapper.readValue(stored, MAP_TYPE);
+            write(operation, variables, data, false);
+            this.storeHits.increment();
+            return data;
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable stored response: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the data of a successful query or mutation. The root fields of a query are cached, only the entities
+     * are cached for a mutation.
+     *
+     * @param store whether to keep the response of a query in the response store as well
+     */
+    void write(NormalizedOperation operation, Map<String, Object> variables, Map<String, Object> data, boolean store) {
+        Context context = new Context(operation, variables, System.nanoTime(), new LinkedHashSet<>());
+        Fields root = operation.isQuery() ? entity(ROOT_QUERY, null, context.now()) : new Fields(null);
+        writeInto(root, data, operation.getSelectionSet(), context);
+        trim(context.now());
+
+        if (store && this.store != null && operation.isQuery()) {
+            operation.getSelectionSet().getSelections().stream()
+                    .filter(selection -> selection instanceof Field)
+                    .forEach(selection -> context.tags().add(ROOT_QUERY + "." + ((Field) selection).getName()));
+            try {
+                this.store.put(storeKey(operation, variables), this.keyMapper.writeValueAsBytes(data), this.storeTtl, context.tags());
+            } catch (IOException e) {
+                log.debug("Unable to store response: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String storeKey(NormalizedOperation operation, Map<String, Object> variables) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(operation.getName()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(operation.getDocument().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(this.keyMapper.writeValueAsBytes(new TreeMap<>(variables)));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Unable to compute the key of a stored response", e);
+        }
+    }
+
+    private void writeInto(Fields record, Map<?, ?> data, SelectionSet selectionSet, Context context) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                String responseKey = NormalizedOperation.responseKey(field);
+                if (NormalizedOperation.included(field, context.variables()) && data.containsKey(responseKey)) {
+                    Object value = normalize(data.get(responseKey), field.getSelectionSet(), context);
+                    record.fields.put(NormalizedOperation.fieldKey(field, context.variables(), this.keyMapper),
+                            new FieldValue(value, context.now()));
+                }
+            } else if (selection instanceof InlineFragment fragment) {
+                if (NormalizedOperation.included(fragment, context.variables())) {
+                    writeInto(record, data, fragment.getSelectionSet(), context);
+                }
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition definition = context.operation().getFragment(spread.getName());
+                if (definition != null && NormalizedOperation.included(spread, context.variables())) {
+                    writeInto(record, data, definition.getSelectionSet(), context);
+                }
+            }
+        }
+    }
+
+    private Object normalize(Object value, SelectionSet selectionSet, Context context) {
+        if (value == null || selectionSet == null) {
+            return value;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> normalized = new ArrayList<>(list.size());
+            list.forEach(item -> normalized.add(normalize(item, selectionSet, context)));
+            return normalized;
+        }
+        if (!(value instanceof Map<?, ?> object)) {
+            return value;
+        }
+        String typename = object.get("__typename") instanceof String name ? name : null;
+        Object id = object.get("id");
+        if (typename != null && id != null && !(id instanceof Map) && !(id instanceof List)) {
+            String key = typename + ":" + id;
+            context.tags().add(key);
+            writeInto(entity(key, typename, context.now()), object, selectionSet, context);
+            return new Reference(key);
+        }
+        Fields embedded = new Fields(typename);
+        writeInto(embedded, object, selectionSet, context);
+        return embedded;
+    }
+
+    private Entity entity(String key, String typename, long now) {
+        Entity entity = this.entities.computeIfAbsent(key, k -> new Entity(typename));
+        entity.writtenAt = now;
+        return entity;
+    }
+
+    private boolean isExpired(long writtenAt, long now) {
+        return this.ttlNanos > 0 && now - writtenAt > this.ttlNanos;
+    }
+
+    /**
+     * Evicts down to {@link #trimTarget}, rather than to the maximum, so the entries are sorted once every
+     * tenth of the capacity instead of on every write once the cache is full.
+     */
+    private void trim(long now) {
+        if (this.entities.size() > this.maxEntities + 1) {
+            this.entities.entrySet().removeIf(entry -> !ROOT_QUERY.equals(entry.getKey()) && isExpired(entry.getValue().writtenAt, now));
+            int excess = this.entities.size() - 1 - this.trimTarget;
+            if (excess > 0) {
+                this.entities.entrySet().stream()
+                        .filter(entry -> !ROOT_QUERY.equals(entry.getKey()))
+                        .sorted(Comparator.comparingLong(entry -> entry.getValue().writtenAt))
+                        .limit(excess)
+                        .map(Map.Entry::getKey)
+                        .toList()
+                        .forEach(this.entities::remove);
+            }
+        }
+        Entity root = this.entities.get(ROOT_QUERY);
+        if (root != null && root.fields.size() > this.maxEntities) {
+            root.fields.entrySet().removeIf(entry -> isExpired(entry.getValue().writtenAt(), now));
+            int excess = root.fields.size() - this.trimTarget;
+            if (excess > 0) {
+                root.fields.entrySet().stream()
+                        .sorted(Comparator.comparingLong(entry -> entry.getValue().writtenAt()))
+                        .limit(excess)
+                        .map(Map.Entry::getKey)
+                        .toList()
+                        .forEach(root.fields::remove);
+            }
+        }
+    }
+
+    /**
+     * Eviction applied after a successful operation, see {@link com.skycstech.graphclient.core.annotation.GraphFeignCacheEvict}.
+     */
+    public record Eviction(String type, String idVariable, String rootField) {
+    }
+
+    private record Context(NormalizedOperation operation, Map<String, Object> variables, long now, Set<String> tags) {
+    }
+
+    private record FieldValue(Object value, long writtenAt) {
+    }
+
+    private record Reference(String key) {
+    }
+
+    private static class Fields {
+
+        final String typename;
+        final Map<String, FieldValue> fields = new ConcurrentHashMap<>();
+
+        Fields(String typename) {
+            this.typename = typename;
+        }
+
+        String typename() {
+            return this.typename;
+        }
+    }
+
+    private static class Entity extends Fields {
+
+        volatile long writtenAt;
+
+        Entity(String typename) {
+            super(typename);
+        }
+    }
+}
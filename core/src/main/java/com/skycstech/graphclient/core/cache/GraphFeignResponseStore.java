@@ -0,0 +1,402 @@
+package com.skycstech.graphclient.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Bounded store of serialized responses in a memory-mapped file, kept across restarts.
+ * <p>The file is split in {@value #SEGMENTS} segments written one after the other, as a ring. Each segment starts
+ * with its generation, each record carries the generation of its segment and a CRC of its content. When the ring
+ * wraps, the oldest segment is recycled: entries read since they were written are copied to the new generation,
+ * the others are evicted, which approximates LRU at the granularity of a segment.
+ * <p>On open, segments are read in generation order and records are checked against their CRC and generation,
+ * so a record torn by a crash, or left over from a previous generation, ends the scan of its segment and is
+ * never returned. Evictions are written as tombstones. Writes go to the page cache without {@code fsync}:
+ * the store survives a process crash, recent entries may be lost on a host crash.
+ * <p>Only the index, keys, tags and positions, is kept on the heap. The file is locked, a store is used by one
+ * process at a time, until it is closed. Once closed, the store is empty and ignores writes.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignResponseStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignResponseStore.class);
+
+    static final int SEGMENTS = 16;
+
+    private static final int SEGMENT_MAGIC = 0x47465331;
+    private static final int RECORD_MAGIC = 0x47465231;
+    private static final int SEGMENT_HEADER_SIZE = 16;
+    // magic, crc, generation, expiresAt, key length, tags length, value length
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+    private static final int MIN_SEGMENT_SIZE = 4096;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int segmentSize;
+    private final long[] generations = new long[SEGMENTS];
+    private final Map<String, Entry> index = new HashMap<>();
+    private int activeSegment;
+    private int writeOffset;
+    private long lastGeneration;
+    private long usedBytes;
+    private boolean closed;
+
+    private GraphFeignResponseStore(Path file, FileChannel channel, FileLock lock, MappedByteBuffer buffer, int segmentSize) {
+        this.file = file;
+        this.channel = channel;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the store in the given file, created if needed, and loads the index of the entries it holds.
+     * A file of another size is discarded.
+     *
+     * @param maxSize size of the file, at most 2GB
+     * @throws IOException if the file cannot be mapped, or is locked by another process
+     */
+    public static GraphFeignResponseStore open(Path file, long maxSize) throws IOException {
+        if (maxSize > Integer.MAX_VALUE || maxSize < (long) SEGMENTS * MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Response store size must be between " + SEGMENTS * MIN_SEGMENT_SIZE / 1024 + "KB and 2GB");
+        }
+        int segmentSize = (int) (maxSize / SEGMENTS);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new IOException("Response store [" + file + "] is locked by another process");
+            }
+            if (channel.size() != (long) segmentSize * SEGMENTS) {
+                log.debug("Initializing response store [{}] of {} bytes", file, (long) segmentSize * SEGMENTS);
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentSize * SEGMENTS);
+            GraphFeignResponseStore store = new GraphFeignResponseStore(file, channel, lock, buffer, segmentSize);
+            store.recover();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (e instanceof OverlappingFileLockException) {
+                throw new IOException("Response store [" + file + "] is already open", e);
+            }
+            throw e;
+        }
+    }
+
+    private void recover() {
+        Integer[] order = new Integer[SEGMENTS];
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            int base = segment * this.segmentSize;
+            order[segment] = segment;
+            this.generations[segment] = this.buffer.getInt(base) == SEGMENT_MAGIC ? this.buffer.getLong(base + 8) : 0;
+        }
+        Arrays.sort(order, Comparator.comparingLong(segment -> this.generations[segment]));
+
+        long now = System.currentTimeMillis();
+        int records = 0;
+        for (int segment : order) {
+            if (this.generations[segment] == 0) {
+                continue;
+            }
+            int offset = SEGMENT_HEADER_SIZE;
+            Record record;
+            while ((record = readRecord(segment, offset)) != null) {
+                Entry previous = this.index.remove(record.key());
+                if (previous != null) {
+                    this.usedBytes -= previous.length();
+                }
+                if (record.expiresAt() > now) {
+                    this.index.put(record.key(), new Entry(segment, offset, record.length(), record.expiresAt(), record.tags()));
+                    this.usedBytes += record.length();
+                }
+                offset += record.length();
+                records++;
+            }
+            this.activeSegment = segment;
+            this.writeOffset = offset;
+            this.lastGeneration = this.generations[segment];
+        }
+        if (this.lastGeneration == 0) {
+            resetSegment(0);
+        }
+        log.debug("Opened response store [{}], {} entries recovered from {} records", this.file, this.index.size(), records);
+    }
+
+    /**
+     * The value stored for the key, {@code null} if there is none or it expired.
+     */
+    public synchronized byte[] get(String key) {
+        if (this.closed) {
+            return null;
+        }
+        Entry entry = this.index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        entry.accessed = true;
+        int base = entry.segment() * this.segmentSize + entry.offset();
+        int keyLength = this.buffer.getInt(base + 24);
+        int tagsLength = this.buffer.getInt(base + 28);
+        byte[] value = new byte[this.buffer.getInt(base + 32)];
+        this.buffer.get(base + RECORD_HEADER_SIZE + keyLength + tagsLength, value);
+        return value;
+    }
+
+    /**
+     * Stores a value, replacing the previous one.
+     *
+     * @param tags labels the entry can be evicted by, see {@link #evictTags(Predicate)}
+     * @return {@code false} if the value is larger than a segment and was not stored
+     */
+    public synchronized boolean put(String key, byte[] value, Duration ttl, Collection<String> tags) {
+        if (this.closed) {
+            return false;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] tagBytes = String.join("\n", tags).getBytes(StandardCharsets.UTF_8);
+        if (RECORD_HEADER_SIZE + keyBytes.length + tagBytes.length + value.length > this.segmentSize - SEGMENT_HEADER_SIZE) {
+            log.debug("Not storing response of {} bytes, larger than a segment of the response store", value.length);
+            return false;
+        }
+        append(key, keyBytes, tagBytes, value, System.currentTimeMillis() + ttl.toMillis(), List.copyOf(tags));
+        return true;
+    }
+
+    /**
+     * Evicts the entries with a tag matching the predicate.
+     */
+    public synchronized void evictTags(Predicate<String> predicate) {
+        if (this.closed) {
+            return;
+        }
+        List<String> keys = this.index.entrySet().stream()
+                .filter(entry -> entry.getValue().tags().stream().anyMatch(predicate))
+                .map(Map.Entry::getKey)
+                .toList();
+        keys.forEach(this::remove);
+    }
+
+    public synchronized void clear() {
+        if (this.closed) {
+            return;
+        }
+        this.index.clear();
+        this.usedBytes = 0;
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            this.buffer.putInt(segment * this.segmentSize, 0);
+            this.generations[segment] = 0;
+        }
+        this.activeSegment = 0;
+        resetSegment(0);
+    }
+
+    public synchronized int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Bytes used by the live entries, out of the size of the file.
+     */
+    public synchronized long getUsedBytes() {
+        return this.usedBytes;
+    }
+
+    /**
+     * Forces the content of the file to the disk and releases its lock, so the store can be opened again.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.index.clear();
+        this.buffer.force();
+        this.lock.release();
+        this.channel.close();
+    }
+
+    private void remove(String key) {
+        Entry entry = this.index.remove(key);
+        if (entry != null) {
+            this.usedBytes -= entry.length();
+            // Tombstone, so the entry is not recovered on the next open
+            append(null, key.getBytes(StandardCharsets.UTF_8), new byte[0], new byte[0], 0, List.of());
+        }
+    }
+
+    private void append(String key, byte[] keyBytes, byte[] tagBytes, byte[] value, long expiresAt, List<String> tags) {
+        int length = RECORD_HEADER_SIZE + keyBytes.length + tagBytes.length + value.length;
+        // A segment may be filled again by the entries carried over, their accessed flag is cleared so it ends
+        while (this.writeOffset + length > this.segmentSize) {
+            recycleNextSegment();
+        }
+        int base = this.activeSegment * this.segmentSize + this.writeOffset;
+        this.buffer.putLong(base + 8, this.lastGeneration);
+        this.buffer.putLong(base + 16, expiresAt);
+        this.buffer.putInt(base + 24, keyBytes.length);
+        this.buffer.putInt(base + 28, tagBytes.length);
+        this.buffer.putInt(base + 32, value.length);
+        this.buffer.put(base + RECORD_HEADER_SIZE, keyBytes);
+        this.buffer.put(base + RECORD_HEADER_SIZE + keyBytes.length, tagBytes);
+        this.buffer.put(base + RECORD_HEADER_SIZE + keyBytes.length + tagBytes.length, value);
+        this.buffer.putInt(base + 4, crc(base, length));
+        // The magic is written last, a record is only valid once complete
+        this.buffer.putInt(base, RECORD_MAGIC);
+        if (this.writeOffset + length + 4 <= this.segmentSize) {
+            this.buffer.putInt(base + length, 0);
+        }
+
+        if (key != null) {
+            Entry previous = this.index.put(key, new Entry(this.activeSegment, this.writeOffset, length, expiresAt, tags));
+            this.usedBytes += length - (previous != null ? previous.length() : 0);
+        }
+        this.writeOffset += length;
+    }
+
+    private void recycleNextSegment() {
+        int segment = (this.activeSegment + 1) % SEGMENTS;
+        long now = System.currentTimeMillis();
+        List<Carried> carried = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> iterator = this.index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> indexEntry = iterator.next();
+            Entry entry = indexEntry.getValue();
+            if (entry.segment() != segment) {
+                continue;
+            }
+            iterator.remove();
+            this.usedBytes -= entry.length();
+            if (entry.accessed && entry.expiresAt() > now) {
+                int base = segment * this.segmentSize + entry.offset();
+                int keyLength = this.buffer.getInt(base + 24);
+                int tagsLength = this.buffer.getInt(base + 28);
+                byte[] tagBytes = new byte[tagsLength];
+                byte[] value = new byte[this.buffer.getInt(base + 32)];
+                this.buffer.get(base + RECORD_HEADER_SIZE + keyLength, tagBytes);
+                this.buffer.get(base + RECORD_HEADER_SIZE + keyLength + tagsLength, value);
+                carried.add(new Carried(indexEntry.getKey(), tagBytes, value, entry));
+            }
+        }
+        this.activeSegment = segment;
+        resetSegment(segment);
+        for (Carried entry : carried) {
+            append(entry.key(), entry.key().getBytes(StandardCharsets.UTF_8), entry.tagBytes(), entry.value(),
+                    entry.entry().expiresAt(), entry.entry().tags());
+        }
+        log.debug("Recycled segment {} of response store [{}], {} entries carried over", segment, this.file, carried.size());
+    }
+
+    private void resetSegment(int segment) {
+        int base = segment * this.segmentSize;
+        this.lastGeneration++;
+        this.generations[segment] = this.lastGeneration;
+        this.buffer.putLong(base + 8, this.lastGeneration);
+        this.buffer.putInt(base + 4, 0);
+        this.buffer.putInt(base, SEGMENT_MAGIC);
+        this.buffer.putInt(base + SEGMENT_HEADER_SIZE, 0);
+        this.writeOffset = SEGMENT_HEADER_SIZE;
+    }
+
+    private Record readRecord(int segment, int offset) {
+        if (offset + RECORD_HEADER_SIZE > this.segmentSize) {
+            return null;
+        }
+        int base = segment * this.segmentSize + offset;
+        if (this.buffer.getInt(base) != RECORD_MAGIC || this.buffer.getLong(base + 8) != this.generations[segment]) {
+            return null;
+        }
+        int keyLength = this.buffer.getInt(base + 24);
+        int tagsLength = this.buffer.getInt(base + 28);
+        int valueLength = this.buffer.getInt(base + 32);
+        long length = (long) RECORD_HEADER_SIZE + keyLength + tagsLength + valueLength;
+        if (keyLength < 0 || tagsLength < 0 || valueLength < 0 || offset + length > this.segmentSize
+                || this.buffer.getInt(base + 4) != crc(base, (int) length)) {
+            return null;
+        }
+        byte[] key = new byte[keyLength];
+        byte[] tags = new byte[tagsLength];
+        this.buffer.get(base + RECORD_HEADER_SIZE, key);
+        this.buffer.get(base + RECORD_HEADER_SIZE + keyLength, tags);
+        String tagString = new String(tags, StandardCharsets.UTF_8);
+        return new Record(new String(key, StandardCharsets.UTF_8), (int) length, this.buffer.getLong(base + 16),
+                tagString.isEmpty() ? List.of() : List.of(tagString.split("\n")));
+    }
+
+    private int crc(int base, int length) {
+        // Covers the record from its generation to the end of its value
+        CRC32 crc = new CRC32();
+        crc.update(this.buffer.slice(base + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private record Record(String key, int length, long expiresAt, List<String> tags) {
+    }
+
+    private record Carried(String key, byte[] tagBytes, byte[] value, Entry entry) {
+    }
+
+    private static final class Entry {
+
+        private final int segment;
+        private final int offset;
+        private final int length;
+        private final long expiresAt;
+        private final List<String> tags;
+        private boolean accessed;
+
+        Entry(int segment, int offset, int length, long expiresAt, List<String> tags) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.expiresAt = expiresAt;
+            this.tags = tags;
+        }
+
+        int segment() {
+            return this.segment;
+        }
+
+        int offset() {
+            return this.offset;
+        }
+
+        int length() {
+            return this.length;
+        }
+
+        long expiresAt() {
+            return this.expiresAt;
+        }
+
+        List<String> tags() {
+            return this.tags;
+        }
+    }
+}
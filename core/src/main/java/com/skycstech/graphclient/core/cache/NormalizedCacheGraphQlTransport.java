@@ -0,0 +1,105 @@
+package com.skycstech.graphclient.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.GraphQlTransport;
+import org.springframework.graphql.support.DefaultGraphQlRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport answering queries from a {@link GraphFeignNormalizedCache} and updating it with the results of the
+ * queries and mutations sent through the transport it decorates.
+ * <p>The cache, then its response store, is read only for requests with the {@link #READ_ATTRIBUTE} attribute,
+ * and only their responses are stored. The evictions of the {@link #EVICT_ATTRIBUTE} attribute are applied
+ * after a successful response. The document sent selects
+ * {@code __typename} in every nested selection set, the fields the original document did not select are
+ * removed from the response. Responses with errors are not cached, subscriptions are passed through.
+ *
+ * @author Akash Patel
+ */
+public class NormalizedCacheGraphQlTransport implements GraphQlTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(NormalizedCacheGraphQlTransport.class);
+
+    /**
+     * Request attribute, {@code true} to answer the query from the cache when it holds every selected field.
+     */
+    public static final String READ_ATTRIBUTE = NormalizedCacheGraphQlTransport.class.getName() + ".read";
+
+    /**
+     * Request attribute, the list of {@link GraphFeignNormalizedCache.Eviction} to apply after a successful response.
+     */
+    public static final String EVICT_ATTRIBUTE = NormalizedCacheGraphQlTransport.class.getName() + ".evict";
+
+    private final GraphQlTransport delegate;
+    private final GraphFeignNormalizedCache cache;
+
+    public NormalizedCacheGraphQlTransport(GraphQlTransport delegate, GraphFeignNormalizedCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Mono<GraphQlResponse> execute(GraphQlRequest request) {
+        NormalizedOperation operation;
+        try {
+            operation = this.cache.operation(request.getDocument(), request.getOperationName());
+        } catch (RuntimeException e) {
+            log.debug("Bypassing normalized cache, the document could not be parsed: {}", e.getMessage());
+            return this.delegate.execute(request);
+        }
+        if (!operation.isQuery() && !operation.isMutation()) {
+            return this.delegate.execute(request);
+        }
+
+        Map<String, Object> attributes = request instanceof ClientGraphQlRequest clientRequest
+                ? clientRequest.getAttributes() : Collections.emptyMap();
+        Map<String, Object> variables = operation.variables(request.getVariables());
+        boolean read = Boolean.TRUE.equals(attributes.get(READ_ATTRIBUTE));
+        if (operation.isQuery() && read) {
+            Map<String, Object> data = this.cache.read(operation, variables);
+            if (data != null) {
+                log.debug("Answering operation [{}] from the normalized cache", request.getOperationName());
+                return Mono.just(GraphQlTransport.createResponse(Map.of("data", data)));
+            }
+            data = this.cache.readStored(operation, variables);
+            if (data != null) {
+                log.debug("Answering operation [{}] from the response store", request.getOperationName());
+                return Mono.just(GraphQlTransport.createResponse(Map.of("data", operation.project(data, variables))));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<GraphFeignNormalizedCache.Eviction> evictions = (List<GraphFeignNormalizedCache.Eviction>)
+                attributes.getOrDefault(EVICT_ATTRIBUTE, Collections.emptyList());
+        GraphQlRequest normalizedRequest = new DefaultGraphQlRequest(operation.getDocument(), request.getOperationName(),
+                request.getVariables(), request.getExtensions());
+        return this.delegate.execute(normalizedRequest).map(response -> {
+            Map<String, Object> data = response.getData();
+            if (data == null) {
+                return response;
+            }
+            if (response.isValid() && response.getErrors().isEmpty()) {
+                this.cache.write(operation, variables, data, read);
+                evictions.forEach(eviction -> this.cache.evict(eviction, variables));
+            }
+            Map<String, Object> projected = new LinkedHashMap<>(response.toMap());
+            projected.put("data", operation.project(data, variables));
+            return GraphQlTransport.createResponse(projected);
+        });
+    }
+
+    @Override
+    public Flux<GraphQlResponse> executeSubscription(GraphQlRequest request) {
+        return this.delegate.executeSubscription(request);
+    }
+}
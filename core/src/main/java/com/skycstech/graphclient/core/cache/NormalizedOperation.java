@@ -0,0 +1,258 @@
+package com.skycstech.graphclient.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.language.*;
+import graphql.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An operation parsed once for the normalized cache: its selection set, the fragments it uses and the document
+ * sent instead of the original one, with {@code __typename} selected in every nested selection set.
+ *
+ * @author Akash Patel
+ */
+final class NormalizedOperation {
+
+    private static final String TYPENAME = "__typename";
+
+    private final OperationDefinition.Operation operation;
+    private final String name;
+    private final SelectionSet selectionSet;
+    private final Map<String, FragmentDefinition> fragments;
+    private final Map<String, Object> defaultValues;
+    private final String document;
+
+    private NormalizedOperation(OperationDefinition.Operation operation, String name, SelectionSet selectionSet,
+                                Map<String, FragmentDefinition> fragments, Map<String, Object> defaultValues, String document) {
+        this.operation = operation;
+        this.name = name;
+        this.selectionSet = selectionSet;
+        this.fragments = fragments;
+        this.defaultValues = defaultValues;
+        this.document = document;
+    }
+
+    /**
+     * @throws graphql.parser.InvalidSyntaxException if the document is not valid
+     * @throws IllegalArgumentException if the operation cannot be found
+     */
+    static NormalizedOperation parse(String document, String operationName) {
+        Document parsed = Parser.parse(document);
+        List<OperationDefinition> operations = new ArrayList<>();
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        List<Definition> definitions = new ArrayList<>();
+        for (Definition<?> definition : parsed.getDefinitions()) {
+            if (definition instanceof OperationDefinition operationDefinition) {
+                operations.add(operationDefinition);
+                definitions.add(operationDefinition.transform(builder ->
+                        builder.selectionSet(addTypename(operationDefinition.getSelectionSet(), false))));
+            } else if (definition instanceof FragmentDefinition fragmentDefinition) {
+                fragments.put(fragmentDefinition.getName(), fragmentDefinition);
+                definitions.add(fragmentDefinition.transform(builder ->
+                        builder.selectionSet(addTypename(fragmentDefinition.getSelectionSet(), false))));
+            } else {
+                definitions.add(definition);
+            }
+        }
+
+        OperationDefinition operation = operations.stream()
+                .filter(candidate -> operationName == null ? operations.size() == 1 : operationName.equals(candidate.getName()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(operationName == null
+                        ? "Operation name is required for documents with several operations"
+                        : "Operation [" + operationName + "] not found in document"));
+
+        Map<String, Object> defaultValues = new HashMap<>();
+        for (VariableDefinition variable : operation.getVariableDefinitions()) {
+            if (variable.getDefaultValue() != null) {
+                defaultValues.put(variable.getName(), value(variable.getDefaultValue(), Collections.emptyMap()));
+            }
+        }
+        String rewritten = AstPrinter.printAstCompact(parsed.transform(builder -> builder.definitions(definitions)));
+        return new NormalizedOperation(operation.getOperation(), operation.getName(), operation.getSelectionSet(), fragments, defaultValues, rewritten);
+    }
+
+    private static SelectionSet addTypename(SelectionSet selectionSet, boolean add) {
+        List<Selection> selections = new ArrayList<>();
+        boolean hasTypename = false;
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                hasTypename |= TYPENAME.equals(field.getName()) && field.getAlias() == null;
+                selections.add(field.getSelectionSet() == null ? field
+                        : field.transform(builder -> builder.selectionSet(addTypename(field.getSelectionSet(), true))));
+            } else if (selection instanceof InlineFragment fragment) {
+                selections.add(fragment.transform(builder -> builder.selectionSet(addTypename(fragment.getSelectionSet(), false))));
+            } else {
+                selections.add(selection);
+            }
+        }
+        if (add && !hasTypename) {
+            selections.add(Field.newField(TYPENAME).build());
+        }
+        return selectionSet.transform(builder -> builder.selections(selections));
+    }
+
+    boolean isQuery() {
+        return this.operation == OperationDefinition.Operation.QUERY;
+    }
+
+    boolean isMutation() {
+        return this.operation == OperationDefinition.Operation.MUTATION;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    SelectionSet getSelectionSet() {
+        return this.selectionSet;
+    }
+
+    FragmentDefinition getFragment(String name) {
+        return this.fragments.get(name);
+    }
+
+    /**
+     * The document to send, with {@code __typename} selected in every nested selection set.
+     */
+    String getDocument() {
+        return this.document;
+    }
+
+    /**
+     * The variables of a request with the default values of the operation.
+     */
+    Map<String, Object> variables(Map<String, Object> variables) {
+        if (this.defaultValues.isEmpty()) {
+            return variables;
+        }
+        Map<String, Object> merged = new HashMap<>(this.defaultValues);
+        merged.putAll(variables);
+        return merged;
+    }
+
+    static String responseKey(Field field) {
+        return field.getAlias() != null ? field.getAlias() : field.getName();
+    }
+
+    /**
+     * Key of a field in its cache entry, the field name followed by its arguments, e.g. {@code bookById({"id":"book-1"})}.
+     */
+    static String fieldKey(Field field, Map<String, Object> variables, ObjectMapper keyMapper) {
+        if (field.getArguments().isEmpty()) {
+            return field.getName();
+        }
+        Map<String, Object> arguments = new TreeMap<>();
+        for (Argument argument : field.getArguments()) {
+            arguments.put(argument.getName(), value(argument.getValue(), variables));
+        }
+        try {
+            return field.getName() + "(" + keyMapper.writeValueAsString(arguments) + ")";
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize arguments of field [" + field.getName() + "]", e);
+        }
+    }
+
+    /**
+     * Whether a selection is included, according to its {@code @skip} and {@code @include} directives.
+     */
+    static boolean included(DirectivesContainer<?> selection, Map<String, Object> variables) {
+        for (Directive directive : selection.getDirectives()) {
+            Argument condition = directive.getArgument("if");
+            if (condition == null) {
+                continue;
+            }
+            boolean value = Boolean.TRUE.equals(value(condition.getValue(), variables));
+            if (("skip".equals(directive.getName()) && value) || ("include".equals(directive.getName()) && !value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static Object value(Value<?> value, Map<String, Object> variables) {
+        if (value instanceof VariableReference reference) {
+            return variables.get(reference.getName());
+        } else if (value instanceof StringValue stringValue) {
+            return stringValue.getValue();
+        } else if (value instanceof IntValue intValue) {
+            return intValue.getValue();
+        } else if (value instanceof FloatValue floatValue) {
+            return floatValue.getValue();
+        } else if (value instanceof BooleanValue booleanValue) {
+            return booleanValue.isValue();
+        } else if (value instanceof EnumValue enumValue) {
+            return enumValue.getName();
+        } else if (value instanceof ArrayValue arrayValue) {
+            List<Object> values = new ArrayList<>();
+            arrayValue.getValues().forEach(item -> values.add(value(item, variables)));
+            return values;
+        } else if (value instanceof ObjectValue objectValue) {
+            Map<String, Object> values = new TreeMap<>();
+            objectValue.getObjectFields().forEach(field -> values.put(field.getName(), value(field.getValue(), variables)));
+            return values;
+        }
+        return null;
+    }
+
+    /**
+     * Removes from response data the fields that were not selected by the original document,
+     * i.e. the {@code __typename} added to the document sent.
+     */
+    Object project(Object data, Map<String, Object> variables) {
+        return project(data, List.of(this.selectionSet), variables);
+    }
+
+    private Object project(Object value, List<SelectionSet> selectionSets, Map<String, Object> variables) {
+        if (value instanceof List<?> list) {
+            List<Object> projected = new ArrayList<>(list.size());
+            list.forEach(item -> projected.add(project(item, selectionSets, variables)));
+            return projected;
+        }
+        if (!(value instanceof Map<?, ?> object)) {
+            return value;
+        }
+        Map<String, List<Field>> fields = new LinkedHashMap<>();
+        selectionSets.forEach(selectionSet -> collectFields(selectionSet, variables, fields));
+        Map<String, Object> projected = new LinkedHashMap<>();
+        object.forEach((key, fieldValue) -> {
+            List<Field> selected = fields.get(String.valueOf(key));
+            if (selected == null) {
+                return;
+            }
+            List<SelectionSet> subSelections = selected.stream()
+                    .map(Field::getSelectionSet)
+                    .filter(selectionSet -> selectionSet != null)
+                    .toList();
+            projected.put(String.valueOf(key), subSelections.isEmpty() ? fieldValue : project(fieldValue, subSelections, variables));
+        });
+        return projected;
+    }
+
+    private void collectFields(SelectionSet selectionSet, Map<String, Object> variables, Map<String, List<Field>> fields) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                if (included(field, variables)) {
+                    fields.computeIfAbsent(responseKey(field), key -> new ArrayList<>()).add(field);
+                }
+            } else if (selection instanceof InlineFragment fragment) {
+                if (included(fragment, variables)) {
+                    collectFields(fragment.getSelectionSet(), variables, fields);
+                }
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition definition = this.fragments.get(spread.getName());
+                if (definition != null && included(spread, variables)) {
+                    collectFields(definition.getSelectionSet(), variables, fields);
+                }
+            }
+        }
+    }
+}
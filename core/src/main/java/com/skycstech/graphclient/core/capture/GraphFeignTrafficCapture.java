@@ -0,0 +1,209 @@
+package com.skycstech.graphclient.core.capture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.skycstech.graphclient.core.support.BackgroundWriter;
+import com.skycstech.graphclient.core.support.BoundedBody;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a sample of the HTTP exchanges of a GraphFeign client to a local {@link GraphFeignTrafficFile}:
+ * document hash, shape of the variables and of the response, sizes, status, errors and duration.
+ * <p>Bodies are copied as they are written and read, up to {@link #maxBodySize}; larger bodies are only counted.
+ * Parsing and writing happen on a single background thread shared by all clients, entries are dropped rather
+ * than slowing down requests when it falls behind. Capture stops once the file reaches its maximum size.
+ * <p>Requests sent over WebSocket are not captured.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignTrafficCapture {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignTrafficCapture.class);
+
+    private static final GraphFeignTrafficCapture DISABLED = new GraphFeignTrafficCapture(null, null, 0, 0);
+
+    private static final BackgroundWriter WRITER = new BackgroundWriter("graphfeign-capture", 1024);
+    private static final Map<Path, CaptureFile> FILES = new ConcurrentHashMap<>();
+
+    private final String clientName;
+    private final CaptureFile file;
+    private final double sampleRate;
+    private final int maxBodySize;
+
+    private GraphFeignTrafficCapture(String clientName, CaptureFile file, double sampleRate, int maxBodySize) {
+        this.clientName = clientName;
+        this.file = file;
+        this.sampleRate = sampleRate;
+        this.maxBodySize = maxBodySize;
+    }
+
+    public static GraphFeignTrafficCapture disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Capture of the given client to the given file, appended to if it exists and shared with the other
+     * clients capturing to it.
+     */
+    public static GraphFeignTrafficCapture of(String clientName, Path file, double sampleRate, int maxBodySize, long maxFileSize) {
+        CaptureFile captureFile = FILES.computeIfAbsent(file.toAbsolutePath().normalize(), path -> new CaptureFile(path, maxFileSize));
+        return new GraphFeignTrafficCapture(clientName, captureFile, sampleRate, maxBodySize);
+    }
+
+    /**
+     * Number of exchanges not captured because the background writer could not keep up.
+     */
+    public static long getDroppedExchanges() {
+        return WRITER.getDropped();
+    }
+
+    public boolean isEnabled() {
+        return this.file != null;
+    }
+
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            if (this.file == null || this.file.full || ThreadLocalRandom.current().nextDouble() >= this.sampleRate) {
+                return next.exchange(request);
+            }
+            Capture capture = new Capture(this.maxBodySize);
+            ClientRequest capturedRequest = ClientRequest.from(request)
+                    .body((outputMessage, context) -> request.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                        @Override
+                        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                            return super.writeWith(Flux.from(body).doOnNext(capture.requestBody::append));
+                        }
+                    }, context))
+                    .build();
+
+            return next.exchange(capturedRequest)
+                    .map(response -> {
+                        capture.status = response.rawStatusCode();
+                        capture.json = response.headers().contentType()
+                                .map(type -> MediaType.APPLICATION_JSON.isCompatibleWith(type) || type.getSubtype().endsWith("+json"))
+                                .orElse(false);
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(capture.responseBody::append)
+                                        .doOnComplete(() -> write(capture)))
+                                .build();
+                    });
+        };
+    }
+
+    private void write(Capture capture) {
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - capture.start);
+        long timestamp = System.currentTimeMillis();
+        WRITER.execute(() -> {
+            try {
+                this.file.write(this.clientName, capture, durationMicros, timestamp);
+            } catch (Exception e) {
+                log.debug("Unable to capture exchange of GraphFeignClient [{}]", this.clientName, e);
+            }
+        });
+    }
+
+    private static class Capture {
+
+        private final long start = System.nanoTime();
+        private final BoundedBody requestBody;
+        private final BoundedBody responseBody;
+        private volatile int status;
+        private volatile boolean json;
+
+        Capture(int maxBodySize) {
+            this.requestBody = new BoundedBody(maxBodySize);
+            this.responseBody = new BoundedBody(maxBodySize);
+        }
+    }
+
+    /**
+     * Capture file, only written by the background thread.
+     */
+    private static class CaptureFile {
+
+        private final Path path;
+        private final long maxSize;
+        private final Set<String> documentHashes = new HashSet<>();
+        private BufferedWriter writer;
+        private long size;
+        private volatile boolean full;
+
+        CaptureFile(Path path, long maxSize) {
+            this.path = path;
+            this.maxSize = maxSize;
+        }
+
+        void write(String clientName, Capture capture, long durationMicros, long timestamp) throws IOException {
+            if (this.full) {
+                return;
+            }
+            byte[] requestContent = capture.requestBody.content();
+            if (requestContent == null) {
+                return;
+            }
+            JsonNode request = GraphFeignTrafficFile.MAPPER.readTree(requestContent);
+            String document = request.path("query").asText();
+            String documentHash = GraphFeignTrafficFile.hash(document);
+            JsonNode response = null;
+            int errors = 0;
+            byte[] responseContent = capture.responseBody.content();
+            if (capture.json && responseContent != null && responseContent.length > 0) {
+                JsonNode responseNode = GraphFeignTrafficFile.MAPPER.readTree(responseContent);
+                errors = responseNode.path("errors").size();
+                response = GraphFeignTrafficFile.shape(responseNode);
+            }
+            JsonNode operationName = request.get("operationName");
+            GraphFeignTrafficFile.Exchange exchange = new GraphFeignTrafficFile.Exchange(timestamp, clientName,
+                    operationName != null && operationName.isTextual() ? operationName.textValue() : null, documentHash,
+                    GraphFeignTrafficFile.shape(request.get("variables")), capture.requestBody.size(),
+                    capture.responseBody.size(), capture.status, durationMicros, errors, response);
+
+            if (this.writer == null) {
+                Files.createDirectories(this.path.getParent());
+                this.writer = Files.newBufferedWriter(this.path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                this.size = Files.size(this.path);
+                log.info("Capturing GraphFeign traffic to [{}]", this.path);
+            }
+            if (this.documentHashes.add(documentHash)) {
+                writeLine(GraphFeignTrafficFile.MAPPER.writeValueAsString(new GraphFeignTrafficFile.Document(documentHash, document)));
+            }
+            writeLine(GraphFeignTrafficFile.MAPPER.writeValueAsString(exchange));
+            if (WRITER.isIdle()) {
+                this.writer.flush();
+            }
+            if (this.size >= this.maxSize) {
+                this.full = true;
+                this.writer.close();
+                log.info("GraphFeign traffic capture file [{}] reached {} bytes, capture stopped", this.path, this.size);
+            }
+        }
+
+        private void writeLine(String line) throws IOException {
+            this.writer.write(line);
+            this.writer.newLine();
+            this.size += line.getBytes(StandardCharsets.UTF_8).length + 1L;
+        }
+    }
+}
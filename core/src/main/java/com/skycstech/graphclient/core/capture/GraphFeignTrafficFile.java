@@ -0,0 +1,163 @@
+package com.skycstech.graphclient.core.capture;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traffic captured by {@link GraphFeignTrafficCapture}, one JSON object per line. Each document is written once,
+ * as a {@link Document} line, before the first {@link Exchange} referencing its hash.
+ * <p>Variables and responses are recorded as shapes: strings are replaced by as many {@code x}, numbers by zero
+ * and booleans by false, so no value leaves the application while sizes and structure are kept. Lists are
+ * recorded as their length and the shape of their first element, {@code {"@array": 3, "@item": {...}}}, which
+ * keeps the file small for large responses; {@link #expand(JsonNode)} turns a shape back into a JSON value.
+ *
+ * @author Akash Patel
+ */
+public final class GraphFeignTrafficFile {
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String ARRAY = "@array";
+    private static final String ITEM = "@item";
+
+    private final Map<String, String> documents;
+    private final List<Exchange> exchanges;
+
+    private GraphFeignTrafficFile(Map<String, String> documents, List<Exchange> exchanges) {
+        this.documents = documents;
+        this.exchanges = exchanges;
+    }
+
+    /**
+     * A document sent by the clients, by the SHA-256 hash referenced by the exchanges.
+     */
+    public record Document(String hash, String document) {
+    }
+
+    /**
+     * A captured exchange, the response shape is null if the response was not JSON or larger than the
+     * capture limit, its size is always recorded.
+     */
+    public record Exchange(long timestamp, String client, String operationName, String documentHash, JsonNode variables,
+                           long requestBytes, long responseBytes, int status, long durationMicros, int errors,
+                           JsonNode response) {
+    }
+
+    public static GraphFeignTrafficFile read(Path file) throws IOException {
+        Map<String, String> documents = new HashMap<>();
+        List<Exchange> exchanges = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                if (node.has("document")) {
+                    Document document = MAPPER.treeToValue(node, Document.class);
+                    documents.put(document.hash(), document.document());
+                } else {
+                    exchanges.add(MAPPER.treeToValue(node, Exchange.class));
+                }
+            }
+        }
+        return new GraphFeignTrafficFile(Collections.unmodifiableMap(documents), Collections.unmodifiableList(exchanges));
+    }
+
+    public Map<String, String> getDocuments() {
+        return this.documents;
+    }
+
+    public List<Exchange> getExchanges() {
+        return this.exchanges;
+    }
+
+    /**
+     * SHA-256 of a document, as referenced by the exchanges.
+     */
+    public static String hash(String document) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static JsonNode shape(JsonNode value) {
+        if (value == null) {
+            return NullNode.getInstance();
+        }
+        switch (value.getNodeType()) {
+            case STRING:
+                return TextNode.valueOf("x".repeat(value.textValue().length()));
+            case NUMBER:
+                return value.isIntegralNumber() ? IntNode.valueOf(0) : DoubleNode.valueOf(0);
+            case BOOLEAN:
+                return BooleanNode.FALSE;
+            case ARRAY:
+                if (value.isEmpty()) {
+                    return JsonNodeFactory.instance.arrayNode();
+                }
+                ObjectNode array = JsonNodeFactory.instance.objectNode();
+                array.put(ARRAY, value.size());
+                array.set(ITEM, shape(value.get(0)));
+                return array;
+            case OBJECT:
+                ObjectNode object = JsonNodeFactory.instance.objectNode();
+                Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    object.set(field.getKey(), shape(field.getValue()));
+                }
+                return object;
+            default:
+                return NullNode.getInstance();
+        }
+    }
+
+    public static JsonNode expand(JsonNode shape) {
+        if (shape == null) {
+            return NullNode.getInstance();
+        }
+        if (shape.isObject() && shape.has(ARRAY)) {
+            // GraphQL names cannot start with @, so the marker cannot clash with a field
+            JsonNode item = expand(shape.get(ITEM));
+            ArrayNode array = JsonNodeFactory.instance.arrayNode(shape.get(ARRAY).intValue());
+            for (int i = 0; i < shape.get(ARRAY).intValue(); i++) {
+                array.add(item);
+            }
+            return array;
+        }
+        if (shape.isObject()) {
+            ObjectNode object = JsonNodeFactory.instance.objectNode();
+            shape.fields().forEachRemaining(field -> object.set(field.getKey(), expand(field.getValue())));
+            return object;
+        }
+        return shape;
+    }
+}
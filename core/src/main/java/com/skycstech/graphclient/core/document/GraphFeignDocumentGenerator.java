@@ -0,0 +1,173 @@
+package com.skycstech.graphclient.core.document;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.skycstech.graphclient.core.annotation.GraphFeignDocument;
+import com.skycstech.graphclient.core.annotation.GraphFeignHeader;
+import com.skycstech.graphclient.core.annotation.GraphFeignRequest;
+import com.skycstech.graphclient.core.annotation.GraphFeignShardKey;
+import com.skycstech.graphclient.core.annotation.GraphFeignTenant;
+import com.skycstech.graphclient.core.annotation.GraphFeignVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates GraphQL documents for {@link GraphFeignRequest} methods that do not declare one.
+ * <p>The root field is taken from {@link GraphFeignRequest#retrievePath()}, its arguments from the
+ * {@link GraphFeignVariable} parameters, and the selection set from the properties the return type
+ * binds, as seen by the configured {@link ObjectMapper} (so Jackson annotations are honored).
+ * <p>For example:
+ *
+ * <pre class="code">
+ *  &#064;GraphFeignRequest(retrievePath = "bookById")
+ *  {@code BookAuthorView getBookById(@GraphFeignVariable(value = "bookId", type = "ID!", argument = "id") String bookId);}
+ * </pre>
+ * generates
+ * <pre>
+ * query getBookById($bookId: ID!) {bookById(id: $bookId) {id name pageCount author {id firstName lastName}}}
+ * </pre>
+ * Documents are generated once per method and cached.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignDocumentGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignDocumentGenerator.class);
+
+    private final ObjectMapper objectMapper;
+    private final Map<Method, String> documents = new ConcurrentHashMap<>();
+
+    public GraphFeignDocumentGenerator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The generated document for the given method.
+     *
+     * @param method     the GraphFeignRequest method
+     * @param resultType the type bound at the retrieve path, for lists the element type
+     * @throws IllegalArgumentException if the method does not carry enough information to generate a document
+     */
+    public String getDocument(Method method, Type resultType) {
+        return this.documents.computeIfAbsent(method, m -> {
+            String document = generate(m, resultType);
+            log.debug("Generated document for method [{}]: [{}]", m.getName(), document);
+            return document;
+        });
+    }
+
+    private String generate(Method method, Type resultType) {
+        GraphFeignRequest request = method.getAnnotation(GraphFeignRequest.class);
+        if (request == null || !StringUtils.hasText(request.retrievePath())) {
+            throw new IllegalArgumentException("retrievePath in GraphFeignRequest is required to generate a document for method [" + method.getName() + "]");
+        }
+
+        String operationType = request.isSubscription() ? "subscription" : request.isMutation() ? "mutation" : "query";
+        String operationName = StringUtils.hasText(request.operationName()) ? request.operationName() : method.getName();
+
+        StringJoiner variableDefinitions = new StringJoiner(", ", "(", ")").setEmptyValue("");
+        StringJoiner arguments = new StringJoiner(", ", "(", ")").setEmptyValue("");
+        for (Parameter parameter : method.getParameters()) {
+            if (parameter.isAnnotationPresent(GraphFeignDocument.class) || parameter.isAnnotationPresent(GraphFeignHeader.class)
+                    || parameter.isAnnotationPresent(GraphFeignTenant.class)
+                    || parameter.isAnnotationPresent(GraphFeignShardKey.class)) {
+                continue;
+            }
+            GraphFeignVariable variable = parameter.getAnnotation(GraphFeignVariable.class);
+            if (variable == null || Map.class.isAssignableFrom(parameter.getType())) {
+                throw new IllegalArgumentException("Parameter [" + parameter.getName() + "] of method [" + method.getName()
+                        + "] must be a single @GraphFeignVariable with a type to generate a document");
+            }
+            String name = StringUtils.hasText(variable.value()) ? variable.value() : parameter.getName();
+            if (!StringUtils.hasText(variable.type())) {
+                throw new IllegalArgumentException("Type of @GraphFeignVariable [" + name + "] in method [" + method.getName()
+                        + "] is required to generate a document");
+            }
+            String argument = StringUtils.hasText(variable.argument()) ? variable.argument() : name;
+            variableDefinitions.add("$" + name + ": " + variable.type());
+            arguments.add(argument + ": $" + name);
+        }
+
+        String[] path = request.retrievePath().split("\\.");
+        StringBuilder document = new StringBuilder()
+                .append(operationType).append(' ').append(operationName).append(variableDefinitions).append(" {");
+        for (int i = 0; i < path.length; i++) {
+            // Drop list indexes such as "books[0]", they only apply when decoding
+            document.append(path[i].replaceAll("\\[\\d+]", ""));
+            if (i == 0) {
+                document.append(arguments);
+            }
+            if (i < path.length - 1) {
+                document.append(" {");
+            }
+        }
+        document.append(selectionSet(this.objectMapper.constructType(resultType), new HashSet<>()));
+        document.append("}".repeat(path.length));
+        return document.toString();
+    }
+
+    private String selectionSet(JavaType type, Set<Class<?>> visiting) {
+        StringJoiner fields = new StringJoiner(" ", " {", "}").setEmptyValue("");
+        appendFields(fields, elementType(type), visiting);
+        return fields.toString();
+    }
+
+    private void appendFields(StringJoiner fields, JavaType type, Set<Class<?>> visiting) {
+        if (isLeaf(type)) {
+            return;
+        }
+        if (!visiting.add(type.getRawClass())) {
+            throw new IllegalArgumentException("Cannot generate a selection set for cyclic type [" + type.getRawClass().getName() + "]");
+        }
+
+        BeanDescription description = this.objectMapper.getDeserializationConfig().introspect(type);
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (!property.couldDeserialize()) {
+                continue;
+            }
+            JavaType propertyType = property.getPrimaryType();
+            AnnotatedMember member = property.getPrimaryMember();
+            JsonUnwrapped unwrapped = member != null ? member.getAnnotation(JsonUnwrapped.class) : null;
+            if (unwrapped != null && unwrapped.enabled()) {
+                appendFields(fields, elementType(propertyType), visiting);
+            } else {
+                fields.add(property.getName() + selectionSet(propertyType, visiting));
+            }
+        }
+
+        visiting.remove(type.getRawClass());
+    }
+
+    private JavaType elementType(JavaType type) {
+        JavaType elementType = type;
+        while (elementType.isReferenceType() || (elementType.isContainerType() && !elementType.isMapLikeType())) {
+            elementType = elementType.isReferenceType() ? elementType.getReferencedType() : elementType.getContentType();
+        }
+        return elementType;
+    }
+
+    private boolean isLeaf(JavaType type) {
+        Class<?> rawClass = type.getRawClass();
+        return rawClass.isPrimitive()
+                || rawClass.isEnum()
+                || rawClass == Object.class
+                || type.isMapLikeType()
+                || JsonNode.class.isAssignableFrom(rawClass)
+                || rawClass.getName().startsWith("java.");
+    }
+}
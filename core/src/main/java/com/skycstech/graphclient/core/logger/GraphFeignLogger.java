@@ -1,50 +1,182 @@
 package com.skycstech.graphclient.core.logger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.support.BackgroundWriter;
+import com.skycstech.graphclient.core.support.BoundedBody;
 import lombok.Getter;
 import lombok.Setter;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
 import org.springframework.util.StringUtils;
-import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Wire logging of the requests of a GraphFeign client.
+ * <p>Bodies are copied into buffers bounded by {@link #maxBodySize} as they are written and read, so the body
+ * is never consumed by the logger. Each exchange is logged once, request and response together, when the
+ * response body completes. Formatting and writing happen on a single background thread; entries are dropped
+ * rather than slowing down requests when it falls behind.
+ * <p>{@link #sampleRate} logs a fraction of the exchanges, {@link #errorsOnly} logs only failed exchanges,
+ * HTTP error statuses and responses with GraphQL {@code errors}. In errors only mode the response body is
+ * scanned for an {@code errors} key as it is read, at every level and beyond {@link #maxBodySize}, and only the
+ * exchanges logged are queued to the background thread.
+ */
 @Getter
 @Setter
 public class GraphFeignLogger {
 
     private static final Logger log = LoggerFactory.getLogger(GraphFeignLogger.class);
 
+    private static final BackgroundWriter WRITER = new BackgroundWriter("graphfeign-logger", 1024);
+
     private Level level = Level.NONE;
     private List<String> sensitiveHeaders = new ArrayList<>();
+
+    /**
+     * Maximum number of bytes of each body kept for logging, the rest is truncated.
+     */
+    private int maxBodySize = 8 * 1024;
+
+    /**
+     * Fraction of the exchanges logged, between 0 and 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Log only failed exchanges, HTTP error statuses and responses with GraphQL errors.
+     */
+    private boolean errorsOnly = false;
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
-    public ExchangeFilterFunction logRequest() {
-        return ExchangeFilterFunction.ofRequestProcessor(clientRequest -> {
-            if (level != Level.NONE) {
-                logRequest(clientRequest);
+    /**
+     * Number of log entries dropped because the background writer could not keep up.
+     */
+    public static long getDroppedEntries() {
+        return WRITER.getDropped();
+    }
+
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            if (this.level == Level.NONE || (!this.errorsOnly && !sampled())) {
+                return next.exchange(request);
             }
-            return Mono.just(clientRequest);
-        });
+            Exchange exchange = new Exchange(request, this.level == Level.FULL ? this.maxBodySize : 0);
+            ClientRequest loggedRequest = this.level != Level.FULL ? request : ClientRequest.from(request)
+                    .body((outputMessage, context) -> request.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                        @Override
+                        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                            return super.writeWith(Flux.from(body).doOnNext(exchange.requestBody::append));
+                        }
+                    }, context))
+                    .build();
+
+            return next.exchange(loggedRequest)
+                    .doOnError(e -> write(exchange, e))
+                    .map(response -> {
+                        exchange.response = response;
+                        if (this.level != Level.FULL && !this.errorsOnly) {
+                            write(exchange, null);
+                            return response;
+                        }
+                        boolean scanErrors = this.errorsOnly;
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(buffer -> exchange.read(buffer, scanErrors))
+                                        .doFinally(signal -> write(exchange, null)))
+                                .build();
+                    });
+        };
     }
 
+    /**
+     * @deprecated requests and responses are logged together by {@link #filter()}, which this returns
+     */
+    @Deprecated
+    public ExchangeFilterFunction logRequest() {
+        return filter();
+    }
+
+    /**
+     * @deprecated requests and responses are logged together by {@link #filter()}, see {@link #logRequest()},
+     * this returns a filter passing the response through
+     */
+    @Deprecated
     public ExchangeFilterFunction logResponse() {
-        return ExchangeFilterFunction.ofResponseProcessor(clientResponse -> {
-            if (level != Level.NONE) {
-                logResponse(clientResponse);
-            }
-            return Mono.just(clientResponse);
-        });
+        return ExchangeFilterFunction.ofResponseProcessor(Mono::just);
+    }
+
+    /**
+     * @deprecated bodies are logged as sent and received, they are no longer serialized with an ObjectMapper
+     */
+    @Deprecated
+    public ObjectMapper getObjectMapper() {
+        return this.objectMapper;
+    }
+
+    /**
+     * @deprecated bodies are logged as sent and received, the ObjectMapper is ignored
+     */
+    @Deprecated
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    private boolean sampled() {
+        return this.sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+    }
+
+    private void write(Exchange exchange, Throwable error) {
+        if (!exchange.written.compareAndSet(false, true)) {
+            return;
+        }
+        // In errors only mode every exchange is captured, the sample rate applies to the errors. Decided before
+        // queueing, so healthy traffic does not fill the queue of the writer.
+        if (this.errorsOnly && !(exchange.isError(error) && sampled())) {
+            return;
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - exchange.start);
+        WRITER.execute(() -> log.info(format(exchange, error, durationMillis)));
+    }
+
+    private String format(Exchange exchange, Throwable error, long durationMillis) {
+        ClientRequest request = exchange.request;
+        ClientResponse response = exchange.response;
+        StringBuilder entry = new StringBuilder("Request: ").append(request.method()).append(' ').append(request.url());
+        if (this.level != Level.BASIC) {
+            entry.append("\nHeaders: ").append(maskSensitiveHeaders(request.headers()));
+        }
+        if (this.level == Level.FULL) {
+            entry.append("\nBody: ").append(exchange.requestBody);
+        }
+
+        if (error != null) {
+            entry.append("\nError: ").append(error).append(" (").append(durationMillis).append(" ms)");
+            return entry.toString();
+        }
+        entry.append("\nResponse: ").append(response.rawStatusCode()).append(" (").append(durationMillis).append(" ms)");
+        if (this.level != Level.BASIC) {
+            entry.append("\nHeaders: ").append(maskSensitiveHeaders(response.headers().asHttpHeaders()));
+        }
+        if (this.level == Level.FULL) {
+            entry.append("\nBody: ").append(exchange.responseBody);
+        }
+        return entry.toString();
     }
 
 
@@ -70,27 +202,68 @@ public class GraphFeignLogger {
         FULL
     }
 
+    private static class Exchange {
+
+        private final long start = System.nanoTime();
+        private final ClientRequest request;
+        private final BoundedBody requestBody;
+        private final BoundedBody responseBody;
+        private final ErrorsMatcher errors = new ErrorsMatcher();
+        private volatile ClientResponse response;
+        private final AtomicBoolean written = new AtomicBoolean();
 
-    private void logRequest(ClientRequest request) {
-        switch (level) {
-            case BASIC -> log.info("Request: {} {}", request.method(), request.url());
-            case HEADERS ->
-                    log.info("Request: {} {}\nHeaders: {}", request.method(), request.url(), maskSensitiveHeaders(request.headers()));
-            case FULL ->
-                    log.info("Request: {} {}\nHeaders: {}\nBody: {}", request.method(), request.url(), maskSensitiveHeaders(request.headers()), extractRequestBody(request));
-            default -> log.debug("Unexpected value: {}", level);
+        Exchange(ClientRequest request, int maxBodySize) {
+            this.request = request;
+            this.requestBody = new BoundedBody(maxBodySize);
+            this.responseBody = new BoundedBody(maxBodySize);
+        }
+
+        void read(DataBuffer buffer, boolean scanErrors) {
+            this.responseBody.append(buffer);
+            if (scanErrors) {
+                this.errors.scan(buffer);
+            }
+        }
+
+        boolean isError(Throwable error) {
+            return error != null
+                    || (this.response != null && this.response.rawStatusCode() >= 400)
+                    || this.errors.isFound();
         }
     }
 
-    private void logResponse(ClientResponse response) {
-        switch (level) {
-            case BASIC -> log.info("Response: {}", response.statusCode());
-            case HEADERS ->
-                    log.info("Response: {}\nHeaders: {}", response.statusCode(), response.headers().asHttpHeaders());
-            case FULL ->
-                // TODO: need to resolve the issue with bodyToMono
-                    log.info("Response: {}\nHeaders: {}\nBody: {}", response.statusCode(), response.headers().asHttpHeaders(), response.bodyToMono(String.class));
-            default -> log.debug("Unexpected value: {}", level);
+    /**
+     * Looks for the {@code "errors"} key of a JSON body as it streams through, across buffer boundaries.
+     * The buffers passing through are left untouched.
+     */
+    private static class ErrorsMatcher {
+
+        private static final byte[] KEY = "\"errors\"".getBytes(StandardCharsets.UTF_8);
+
+        private int matched;
+        private volatile boolean found;
+
+        synchronized void scan(DataBuffer buffer) {
+            if (this.found) {
+                return;
+            }
+            ByteBuffer view = buffer.asByteBuffer();
+            while (view.hasRemaining()) {
+                byte current = view.get();
+                if (current == KEY[this.matched]) {
+                    if (++this.matched == KEY.length) {
+                        this.found = true;
+                        return;
+                    }
+                } else {
+                    // The opening quote is the only prefix of the key that is also a suffix
+                    this.matched = current == KEY[0] ? 1 : 0;
+                }
+            }
+        }
+
+        boolean isFound() {
+            return this.found;
         }
     }
 
@@ -131,33 +304,4 @@ public class GraphFeignLogger {
         return String.copyValueOf(chars);
     }
 
-    private String extractRequestBody(ClientRequest request) {
-        Field inserterField = null;
-        String bodyStr = null;
-        try {
-            BodyInserter<?, ?> inserter = request.body();
-            inserterField = inserter.getClass().getDeclaredField("arg$1");
-            inserterField.setAccessible(true);
-            Object body = inserterField.get(inserter);
-            inserterField.setAccessible(false);
-            bodyStr = toJSONString(body);
-        } catch (Exception e) {
-            log.warn("Failed to extract request body", e);
-        } finally {
-            if (inserterField != null) {
-                inserterField.setAccessible(false);
-            }
-        }
-        return bodyStr;
-    }
-
-    private String toJSONString(Object object) {
-        try {
-            return objectMapper.writer().withDefaultPrettyPrinter().writeValueAsString(object);
-        } catch (Exception e) {
-            log.warn("Error while marshalling {}", object.getClass().getSimpleName(), e);
-        }
-        return null;
-    }
-
 }
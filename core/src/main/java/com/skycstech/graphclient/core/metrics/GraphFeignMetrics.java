@@ -0,0 +1,351 @@
+package com.skycstech.graphclient.core.metrics;
+
+import io.micrometer.core.instrument.*;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.FieldAccessException;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * Micrometer metrics of a GraphFeign client.
+ * <ul>
+ *     <li>{@value #REQUESTS}: timer per method and operation, tagged by {@link Outcome}</li>
+ *     <li>{@value #REQUEST_SIZE} and {@value #RESPONSE_SIZE}: body sizes in bytes per method, HTTP transports only</li>
+ *     <li>{@value #ERRORS}: GraphQL errors per method and field path, list indices removed from the path</li>
+ *     <li>{@value #ACTIVE}: requests in flight per client</li>
+ *     <li>{@value #SUBSCRIPTION_BUFFERED} and {@value #SUBSCRIPTION_DROPPED}: elements of the subscriptions of a
+ *     method waiting for their subscriber, and dropped because it fell behind, for the methods bounding them</li>
+ * </ul>
+ * <p>Meters of a method are registered once, when the method is bound, so recording a call only looks them up
+ * by outcome. Subscriptions are timed from subscribe until they complete, cancelled subscriptions are not timed.
+ * <p>The last {@value #RECENT_CALLS} calls are kept in a ring buffer, to report the slowest recent ones.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignMetrics {
+
+    public static final String REQUESTS = "graphfeign.client.requests";
+    public static final String REQUEST_SIZE = "graphfeign.client.request.size";
+    public static final String RESPONSE_SIZE = "graphfeign.client.response.size";
+    public static final String ERRORS = "graphfeign.client.errors";
+    public static final String ACTIVE = "graphfeign.client.requests.active";
+    public static final String SUBSCRIPTION_BUFFERED = "graphfeign.client.subscription.buffered";
+    public static final String SUBSCRIPTION_DROPPED = "graphfeign.client.subscription.dropped";
+
+    static final int RECENT_CALLS = 128;
+
+    private static final GraphFeignMetrics DISABLED = new GraphFeignMetrics(null, null, new double[0]);
+
+    private final MeterRegistry registry;
+    private final String clientName;
+    private final double[] percentiles;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<RecentCall> recentCalls = new AtomicReferenceArray<>(RECENT_CALLS);
+    private final AtomicLong recentCallIndex = new AtomicLong();
+
+    private GraphFeignMetrics(MeterRegistry registry, String clientName, double[] percentiles) {
+        this.registry = registry;
+        this.clientName = clientName;
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * Metrics of the given client, the request timers publish the given percentiles.
+     * Disabled if there is no registry.
+     */
+    public static GraphFeignMetrics of(MeterRegistry registry, String clientName, double... percentiles) {
+        if (registry == null) {
+            return DISABLED;
+        }
+        GraphFeignMetrics metrics = new GraphFeignMetrics(registry, clientName, percentiles);
+        Gauge.builder(ACTIVE, metrics.active, AtomicInteger::get)
+                .description("GraphFeign requests in flight")
+                .tag("client", clientName)
+                .register(registry);
+        return metrics;
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        GRAPHQL_ERROR,
+        TRANSPORT_ERROR,
+        TIMEOUT
+    }
+
+    public record RecentCall(String method, String operation, Outcome outcome, Duration duration, Instant timestamp) {
+    }
+
+    public boolean isEnabled() {
+        return this.registry != null;
+    }
+
+    public int getActiveRequests() {
+        return this.active.get();
+    }
+
+    /**
+     * Metrics of the given method, null if the method was not bound yet.
+     */
+    public MethodMetrics getMethod(String methodKey) {
+        return this.methods.get(methodKey);
+    }
+
+    /**
+     * The slowest of the last {@value #RECENT_CALLS} calls, slowest first.
+     */
+    public List<RecentCall> getSlowestRecentCalls(int limit) {
+        List<RecentCall> calls = new ArrayList<>(RECENT_CALLS);
+        for (int i = 0; i < RECENT_CALLS; i++) {
+            RecentCall call = this.recentCalls.get(i);
+            if (call != null) {
+                calls.add(call);
+            }
+        }
+        calls.sort(Comparator.comparing(RecentCall::duration).reversed());
+        return calls.subList(0, Math.min(limit, calls.size()));
+    }
+
+    private void recordCall(MethodMetrics method, Outcome outcome, long durationNanos) {
+        int slot = (int) (this.recentCallIndex.getAndIncrement() % RECENT_CALLS);
+        this.recentCalls.set(slot, new RecentCall(method.methodKey, method.operation, outcome,
+                Duration.ofNanos(durationNanos), Instant.now()));
+    }
+
+    /**
+     * Registers the meters of the given method, called once when the method is bound.
+     */
+    public MethodMetrics forMethod(String methodKey, String operationName) {
+        if (this.registry == null) {
+            return MethodMetrics.NONE;
+        }
+        String operation = StringUtils.hasText(operationName) ? operationName : "none";
+        return this.methods.computeIfAbsent(methodKey, key -> new MethodMetrics(this, key, operation,
+                Tags.of("client", this.clientName, "method", key, "operation", operation)));
+    }
+
+    /**
+     * Records the request and response body sizes of the method found in the subscriber context.
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            MethodMetrics metrics = context.getOrDefault(MethodMetrics.class, null);
+            if (metrics == null || metrics == MethodMetrics.NONE) {
+                return next.exchange(request);
+            }
+            ClientRequest countedRequest = ClientRequest.from(request)
+                    .body((outputMessage, insertContext) -> request.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                        @Override
+                        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                            AtomicLong size = new AtomicLong();
+                            return super.writeWith(Flux.from(body).doOnNext(buffer -> size.addAndGet(buffer.readableByteCount())))
+                                    .doOnSuccess(done -> metrics.requestSize.record(size.get()));
+                        }
+                    }, insertContext))
+                    .build();
+            return next.exchange(countedRequest)
+                    .map(response -> response.mutate()
+                            .body(body -> {
+                                AtomicLong size = new AtomicLong();
+                                return body.doOnNext(buffer -> size.addAndGet(buffer.readableByteCount()))
+                                        .doOnComplete(() -> metrics.responseSize.record(size.get()));
+                            })
+                            .build());
+        });
+    }
+
+    public static class MethodMetrics {
+
+        static final MethodMetrics NONE = new MethodMetrics(null, null, null, null);
+
+        private final GraphFeignMetrics parent;
+        private final String methodKey;
+        private final String operation;
+        private final Tags tags;
+        private final Map<Outcome, Timer> timers;
+        private final DistributionSummary requestSize;
+        private final DistributionSummary responseSize;
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private volatile Counter dropped;
+
+        private MethodMetrics(GraphFeignMetrics parent, String methodKey, String operation, Tags tags) {
+            this.parent = parent;
+            this.methodKey = methodKey;
+            this.operation = operation;
+            this.tags = tags;
+            if (parent == null) {
+                this.timers = null;
+                this.requestSize = null;
+                this.responseSize = null;
+                return;
+            }
+            this.timers = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                this.timers.put(outcome, Timer.builder(REQUESTS)
+                        .description("GraphFeign request latency")
+                        .tags(tags)
+                        .tag("outcome", outcome.name())
+                        .publishPercentiles(parent.percentiles)
+                        .register(parent.registry));
+            }
+            this.requestSize = DistributionSummary.builder(REQUEST_SIZE)
+                    .description("GraphFeign request body size")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(parent.registry);
+            this.responseSize = DistributionSummary.builder(RESPONSE_SIZE)
+                    .description("GraphFeign response body size")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(parent.registry);
+        }
+
+        public String getOperation() {
+            return this.operation;
+        }
+
+        public Timer getTimer(Outcome outcome) {
+            return this.timers.get(outcome);
+        }
+
+        /**
+         * Registers the meters of the subscriptions of the method holding a bounded number of elements, called
+         * once when the method is bound.
+         */
+        public synchronized void bindSubscriptionBuffer() {
+            if (this.parent == null || this.dropped != null) {
+                return;
+            }
+            Gauge.builder(SUBSCRIPTION_BUFFERED, this.buffered, AtomicInteger::get)
+                    .description("Elements of GraphFeign subscriptions waiting for their subscriber")
+                    .tags(this.tags)
+                    .register(this.parent.registry);
+            this.dropped = Counter.builder(SUBSCRIPTION_DROPPED)
+                    .description("Elements of GraphFeign subscriptions dropped for a subscriber falling behind")
+                    .tags(this.tags)
+                    .register(this.parent.registry);
+        }
+
+        public void recordBuffered(int delta) {
+            this.buffered.addAndGet(delta);
+        }
+
+        public void recordDropped() {
+            Counter counter = this.dropped;
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+
+        public int getBuffered() {
+            return this.buffered.get();
+        }
+
+        public <T> Mono<T> instrument(Mono<T> response) {
+            if (this.parent == null) {
+                return response;
+            }
+            return Mono.defer(() -> {
+                Invocation invocation = new Invocation();
+                return response
+                        .doOnNext(invocation::onNext)
+                        .doOnSuccess(value -> invocation.stop(null))
+                        .doOnError(invocation::stop)
+                        .doFinally(signal -> this.parent.active.decrementAndGet());
+            }).contextWrite(context -> context.put(MethodMetrics.class, this));
+        }
+
+        public <T> Flux<T> instrument(Flux<T> response) {
+            if (this.parent == null) {
+                return response;
+            }
+            return Flux.defer(() -> {
+                Invocation invocation = new Invocation();
+                return response
+                        .doOnNext(invocation::onNext)
+                        .doOnComplete(() -> invocation.stop(null))
+                        .doOnError(invocation::stop)
+                        .doFinally(signal -> this.parent.active.decrementAndGet());
+            }).contextWrite(context -> context.put(MethodMetrics.class, this));
+        }
+
+        private void recordErrors(List<ResponseError> responseErrors) {
+            for (ResponseError error : responseErrors) {
+                String path = error.getParsedPath().stream()
+                        .filter(segment -> !(segment instanceof Number))
+                        .map(String::valueOf)
+                        .collect(Collectors.joining("."));
+                this.errors.computeIfAbsent(path, key -> Counter.builder(ERRORS)
+                                .description("GraphQL errors returned to GraphFeign requests")
+                                .tags(this.tags)
+                                .tag("path", key.isEmpty() ? "none" : key)
+                                .register(this.parent.registry))
+                        .increment();
+            }
+        }
+
+        private static Outcome outcome(Throwable error) {
+            for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                if (cause instanceof FieldAccessException) {
+                    return Outcome.GRAPHQL_ERROR;
+                }
+                if (cause instanceof TimeoutException || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                    return Outcome.TIMEOUT;
+                }
+            }
+            return Outcome.TRANSPORT_ERROR;
+        }
+
+        private class Invocation {
+
+            private final Timer.Sample sample;
+            private boolean graphQlErrors;
+
+            Invocation() {
+                MethodMetrics.this.parent.active.incrementAndGet();
+                this.sample = Timer.start(MethodMetrics.this.parent.registry);
+            }
+
+            void onNext(Object value) {
+                if (value instanceof ClientGraphQlResponse response && !response.getErrors().isEmpty()) {
+                    this.graphQlErrors = true;
+                    recordErrors(response.getErrors());
+                }
+            }
+
+            void stop(Throwable error) {
+                Outcome outcome = this.graphQlErrors ? Outcome.GRAPHQL_ERROR : Outcome.SUCCESS;
+                if (error != null) {
+                    outcome = outcome(error);
+                    if (error instanceof FieldAccessException fieldAccessException) {
+                        recordErrors(fieldAccessException.getResponse().getErrors());
+                    }
+                }
+                long duration = this.sample.stop(MethodMetrics.this.timers.get(outcome));
+                MethodMetrics.this.parent.recordCall(MethodMetrics.this, outcome, duration);
+            }
+        }
+    }
+}
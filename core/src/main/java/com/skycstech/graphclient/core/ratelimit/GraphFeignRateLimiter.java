@@ -0,0 +1,322 @@
+package com.skycstech.graphclient.core.ratelimit;
+
+import com.skycstech.graphclient.core.exception.GraphFeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.GraphQlClientInterceptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side token bucket limiting the cost of the requests sent by a GraphFeign client.
+ * <p>Every HTTP request reserves its cost from the bucket and waits until the bucket can afford it, so requests
+ * are queued in the order they are sent rather than failed. A request that would wait longer than
+ * {@code maxWait} fails with a {@link GraphFeignException}. The cost of an operation is the
+ * {@code requestedQueryCost} last reported for its document, {@code defaultCost} until then. Requests answered
+ * without calling the server, from the normalized cache, cost nothing.
+ * <p>The bucket adapts to the signals of the server:
+ * <ul>
+ *     <li>the {@code cost} response extension, {@code actualQueryCost} replaces the reserved cost, and the
+ *     {@code maximumAvailable}, {@code currentlyAvailable} and {@code restoreRate} of its
+ *     {@code throttleStatus} replace the capacity, content and rate of the bucket</li>
+ *     <li>a {@code 429} response pauses the bucket for its {@code Retry-After}, and is sent again</li>
+ *     <li>a response with a {@code THROTTLED} error is sent again once the bucket can afford it</li>
+ * </ul>
+ * Until the server reports a restore rate, the rate is halved on every throttled response, and restored step by
+ * step on the successful ones. Throttled requests are sent again at most {@code maxRetries} times.
+ * <p>Meters, when there is a registry:
+ * <ul>
+ *     <li>{@value #WAIT}: time each request waited for its cost</li>
+ *     <li>{@value #THROTTLED}: throttled responses</li>
+ *     <li>{@value #AVAILABLE}: cost available in the bucket</li>
+ * </ul>
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphFeignRateLimiter.class);
+
+    public static final String WAIT = "graphfeign.client.ratelimit.wait";
+    public static final String THROTTLED = "graphfeign.client.ratelimit.throttled";
+    public static final String AVAILABLE = "graphfeign.client.ratelimit.available";
+
+    static final String THROTTLED_CODE = "THROTTLED";
+    static final int MAX_DOCUMENT_COSTS = 1024;
+
+    private final String clientName;
+    private final double configuredRate;
+    private final double defaultCost;
+    private final long maxWaitNanos;
+    private final int maxRetries;
+    private final Timer waitTimer;
+    private final Counter throttledCounter;
+    private final Map<String, Double> documentCosts = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private double capacity;
+    private double rate;
+    private double available;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = this.refilledAt;
+    private boolean serverRate;
+
+    public GraphFeignRateLimiter(String clientName, double rate, double capacity, double defaultCost,
+                                 Duration maxWait, int maxRetries, MeterRegistry meterRegistry) {
+        if (rate <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity of the rate limiter of GraphFeignClient [" + clientName + "] must be positive");
+        }
+        this.clientName = clientName;
+        this.configuredRate = rate;
+        this.rate = rate;
+        this.capacity = capacity;
+        this.available = capacity;
+        this.defaultCost = defaultCost;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxRetries = maxRetries;
+        if (meterRegistry != null) {
+            this.waitTimer = Timer.builder(WAIT)
+                    .description("Time GraphFeign requests waited for the rate limiter")
+                    .tag("client", clientName)
+                    .register(meterRegistry);
+            this.throttledCounter = Counter.builder(THROTTLED)
+                    .description("GraphFeign responses throttled by the server")
+                    .tag("client", clientName)
+                    .register(meterRegistry);
+            Gauge.builder(AVAILABLE, this, GraphFeignRateLimiter::getAvailable)
+                    .description("Cost available to GraphFeign requests")
+                    .tag("client", clientName)
+                    .register(meterRegistry);
+        } else {
+            this.waitTimer = null;
+            this.throttledCounter = null;
+        }
+    }
+
+    public synchronized double getAvailable() {
+        refill(System.nanoTime());
+        return this.available;
+    }
+
+    public synchronized double getRate() {
+        return this.rate;
+    }
+
+    /**
+     * Reserves the cost of the requests and delays them until it is available, sends throttled requests again.
+     * <p>Must be the first filter, so the requests sent again go through the other filters again.
+     */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            if (HttpMethod.OPTIONS.equals(request.method())) {
+                return next.exchange(request);
+            }
+            return Mono.deferContextual(context -> exchange(request, next, context.getOrDefault(Cost.class, null), 0));
+        };
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, Cost cost, int attempt) {
+        double amount = cost != null ? cost.estimate : this.defaultCost;
+        long waitNanos = reserve(amount);
+        if (waitNanos < 0) {
+            return Mono.error(new GraphFeignException("Rate limit of GraphFeignClient [" + this.clientName
+                    + "] exceeded, the request would wait more than " + Duration.ofNanos(this.maxWaitNanos)));
+        }
+        if (cost != null) {
+            cost.reserved = amount;
+        }
+        if (this.waitTimer != null) {
+            this.waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+        Mono<ClientResponse> response = next.exchange(request)
+                .flatMap(clientResponse -> {
+                    if (clientResponse.rawStatusCode() != HttpStatus.TOO_MANY_REQUESTS.value() || attempt >= this.maxRetries) {
+                        return Mono.just(clientResponse);
+                    }
+                    Duration retryAfter = retryAfter(clientResponse.headers().asHttpHeaders());
+                    throttled(retryAfter);
+                    log.debug("Request of GraphFeignClient [{}] throttled, retry after [{}] (attempt {})", this.clientName, retryAfter, attempt + 1);
+                    return clientResponse.releaseBody().then(Mono.defer(() -> exchange(request, next, cost, attempt + 1)));
+                });
+        if (waitNanos == 0) {
+            return response;
+        }
+        // Cancelled while waiting, the cost was not spent
+        return Mono.delay(Duration.ofNanos(waitNanos))
+                .doOnCancel(() -> refund(amount))
+                .then(response);
+    }
+
+    /**
+     * Estimates the cost of the requests from their document, and adapts the bucket to the cost extension of
+     * their responses. Responses with a {@code THROTTLED} error are sent again.
+     */
+    public GraphQlClientInterceptor interceptor() {
+        return new GraphQlClientInterceptor() {
+            @Override
+            public Mono<ClientGraphQlResponse> intercept(ClientGraphQlRequest request, Chain chain) {
+                return execute(request, chain, 0);
+            }
+        };
+    }
+
+    private Mono<ClientGraphQlResponse> execute(ClientGraphQlRequest request, GraphQlClientInterceptor.Chain chain, int attempt) {
+        Cost cost = new Cost(this.documentCosts.getOrDefault(request.getDocument(), this.defaultCost));
+        return chain.next(request)
+                .flatMap(response -> {
+                    boolean throttled = isThrottled(response);
+                    update(request.getDocument(), cost, response.getExtensions(), throttled);
+                    if (!throttled || attempt >= this.maxRetries) {
+                        return Mono.just(response);
+                    }
+                    throttled(null);
+                    log.debug("Operation [{}] of GraphFeignClient [{}] throttled (attempt {})", request.getOperationName(), this.clientName, attempt + 1);
+                    return execute(request, chain, attempt + 1);
+                })
+                .contextWrite(context -> context.put(Cost.class, cost));
+    }
+
+    private static boolean isThrottled(ClientGraphQlResponse response) {
+        for (ResponseError error : response.getErrors()) {
+            if (THROTTLED_CODE.equals(error.getExtensions().get("code"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void update(String document, Cost cost, Map<?, ?> extensions, boolean throttled) {
+        if (!(extensions.get("cost") instanceof Map<?, ?> costExtension)) {
+            if (!throttled && cost.reserved > 0) {
+                recovered();
+            }
+            return;
+        }
+        if (costExtension.get("requestedQueryCost") instanceof Number requested) {
+            if (this.documentCosts.size() >= MAX_DOCUMENT_COSTS) {
+                this.documentCosts.clear();
+            }
+            this.documentCosts.put(document, requested.doubleValue());
+        }
+        synchronized (this) {
+            refill(System.nanoTime());
+            if (cost.reserved > 0 && costExtension.get("actualQueryCost") instanceof Number actual) {
+                this.available = Math.min(this.capacity, this.available + cost.reserved - actual.doubleValue());
+            }
+            if (costExtension.get("throttleStatus") instanceof Map<?, ?> status) {
+                if (status.get("maximumAvailable") instanceof Number maximum && maximum.doubleValue() > 0) {
+                    this.capacity = maximum.doubleValue();
+                }
+                if (status.get("restoreRate") instanceof Number restoreRate && restoreRate.doubleValue() > 0) {
+                    this.rate = restoreRate.doubleValue();
+                    this.serverRate = true;
+                }
+                // Our own view also accounts for the requests in flight, the server's may not yet
+                if (status.get("currentlyAvailable") instanceof Number currentlyAvailable) {
+                    this.available = Math.min(this.available, currentlyAvailable.doubleValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Time to wait for the given cost, or -1 if it is more than the maximum wait, in which case nothing is reserved.
+     */
+    synchronized long reserve(double cost) {
+        long now = System.nanoTime();
+        refill(now);
+        double deficit = Math.min(cost, this.capacity) - this.available;
+        long waitNanos = Math.max(this.pausedUntil - now, deficit > 0 ? (long) (deficit / this.rate * 1e9) : 0);
+        if (waitNanos > this.maxWaitNanos) {
+            return -1;
+        }
+        this.available -= cost;
+        return waitNanos;
+    }
+
+    private synchronized void refund(double cost) {
+        refill(System.nanoTime());
+        this.available = Math.min(this.capacity, this.available + cost);
+    }
+
+    private synchronized void throttled(Duration retryAfter) {
+        if (this.throttledCounter != null) {
+            this.throttledCounter.increment();
+        }
+        long now = System.nanoTime();
+        refill(now);
+        // The server has nothing left for us, whatever we thought
+        this.available = Math.min(this.available, 0);
+        if (retryAfter != null) {
+            this.pausedUntil = Math.max(this.pausedUntil, now + retryAfter.toNanos());
+        }
+        if (!this.serverRate) {
+            this.rate = Math.max(this.rate / 2, this.configuredRate / 64);
+        }
+    }
+
+    private synchronized void recovered() {
+        if (!this.serverRate && this.rate < this.configuredRate) {
+            this.rate = Math.min(this.configuredRate, this.rate + this.configuredRate / 20);
+        }
+    }
+
+    private void refill(long now) {
+        this.available = Math.min(this.capacity, this.available + (now - this.refilledAt) / 1e9 * this.rate);
+        this.refilledAt = now;
+    }
+
+    /**
+     * The {@code Retry-After} header, in seconds or as an HTTP date, null if absent or invalid.
+     */
+    static Duration retryAfter(HttpHeaders headers) {
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(Long.parseLong(retryAfter.trim()), 0));
+        } catch (NumberFormatException e) {
+            try {
+                Duration delay = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Cost of a request, carried in the subscriber context from the interceptor to the filter.
+     */
+    static class Cost {
+
+        private final double estimate;
+        private volatile double reserved;
+
+        Cost(double estimate) {
+            this.estimate = estimate;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.skycstech.graphclient.core.support;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single daemon thread behind a bounded queue, for work that must not slow down requests, such as writing
+ * log entries or captured exchanges. Tasks are dropped, and counted, when the queue is full.
+ *
+ * @author Akash Patel
+ */
+public class BackgroundWriter {
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+
+    public BackgroundWriter(String threadName, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> this.dropped.incrementAndGet());
+    }
+
+    /**
+     * Runs the task on the background thread, or drops it if the queue is full.
+     */
+    public void execute(Runnable task) {
+        this.executor.execute(task);
+    }
+
+    /**
+     * Whether no task is waiting, for the running task to flush what it wrote.
+     */
+    public boolean isIdle() {
+        return this.executor.getQueue().isEmpty();
+    }
+
+    /**
+     * Number of tasks dropped because the queue was full.
+     */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+}
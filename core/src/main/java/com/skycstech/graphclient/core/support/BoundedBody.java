@@ -0,0 +1,61 @@
+package com.skycstech.graphclient.core.support;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Copy of the first bytes of a body as it streams through, up to a maximum size, along with the size of the
+ * whole body. The buffers passing through are left untouched.
+ *
+ * @author Akash Patel
+ */
+public class BoundedBody {
+
+    private final int maxSize;
+    private final ByteArrayOutputStream bytes;
+    private long size;
+
+    public BoundedBody(int maxSize) {
+        this.maxSize = maxSize;
+        this.bytes = new ByteArrayOutputStream(Math.min(maxSize, 1024));
+    }
+
+    public synchronized void append(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        int remaining = this.maxSize - this.bytes.size();
+        if (remaining > 0) {
+            // asByteBuffer shares the content but not the read position of the buffer
+            ByteBuffer view = buffer.asByteBuffer();
+            byte[] copy = new byte[Math.min(remaining, readable)];
+            view.get(copy);
+            this.bytes.write(copy, 0, copy.length);
+        }
+        this.size += readable;
+    }
+
+    /**
+     * Size of the whole body.
+     */
+    public synchronized long size() {
+        return this.size;
+    }
+
+    /**
+     * The body, {@code null} if it was larger than the maximum size.
+     */
+    public synchronized byte[] content() {
+        return this.size <= this.maxSize ? this.bytes.toByteArray() : null;
+    }
+
+    /**
+     * The body as text, truncated to the maximum size.
+     */
+    @Override
+    public synchronized String toString() {
+        String body = this.bytes.toString(StandardCharsets.UTF_8);
+        return this.size > this.bytes.size() ? body + "... [truncated, " + this.size + " bytes]" : body;
+    }
+}
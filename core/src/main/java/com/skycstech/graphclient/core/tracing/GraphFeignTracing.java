@@ -0,0 +1,230 @@
+package com.skycstech.graphclient.core.tracing;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.propagation.Propagator;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.GraphQlClientInterceptor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps every call of a GraphFeign client in a client span of the application's Spring Cloud Sleuth {@link Tracer}.
+ * <p>The span is a child of the span current when the method is invoked, and is carried in the Reactor context
+ * rather than in thread locals, so it is the same whether the result is blocked on, or a {@code Mono} or
+ * {@code Flux} subscribed later on another thread. It is tagged with:
+ * <ul>
+ *     <li>{@value #CLIENT}, {@value #METHOD} and {@value #OPERATION_NAME}</li>
+ *     <li>{@value #DOCUMENT_HASH}: SHA-256 of the document sent</li>
+ *     <li>{@value #ERRORS}: number of GraphQL errors received</li>
+ * </ul>
+ * <p>The trace context is propagated in the headers of HTTP requests. WebSocket requests share the connection
+ * of the client, so it is not propagated to the server for them.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignTracing {
+
+    public static final String CLIENT = "graphql.client";
+    public static final String METHOD = "graphql.method";
+    public static final String OPERATION_NAME = "graphql.operation.name";
+    public static final String DOCUMENT_HASH = "graphql.document.hash";
+    public static final String ERRORS = "graphql.errors";
+
+    private static final boolean SLEUTH_PRESENT = ClassUtils.isPresent("org.springframework.cloud.sleuth.Tracer",
+            GraphFeignTracing.class.getClassLoader());
+
+    private static final GraphFeignTracing DISABLED = new GraphFeignTracing(null, null, null);
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final String clientName;
+
+    private GraphFeignTracing(Tracer tracer, Propagator propagator, String clientName) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.clientName = clientName;
+    }
+
+    public static GraphFeignTracing disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Tracing of the given client with the {@link Tracer} and {@link Propagator} of the given bean factory,
+     * disabled if Spring Cloud Sleuth is not available.
+     */
+    public static GraphFeignTracing of(BeanFactory beanFactory, String clientName) {
+        if (!SLEUTH_PRESENT) {
+            return DISABLED;
+        }
+        Tracer tracer = beanFactory.getBeanProvider(Tracer.class).getIfAvailable();
+        if (tracer == null) {
+            return DISABLED;
+        }
+        return new GraphFeignTracing(tracer, beanFactory.getBeanProvider(Propagator.class).getIfAvailable(), clientName);
+    }
+
+    public boolean isEnabled() {
+        return this.tracer != null;
+    }
+
+    public MethodTracing forMethod(String methodKey, String methodName, String operationName) {
+        if (this.tracer == null) {
+            return MethodTracing.NONE;
+        }
+        return new MethodTracing(this, methodKey, StringUtils.hasText(operationName) ? operationName : methodName, operationName);
+    }
+
+    /**
+     * Propagates the context of the span of the call in the request headers.
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            Invocation invocation = context.getOrDefault(Invocation.class, null);
+            if (invocation == null || this.propagator == null) {
+                return next.exchange(request);
+            }
+            ClientRequest.Builder traced = ClientRequest.from(request);
+            this.propagator.inject(invocation.span.context(), traced, (builder, key, value) -> builder.header(key, value));
+            return next.exchange(traced.build());
+        });
+    }
+
+    /**
+     * Tags the span of the call with the hash of the document and the number of errors received.
+     */
+    public GraphQlClientInterceptor interceptor() {
+        return new GraphQlClientInterceptor() {
+            @Override
+            public Mono<ClientGraphQlResponse> intercept(ClientGraphQlRequest request, Chain chain) {
+                return Mono.deferContextual(context -> {
+                    Invocation invocation = context.getOrDefault(Invocation.class, null);
+                    if (invocation == null) {
+                        return chain.next(request);
+                    }
+                    invocation.span.tag(DOCUMENT_HASH, hash(request.getDocument()));
+                    return chain.next(request).doOnNext(invocation::onResponse);
+                });
+            }
+
+            @Override
+            public Flux<ClientGraphQlResponse> interceptSubscription(ClientGraphQlRequest request, SubscriptionChain chain) {
+                return Flux.deferContextual(context -> {
+                    Invocation invocation = context.getOrDefault(Invocation.class, null);
+                    if (invocation == null) {
+                        return chain.next(request);
+                    }
+                    invocation.span.tag(DOCUMENT_HASH, hash(request.getDocument()));
+                    return chain.next(request).doOnNext(invocation::onResponse);
+                });
+            }
+        };
+    }
+
+    private static String hash(String document) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class MethodTracing {
+
+        static final MethodTracing NONE = new MethodTracing(null, null, null, null);
+
+        private final GraphFeignTracing parent;
+        private final String methodKey;
+        private final String spanName;
+        private final String operationName;
+
+        private MethodTracing(GraphFeignTracing parent, String methodKey, String spanName, String operationName) {
+            this.parent = parent;
+            this.methodKey = methodKey;
+            this.spanName = spanName;
+            this.operationName = operationName;
+        }
+
+        /**
+         * Must be called on the thread invoking the method, the span current there becomes the parent.
+         */
+        public <T> Mono<T> instrument(Mono<T> response) {
+            if (this.parent == null) {
+                return response;
+            }
+            Span parentSpan = this.parent.tracer.currentSpan();
+            return Mono.defer(() -> {
+                Invocation invocation = start(parentSpan);
+                return response
+                        .doOnError(invocation.span::error)
+                        .doFinally(signal -> invocation.end())
+                        .contextWrite(context -> context.put(Invocation.class, invocation));
+            });
+        }
+
+        /**
+         * Must be called on the thread invoking the method, the span current there becomes the parent.
+         */
+        public <T> Flux<T> instrument(Flux<T> response) {
+            if (this.parent == null) {
+                return response;
+            }
+            Span parentSpan = this.parent.tracer.currentSpan();
+            return Flux.defer(() -> {
+                Invocation invocation = start(parentSpan);
+                return response
+                        .doOnError(invocation.span::error)
+                        .doFinally(signal -> invocation.end())
+                        .contextWrite(context -> context.put(Invocation.class, invocation));
+            });
+        }
+
+        private Invocation start(Span parentSpan) {
+            Span.Builder builder = this.parent.tracer.spanBuilder()
+                    .kind(Span.Kind.CLIENT)
+                    .name(this.spanName)
+                    .remoteServiceName(this.parent.clientName)
+                    .tag(CLIENT, this.parent.clientName)
+                    .tag(METHOD, this.methodKey);
+            if (StringUtils.hasText(this.operationName)) {
+                builder.tag(OPERATION_NAME, this.operationName);
+            }
+            if (parentSpan != null) {
+                builder.setParent(parentSpan.context());
+            }
+            return new Invocation(builder.start());
+        }
+    }
+
+    private static class Invocation {
+
+        private final Span span;
+        private final AtomicInteger errors = new AtomicInteger();
+
+        Invocation(Span span) {
+            this.span = span;
+        }
+
+        void onResponse(ClientGraphQlResponse response) {
+            this.errors.addAndGet(response.getErrors().size());
+        }
+
+        void end() {
+            this.span.tag(ERRORS, String.valueOf(this.errors.get()));
+            this.span.end();
+        }
+    }
+}
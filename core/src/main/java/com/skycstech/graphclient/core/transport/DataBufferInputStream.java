@@ -0,0 +1,138 @@
+package com.skycstech.graphclient.core.transport;
+
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Blocking {@link InputStream} over a stream of buffers, reading each buffer in place and releasing it once read.
+ * <p>At most {@value #PREFETCH} buffers are received ahead of the reader.
+ *
+ * @author Akash Patel
+ */
+final class DataBufferInputStream extends InputStream {
+
+    static final int PREFETCH = 4;
+
+    private static final Object COMPLETE = new Object();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final BaseSubscriber<DataBuffer> subscriber;
+    private volatile boolean closed;
+
+    // Only used by the reader
+    private DataBuffer current;
+    private boolean done;
+
+    DataBufferInputStream(Flux<DataBuffer> buffers) {
+        this.subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                subscription.request(PREFETCH);
+            }
+
+            @Override
+            protected void hookOnNext(DataBuffer buffer) {
+                queue.add(buffer);
+                if (closed) {
+                    discard();
+                }
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                queue.add(new Failure(throwable));
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                queue.add(COMPLETE);
+            }
+        };
+        buffers.subscribe(this.subscriber);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        while (this.current == null || this.current.readableByteCount() == 0) {
+            if (this.current != null) {
+                DataBufferUtils.release(this.current);
+                this.current = null;
+                this.subscriber.request(1);
+            }
+            if (this.done) {
+                return -1;
+            }
+            Object next;
+            try {
+                next = this.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the response");
+            }
+            if (next == COMPLETE) {
+                this.done = true;
+                return -1;
+            }
+            if (next instanceof Failure failure) {
+                this.done = true;
+                throw new IOException(failure.error().getMessage(), failure.error());
+            }
+            this.current = (DataBuffer) next;
+        }
+        int count = Math.min(length, this.current.readableByteCount());
+        this.current.read(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return this.current != null ? this.current.readableByteCount() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.subscriber.dispose();
+        if (this.current != null) {
+            DataBufferUtils.release(this.current);
+            this.current = null;
+        }
+        discard();
+    }
+
+    private void discard() {
+        Object next;
+        while ((next = this.queue.poll()) != null) {
+            if (next instanceof DataBuffer buffer) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    private record Failure(Throwable error) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.skycstech.graphclient.core.transport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.exception.GraphFeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.client.GraphQlTransport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP transport sending queries as GET requests, so they can be cached by HTTP caches and CDNs, and revalidating
+ * the responses it already holds.
+ * <p>The query, operation name, variables and extensions are sent as URL parameters. With {@code persistedQuery},
+ * only the SHA-256 hash of the query is sent, as an automatic persisted query, and the query is sent along with
+ * its hash when the server answers {@code PersistedQueryNotFound}.
+ * <p>The {@code ETag} of the successful responses is kept, with their decoded response, in a
+ * {@link GraphFeignETagCache}, and sent as {@code If-None-Match} by the next identical request. A
+ * {@code 304 Not Modified} is answered with the response held, without transferring nor decoding the body again.
+ * <p>Mutations must not be sent through this transport, and subscriptions are not supported.
+ *
+ * @author Akash Patel
+ */
+public class GetHttpGraphQlTransport implements GraphQlTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(GetHttpGraphQlTransport.class);
+
+    static final String PERSISTED_QUERY_NOT_FOUND = "PersistedQueryNotFound";
+    static final String PERSISTED_QUERY_NOT_FOUND_CODE = "PERSISTED_QUERY_NOT_FOUND";
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final HttpHeaders headers;
+    private final ObjectMapper objectMapper;
+    private final GraphFeignETagCache etags;
+    private final String scope;
+    private final boolean persistedQuery;
+
+    /**
+     * @param scope distinguishes the requests of the clients sharing the cache, such as the tenants of a client
+     */
+    public GetHttpGraphQlTransport(WebClient webClient, HttpHeaders headers, ObjectMapper objectMapper,
+                                   GraphFeignETagCache etags, String scope, boolean persistedQuery) {
+        this.webClient = webClient;
+        this.headers = headers;
+        this.objectMapper = objectMapper;
+        this.etags = etags;
+        this.scope = scope;
+        this.persistedQuery = persistedQuery;
+    }
+
+    @Override
+    public Mono<GraphQlResponse> execute(GraphQlRequest request) {
+        return Mono.defer(() -> {
+            // The same key whether the query is sent along with its hash or not
+            String key = this.scope + " " + parameters(request, !this.persistedQuery);
+            if (!this.persistedQuery) {
+                return get(request, key, true);
+            }
+            return get(request, key, false).flatMap(response -> {
+                if (!isPersistedQueryNotFound(response)) {
+                    return Mono.just(response);
+                }
+                log.debug("Persisted query of operation [{}] not found, sending the query", request.getOperationName());
+                return get(request, key, true);
+            });
+        });
+    }
+
+    @Override
+    public Flux<GraphQlResponse> executeSubscription(GraphQlRequest request) {
+        return Flux.error(new GraphFeignException("Subscriptions cannot be sent as GET requests"));
+    }
+
+    private Mono<GraphQlResponse> get(GraphQlRequest request, String key, boolean withQuery) {
+        Map<String, String> parameters = parameters(request, withQuery);
+        GraphFeignETagCache.Entry cached = this.etags.get(key);
+        return this.webClient.get()
+                .uri(uriBuilder -> {
+                    // Expanded as URI variables so the JSON values are fully encoded
+                    parameters.keySet().forEach(name -> uriBuilder.queryParam(name, "{" + name + "}"));
+                    return uriBuilder.build(parameters);
+                })
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(httpHeaders -> {
+                    httpHeaders.addAll(this.headers);
+                    if (cached != null) {
+                        httpHeaders.setIfNoneMatch(cached.etag());
+                    }
+                })
+                .exchangeToMono(response -> read(response, request, key, cached));
+    }
+
+    private Mono<GraphQlResponse> read(ClientResponse response, GraphQlRequest request, String key, GraphFeignETagCache.Entry cached) {
+        if (response.rawStatusCode() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            log.debug("Response of operation [{}] not modified, reusing the response held", request.getOperationName());
+            return response.releaseBody().thenReturn(cached.response());
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createException().flatMap(Mono::error);
+        }
+        String etag = response.headers().asHttpHeaders().getETag();
+        return response.bodyToMono(MAP_TYPE).map(body -> {
+            GraphQlResponse graphQlResponse = GraphQlTransport.createResponse(body);
+            if (etag != null && graphQlResponse.isValid() && graphQlResponse.getErrors().isEmpty()) {
+                this.etags.put(key, new GraphFeignETagCache.Entry(etag, graphQlResponse));
+            } else if (cached != null) {
+                this.etags.remove(key);
+            }
+            return graphQlResponse;
+        });
+    }
+
+    private Map<String, String> parameters(GraphQlRequest request, boolean withQuery) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (withQuery) {
+            parameters.put("query", request.getDocument());
+        }
+        if (StringUtils.hasText(request.getOperationName())) {
+            parameters.put("operationName", request.getOperationName());
+        }
+        if (!request.getVariables().isEmpty()) {
+            parameters.put("variables", toJson(request.getVariables()));
+        }
+        Map<String, Object> extensions = new LinkedHashMap<>(request.getExtensions());
+        if (this.persistedQuery) {
+            extensions.put("persistedQuery", Map.of("version", 1, "sha256Hash", sha256(request.getDocument())));
+        }
+        if (!extensions.isEmpty()) {
+            parameters.put("extensions", toJson(extensions));
+        }
+        return parameters;
+    }
+
+    private String toJson(Map<String, Object> value) {
+        try {
+            return this.objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new GraphFeignException("Unable to encode GET request parameter", e);
+        }
+    }
+
+    private static boolean isPersistedQueryNotFound(GraphQlResponse response) {
+        for (ResponseError error : response.getErrors()) {
+            if (PERSISTED_QUERY_NOT_FOUND.equals(error.getMessage())
+                    || PERSISTED_QUERY_NOT_FOUND_CODE.equals(error.getExtensions().get("code"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String sha256(String document) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.skycstech.graphclient.core.transport;
+
+import org.springframework.graphql.GraphQlResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the {@code ETag} of the responses to GET requests, keyed by request, with the decoded response
+ * they validate.
+ * <p>Beyond {@code maxEntries}, the least recently used requests are evicted.
+ *
+ * @author Akash Patel
+ */
+public class GraphFeignETagCache {
+
+    private final Map<String, Entry> entries;
+
+    public GraphFeignETagCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized Entry get(String key) {
+        return this.entries.get(key);
+    }
+
+    synchronized void put(String key, Entry entry) {
+        this.entries.put(key, entry);
+    }
+
+    synchronized void remove(String key) {
+        this.entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    record Entry(String etag, GraphQlResponse response) {
+    }
+}
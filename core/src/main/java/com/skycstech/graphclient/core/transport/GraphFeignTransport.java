@@ -0,0 +1,34 @@
+package com.skycstech.graphclient.core.transport;
+
+/**
+ * Transport used by a GraphFeign client to reach the GraphQL server.
+ *
+ * @author Akash Patel
+ */
+public enum GraphFeignTransport {
+
+    /**
+     * Queries, mutations and subscriptions are all sent over HTTP.
+     */
+    HTTP,
+
+    /**
+     * Queries and mutations are sent over HTTP, subscriptions share a single
+     * WebSocket connection (graphql-transport-ws).
+     */
+    WEBSOCKET_SUBSCRIPTIONS,
+
+    /**
+     * Queries, mutations and subscriptions are all multiplexed over a single
+     * WebSocket connection (graphql-transport-ws).
+     */
+    WEBSOCKET;
+
+    public boolean useWebSocket(boolean isSubscription) {
+        return this == WEBSOCKET || (this == WEBSOCKET_SUBSCRIPTIONS && isSubscription);
+    }
+
+    public boolean requiresWebSocket() {
+        return this != HTTP;
+    }
+}
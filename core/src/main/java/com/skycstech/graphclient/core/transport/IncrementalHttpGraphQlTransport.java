@@ -0,0 +1,114 @@
+package com.skycstech.graphclient.core.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.exception.GraphFeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.client.GraphQlTransport;
+import org.springframework.graphql.client.GraphQlTransportException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.web.reactive.function.BodyExtractor;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * HTTP transport that requests incremental delivery ({@code @defer} / {@code @stream}) and consumes
+ * the {@code multipart/mixed} response as it arrives.
+ * <p>{@link #executeSubscription(GraphQlRequest)} emits the merged result after every payload, while
+ * {@link #execute(GraphQlRequest)} only emits the final, fully merged result.
+ * A server that does not support incremental delivery answers with plain JSON, which is emitted once.
+ *
+ * @author Akash Patel
+ */
+public class IncrementalHttpGraphQlTransport implements GraphQlTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalHttpGraphQlTransport.class);
+
+    private static final MediaType MULTIPART_MIXED_DEFER =
+            new MediaType("multipart", "mixed", Map.of("deferSpec", "20220824"));
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final HttpHeaders headers;
+    private final ObjectMapper objectMapper;
+    private final BodyExtractor<Flux<Part>, ReactiveHttpInputMessage> partExtractor;
+
+    public IncrementalHttpGraphQlTransport(WebClient webClient, HttpHeaders headers, ObjectMapper objectMapper) {
+        this.webClient = webClient;
+        this.headers = headers;
+        this.objectMapper = objectMapper;
+
+        DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+        // Emit parts as they are received instead of waiting for the whole multipart body
+        partReader.setStreaming(true);
+        this.partExtractor = (inputMessage, context) ->
+                partReader.read(ResolvableType.forClass(Part.class), inputMessage, Collections.emptyMap());
+    }
+
+    @Override
+    public Mono<GraphQlResponse> execute(GraphQlRequest request) {
+        return executeSubscription(request)
+                .switchIfEmpty(Flux.error(() -> new GraphQlTransportException("Response without any payload", null, request)))
+                .last();
+    }
+
+    @Override
+    public Flux<GraphQlResponse> executeSubscription(GraphQlRequest request) {
+        return Flux.defer(() -> {
+            IncrementalResult result = new IncrementalResult();
+            return this.webClient.post()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MULTIPART_MIXED_DEFER, MediaType.APPLICATION_JSON)
+                    .headers(httpHeaders -> httpHeaders.addAll(this.headers))
+                    .bodyValue(request.toMap())
+                    .exchangeToFlux(this::readPayloads)
+                    .filter(result::merge)
+                    .map(payload -> GraphQlTransport.createResponse(result.snapshot()));
+        });
+    }
+
+    private Flux<Map<String, Object>> readPayloads(ClientResponse response) {
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createException().flatMapMany(Flux::error);
+        }
+
+        MediaType contentType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+        if (MediaType.MULTIPART_MIXED.isCompatibleWith(contentType)) {
+            log.debug("Reading incremental multipart response: [{}]", contentType);
+            // Streaming parts must be consumed in order
+            return response.body(this.partExtractor)
+                    .concatMap(part -> DataBufferUtils.join(part.content()).map(this::decode));
+        }
+        return response.bodyToMono(MAP_TYPE).flux();
+    }
+
+    private Map<String, Object> decode(DataBuffer dataBuffer) {
+        try {
+            return this.objectMapper.readValue(dataBuffer.asInputStream(), this.objectMapper.getTypeFactory()
+                    .constructMapType(Map.class, String.class, Object.class));
+        } catch (IOException e) {
+            throw new GraphFeignException("Unable to decode incremental payload", e);
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+package com.skycstech.graphclient.core.transport;
+
+import java.util.*;
+
+/**
+ * Accumulates the payloads of an incremental ({@code @defer} / {@code @stream}) response.
+ * <p>Understands both the current format, where patches are listed under {@code incremental},
+ * and the earlier format, where every subsequent payload is a single patch with a {@code path}.
+ * Not thread-safe, payloads of one response are merged sequentially.
+ * <p>Emitted results are not copied: the maps and lists along the path of a patch are copied before it is applied,
+ * the rest is shared with the results emitted before. Streamed items are appended to a list sharing its elements
+ * with the lists emitted before, so a payload costs the size of its patch, not the size of the result.
+ *
+ * @author Akash Patel
+ */
+class IncrementalResult {
+
+    private Map<String, Object> data;
+    private AppendList errors = AppendList.EMPTY;
+    private final Map<String, Object> extensions = new LinkedHashMap<>();
+    // Maps and lists copied since the last snapshot, the others may be held by emitted results
+    private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Merge the given payload.
+     *
+     * @return whether the payload contributed data or errors
+     */
+    @SuppressWarnings("unchecked")
+    boolean merge(Map<String, Object> payload) {
+        boolean changed = mergeErrorsAndExtensions(payload);
+
+        if (payload.get("incremental") instanceof List<?> incremental) {
+            for (Object patch : incremental) {
+                if (patch instanceof Map<?, ?> patchMap) {
+                    changed |= mergeErrorsAndExtensions((Map<String, Object>) patchMap);
+                    changed |= applyPatch((Map<String, Object>) patchMap);
+                }
+            }
+        } else if (payload.containsKey("path")) {
+            changed |= applyPatch(payload);
+        } else if (payload.get("data") instanceof Map<?, ?> initialData) {
+            this.data = (Map<String, Object>) initialData;
+            changed = true;
+        } else if (payload.containsKey("data") && this.data == null) {
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * The current result in the standard response format. Later payloads do not affect it, as they copy what they
+     * change. It shares its unchanged parts with the next results and must not be modified.
+     */
+    Map<String, Object> snapshot() {
+        this.owned.clear();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("data", this.data);
+        if (!this.errors.isEmpty()) {
+            response.put("errors", this.errors);
+        }
+        if (!this.extensions.isEmpty()) {
+            response.put("extensions", new LinkedHashMap<>(this.extensions));
+        }
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean mergeErrorsAndExtensions(Map<String, Object> payload) {
+        boolean changed = false;
+        if (payload.get("errors") instanceof List<?> payloadErrors && !payloadErrors.isEmpty()) {
+            this.errors = this.errors.append(payloadErrors);
+            changed = true;
+        }
+        if (payload.get("extensions") instanceof Map<?, ?> payloadExtensions) {
+            this.extensions.putAll((Map<String, Object>) payloadExtensions);
+        }
+        return changed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean applyPatch(Map<String, Object> patch) {
+        if (!(patch.get("path") instanceof List<?> path) || this.data == null) {
+            return false;
+        }
+
+        if (patch.get("items") instanceof List<?> items) {
+            // @stream: path points to the index of the first item within the parent list
+            if (path.isEmpty() || !(path.get(path.size() - 1) instanceof Number index)) {
+                return false;
+            }
+            List<?> parentPath = path.subList(0, path.size() - 1);
+            if (!(navigate(parentPath) instanceof List<?> parent)) {
+                return false;
+            }
+            int position = index.intValue();
+            List<?> updated;
+            if (position >= parent.size()) {
+                updated = AppendList.of(parent).append(items);
+            } else {
+                // Items sent again replace the ones held
+                List<Object> target = new ArrayList<>(parent);
+                for (Object item : items) {
+                    if (position < target.size()) {
+                        target.set(position, item);
+                    } else {
+                        target.add(item);
+                    }
+                    position++;
+                }
+                updated = target;
+            }
+            return set(parentPath, updated);
+        }
+
+        if (patch.get("data") instanceof Map<?, ?> patchData) {
+            // @defer: path points to the object the deferred fragment belongs to
+            if (writable(path) instanceof Map<?, ?> target) {
+                deepMerge((Map<String, Object>) target, (Map<String, Object>) patchData);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object navigate(List<?> path) {
+        Object current = this.data;
+        for (Object segment : path) {
+            if (current instanceof Map<?, ?> map && segment instanceof String key) {
+                current = map.get(key);
+            } else if (current instanceof List<?> list && segment instanceof Number index
+                    && index.intValue() < list.size()) {
+                current = list.get(index.intValue());
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The map or list at the given path, and every map and list on the way to it, copied unless copied since the
+     * last snapshot, {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    private Object writable(List<?> path) {
+        this.data = (Map<String, Object>) writableContainer(this.data);
+        Object current = this.data;
+        for (Object segment : path) {
+            Object child;
+            if (current instanceof Map<?, ?> map && segment instanceof String key) {
+                child = writableContainer(map.get(key));
+                if (child != null) {
+                    ((Map<String, Object>) map).put(key, child);
+                }
+            } else if (current instanceof List<?> list && segment instanceof Number index
+                    && index.intValue() < list.size()) {
+                child = writableContainer(list.get(index.intValue()));
+                if (child != null) {
+                    ((List<Object>) list).set(index.intValue(), child);
+                }
+            } else {
+                return null;
+            }
+            if (child == null) {
+                return null;
+            }
+            current = child;
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the value at the given path, which must not be empty.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean set(List<?> path, Object value) {
+        Object container = writable(path.subList(0, path.size() - 1));
+        Object segment = path.get(path.size() - 1);
+        if (container instanceof Map<?, ?> map && segment instanceof String key) {
+            ((Map<String, Object>) map).put(key, value);
+            return true;
+        } else if (container instanceof List<?> list && segment instanceof Number index
+                && index.intValue() < list.size()) {
+            ((List<Object>) list).set(index.intValue(), value);
+            return true;
+        }
+        return false;
+    }
+
+    private Object writableContainer(Object value) {
+        if (value == null || this.owned.contains(value)) {
+            return value;
+        }
+        Object copy;
+        if (value instanceof Map<?, ?> map) {
+            copy = new LinkedHashMap<>(map);
+        } else if (value instanceof List<?> list) {
+            copy = new ArrayList<>(list);
+        } else {
+            return null;
+        }
+        this.owned.add(copy);
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deepMerge(Map<String, Object> target, Map<String, Object> source) {
+        source.forEach((key, value) -> {
+            if (target.get(key) instanceof Map<?, ?> existing && value instanceof Map<?, ?> incoming) {
+                Map<String, Object> writableExisting = (Map<String, Object>) writableContainer(existing);
+                target.put(key, writableExisting);
+                deepMerge(writableExisting, (Map<String, Object>) incoming);
+            } else {
+                target.put(key, value);
+            }
+        });
+    }
+
+    /**
+     * Unmodifiable list sharing its elements with the list it was appended to. Each list only sees the elements up
+     * to its own size, and the elements past the size of the longest list are free, so appending to the longest
+     * list writes in place. Appending to any other list copies its elements first.
+     */
+    static final class AppendList extends AbstractList<Object> implements RandomAccess {
+
+        static final AppendList EMPTY = new AppendList(new Object[0], 0, new int[]{0});
+
+        private final Object[] elements;
+        private final int size;
+        // Number of elements used by the longest list sharing the array
+        private final int[] used;
+
+        private AppendList(Object[] elements, int size, int[] used) {
+            this.elements = elements;
+            this.size = size;
+            this.used = used;
+        }
+
+        static AppendList of(List<?> list) {
+            if (list instanceof AppendList appendList) {
+                return appendList;
+            }
+            Object[] elements = list.toArray();
+            return new AppendList(elements, elements.length, new int[]{elements.length});
+        }
+
+        AppendList append(List<?> items) {
+            if (items.isEmpty()) {
+                return this;
+            }
+            int newSize = this.size + items.size();
+            Object[] target = this.elements;
+            int[] targetUsed = this.used;
+            if (this.size != this.used[0] || newSize > this.elements.length) {
+                target = new Object[Math.max(newSize, this.size + (this.size >> 1) + 8)];
+                System.arraycopy(this.elements, 0, target, 0, this.size);
+                targetUsed = new int[1];
+            }
+            int position = this.size;
+            for (Object item : items) {
+                target[position++] = item;
+            }
+            targetUsed[0] = newSize;
+            return new AppendList(target, newSize, targetUsed);
+        }
+
+        @Override
+        public Object get(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.elements[index];
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.skycstech.graphclient.core.transport;
+
+import com.skycstech.graphclient.core.exception.GraphFeignException;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.client.GraphQlTransport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * HTTP transport sending the request as a JSON {@code POST} and reading a single JSON response, as the
+ * {@code HttpGraphQlClient} does, for the clients that decorate their transport.
+ * <p>Subscriptions are not supported.
+ *
+ * @author Akash Patel
+ */
+public class JsonHttpGraphQlTransport implements GraphQlTransport {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final HttpHeaders headers;
+
+    public JsonHttpGraphQlTransport(WebClient webClient, HttpHeaders headers) {
+        this.webClient = webClient;
+        this.headers = headers;
+    }
+
+    @Override
+    public Mono<GraphQlResponse> execute(GraphQlRequest request) {
+        return this.webClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(httpHeaders -> httpHeaders.addAll(this.headers))
+                .bodyValue(request.toMap())
+                .retrieve()
+                .bodyToMono(MAP_TYPE)
+                .map(GraphQlTransport::createResponse);
+    }
+
+    @Override
+    public Flux<GraphQlResponse> executeSubscription(GraphQlRequest request) {
+        return Flux.error(new GraphFeignException("Subscriptions cannot be sent as HTTP requests"));
+    }
+}
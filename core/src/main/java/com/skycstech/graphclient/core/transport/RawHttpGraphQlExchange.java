@@ -0,0 +1,118 @@
+package com.skycstech.graphclient.core.transport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.exception.GraphFeignException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP exchange passing the body of the response through as it is received, without decoding it, for callers
+ * forwarding the response unchanged.
+ * <p>The body is limited to {@code maxSize} bytes. With {@code checkErrors}, the body is received in full first
+ * and its top level keys are scanned, without decoding their values, to fail on a non empty {@code errors} list.
+ * <p>The buffers emitted belong to the subscriber, which must release them.
+ *
+ * @author Akash Patel
+ */
+public class RawHttpGraphQlExchange {
+
+    private final WebClient webClient;
+    private final HttpHeaders headers;
+    private final ObjectMapper objectMapper;
+    private final long maxSize;
+    private final boolean checkErrors;
+
+    public RawHttpGraphQlExchange(WebClient webClient, HttpHeaders headers, ObjectMapper objectMapper,
+                                  long maxSize, boolean checkErrors) {
+        this.webClient = webClient;
+        this.headers = headers;
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.checkErrors = checkErrors;
+    }
+
+    /**
+     * The body of the response to the given request, as received.
+     */
+    public Flux<DataBuffer> execute(Map<String, Object> request) {
+        Flux<DataBuffer> body = Flux.defer(() -> this.webClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(httpHeaders -> httpHeaders.addAll(this.headers))
+                .bodyValue(request)
+                .exchangeToFlux(this::readBody));
+        if (this.checkErrors) {
+            return DataBufferUtils.join(body, (int) Math.min(this.maxSize, Integer.MAX_VALUE))
+                    .map(this::checkErrors)
+                    .flux();
+        }
+        return Flux.defer(() -> {
+            AtomicLong size = new AtomicLong();
+            return body.handle((buffer, sink) -> {
+                if (size.addAndGet(buffer.readableByteCount()) > this.maxSize) {
+                    DataBufferUtils.release(buffer);
+                    sink.error(new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + this.maxSize));
+                } else {
+                    sink.next(buffer);
+                }
+            });
+        });
+    }
+
+    private Flux<DataBuffer> readBody(ClientResponse response) {
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createException().flatMapMany(Flux::error);
+        }
+        return response.bodyToFlux(DataBuffer.class);
+    }
+
+    /**
+     * Fails on a non empty {@code errors} list, skipping over the values of the other keys.
+     */
+    private DataBuffer checkErrors(DataBuffer body) {
+        int readPosition = body.readPosition();
+        try (JsonParser parser = this.objectMapper.createParser(body.asInputStream())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return body;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("errors".equals(name) && value == JsonToken.START_ARRAY && parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode error = parser.readValueAsTree();
+                    DataBufferUtils.release(body);
+                    throw new GraphFeignException(error.path("message").asText());
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            DataBufferUtils.release(body);
+            throw new GraphFeignException("Unable to read raw response", e);
+        }
+        body.readPosition(readPosition);
+        return body;
+    }
+
+    /**
+     * Blocking stream reading the given buffers as they are received, releasing each buffer once read.
+     * The buffers are requested as soon as the stream is created, closing it cancels the rest of the body.
+     */
+    public static InputStream inputStream(Flux<DataBuffer> buffers) {
+        return new DataBufferInputStream(buffers);
+    }
+}
@@ -0,0 +1,45 @@
+package com.skycstech.graphclient.core.transport;
+
+import org.springframework.graphql.GraphQlRequest;
+import org.springframework.graphql.GraphQlResponse;
+import org.springframework.graphql.client.GraphQlClient;
+import org.springframework.graphql.client.GraphQlTransport;
+import org.springframework.graphql.client.WebSocketGraphQlClient;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Transport sending the requests through a {@link WebSocketGraphQlClient}, so clients configured per method,
+ * such as with their own {@code DocumentSource}, share its connection instead of opening their own.
+ * <p>Requests go through the interceptors of the WebSocket client as well.
+ *
+ * @author Akash Patel
+ */
+public class SharedWebSocketGraphQlTransport implements GraphQlTransport {
+
+    private final WebSocketGraphQlClient webSocketGraphQlClient;
+
+    public SharedWebSocketGraphQlTransport(WebSocketGraphQlClient webSocketGraphQlClient) {
+        this.webSocketGraphQlClient = webSocketGraphQlClient;
+    }
+
+    @Override
+    public Mono<GraphQlResponse> execute(GraphQlRequest request) {
+        return requestSpec(request).execute().cast(GraphQlResponse.class);
+    }
+
+    @Override
+    public Flux<GraphQlResponse> executeSubscription(GraphQlRequest request) {
+        return requestSpec(request).executeSubscription().cast(GraphQlResponse.class);
+    }
+
+    private GraphQlClient.RequestSpec requestSpec(GraphQlRequest request) {
+        GraphQlClient.RequestSpec requestSpec = this.webSocketGraphQlClient.document(request.getDocument())
+                .variables(request.getVariables());
+        if (StringUtils.hasText(request.getOperationName())) {
+            requestSpec.operationName(request.getOperationName());
+        }
+        return requestSpec;
+    }
+}
@@ -0,0 +1,33 @@
+package com.skycstech.graphclient.core.transport;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends a WebSocket ping frame whenever the connection has been idle for the configured
+ * interval, keeping intermediaries from dropping the long-lived subscription connection.
+ * <p>Must be installed after an {@link io.netty.handler.timeout.IdleStateHandler}.
+ * A failed ping closes the channel, which lets the transport reconnect on next use.
+ *
+ * @author Akash Patel
+ */
+public class WebSocketKeepAliveHandler extends ChannelDuplexHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketKeepAliveHandler.class);
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            log.trace("WebSocket connection idle, sending keepalive ping: [{}]", ctx.channel());
+            ctx.channel().writeAndFlush(new PingWebSocketFrame())
+                    .addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.skycstech.graphclient.core.annotation.GraphFeignDocument;
+import com.skycstech.graphclient.core.annotation.GraphFeignRequest;
+import com.skycstech.graphclient.core.annotation.GraphFeignVariable;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operations sent by the driver, declared once for the clients of every transport.
+ */
+public interface BooksClient {
+
+    @GraphFeignRequest(documentName = "booksQuery", retrievePath = "books")
+    Mono<List<Book>> books(@GraphFeignVariable("count") int count);
+
+    /**
+     * Sends a captured operation, the variables are expanded from their captured shape.
+     */
+    @GraphFeignRequest
+    Mono<ClientGraphQlResponse> replay(@GraphFeignDocument String document, @GraphFeignVariable Map<String, Object> variables);
+}
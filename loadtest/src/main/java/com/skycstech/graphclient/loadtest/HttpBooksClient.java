@@ -0,0 +1,7 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.skycstech.graphclient.core.annotation.GraphFeignClient;
+
+@GraphFeignClient(name = "httpBooksClient", url = "${loadtest.url}")
+public interface HttpBooksClient extends BooksClient {
+}
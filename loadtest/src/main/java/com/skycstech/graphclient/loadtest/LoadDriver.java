@@ -0,0 +1,255 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.capture.GraphFeignTrafficFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Drives the client under test at a fixed arrival rate, open loop: requests are started on schedule whether or
+ * not the previous ones completed, so a slow server or client shows up as latency instead of as a lower rate.
+ * <p>Sends the books query, or the operations of a captured traffic file in their captured order.
+ * Runs the warm-up then the measured run, waits for the requests in flight, and writes the report.
+ */
+@Component
+@ConditionalOnProperty(prefix = "loadtest", name = "mode", havingValue = "drive", matchIfMissing = true)
+@RequiredArgsConstructor
+class LoadDriver implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final String CONNECTION_PROVIDER_PREFIX = "reactor.netty.connection.provider.";
+    private static final TypeReference<Map<String, Object>> VARIABLES = new TypeReference<>() {
+    };
+
+    private final LoadTestProperties properties;
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        BooksClient client = this.properties.getTransport().useWebSocket(false)
+                ? this.applicationContext.getBean(WebSocketBooksClient.class)
+                : this.applicationContext.getBean(HttpBooksClient.class);
+        LongFunction<Mono<?>> operation = operation(client);
+
+        LoadTestRecorder recorder = new LoadTestRecorder();
+        List<LoadTestReport.Interval> timeline = new ArrayList<>();
+        Scheduler issuers = Schedulers.newParallel("loadtest-issuer", this.properties.getIssuerThreads());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        long measurementStart = start + this.properties.getWarmUp().toNanos();
+        long end = measurementStart + this.properties.getDuration().toNanos();
+        long sampleIntervalNanos = this.properties.getSampleInterval().toNanos();
+        Runnable sample = () -> {
+            LoadTestRecorder.IntervalSnapshot snapshot = recorder.interval();
+            long now = System.nanoTime();
+            synchronized (timeline) {
+                timeline.add(new LoadTestReport.Interval((now - start) / 1e9, now <= measurementStart,
+                        snapshot.completed(), snapshot.failed(), snapshot.completed() / (sampleIntervalNanos / 1e9),
+                        snapshot.p50Millis(), snapshot.p99Millis(), snapshot.maxMillis(), recorder.getOutstanding(),
+                        this.memory.getHeapMemoryUsage().getUsed(),
+                        connections("total"), connections("active"), connections("idle"), connections("pending")));
+            }
+        };
+        sampler.scheduleAtFixedRate(sample, sampleIntervalNanos, sampleIntervalNanos, TimeUnit.NANOSECONDS);
+
+        log.info("Running {} requests/s over {} to {} for {} after a warm-up of {}", this.properties.getRate(),
+                this.properties.getTransport(), this.properties.getUrl(), this.properties.getDuration(), this.properties.getWarmUp());
+
+        double arrivalIntervalNanos = TimeUnit.SECONDS.toNanos(1) / this.properties.getRate();
+        boolean measuring = false;
+        long[] gcAtStart = gc();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * arrivalIntervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            if (!measuring && intended >= measurementStart) {
+                recorder.startMeasurement();
+                gcAtStart = gc();
+                measuring = true;
+                log.info("Warm-up done, measuring");
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = measuring;
+            if (!recorder.tryStart(this.properties.getMaxOutstanding(), measured)) {
+                continue;
+            }
+            long index = i;
+            Mono.defer(() -> {
+                        long sent = System.nanoTime();
+                        recorder.sent(intended, sent, measured);
+                        return Mono.defer(() -> operation.apply(index))
+                                .timeout(this.properties.getRequestTimeout())
+                                .doOnSuccess(books -> recorder.completed(intended, sent, null, measured))
+                                .doOnError(error -> recorder.completed(intended, sent, error, measured));
+                    })
+                    .subscribeOn(issuers)
+                    .subscribe(books -> {
+                    }, error -> {
+                    });
+        }
+
+        // Requests in flight complete or time out within the request timeout
+        long drainDeadline = System.nanoTime() + this.properties.getRequestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (recorder.getOutstanding() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long drained = System.nanoTime();
+        sampler.shutdown();
+        sampler.awaitTermination(5, TimeUnit.SECONDS);
+        sample.run();
+        issuers.dispose();
+
+        LoadTestReport report = report(recorder, timeline, gcAtStart, (drained - measurementStart) / 1e9);
+        write(report);
+    }
+
+    private LongFunction<Mono<?>> operation(BooksClient client) throws IOException {
+        String replayFile = this.properties.getReplay().getFile();
+        if (!StringUtils.hasText(replayFile)) {
+            int payloadSize = this.properties.getPayloadSize();
+            return index -> client.books(payloadSize);
+        }
+        GraphFeignTrafficFile file = GraphFeignTrafficFile.read(Path.of(replayFile));
+        List<ReplayedOperation> operations = new ArrayList<>();
+        for (GraphFeignTrafficFile.Exchange exchange : file.getExchanges()) {
+            String document = file.getDocuments().get(exchange.documentHash());
+            if (document != null) {
+                Map<String, Object> variables = exchange.variables() == null || exchange.variables().isNull() ? Map.of()
+                        : this.objectMapper.convertValue(GraphFeignTrafficFile.expand(exchange.variables()), VARIABLES);
+                operations.add(new ReplayedOperation(document, variables));
+            }
+        }
+        Assert.notEmpty(operations, "No exchange with a captured document in " + replayFile);
+        log.info("Replaying {} operations of {} documents from {}", operations.size(), file.getDocuments().size(), replayFile);
+        return index -> {
+            ReplayedOperation replayed = operations.get((int) (index % operations.size()));
+            return client.replay(replayed.document(), replayed.variables());
+        };
+    }
+
+    private record ReplayedOperation(String document, Map<String, Object> variables) {
+    }
+
+    private LoadTestReport report(LoadTestRecorder recorder, List<LoadTestReport.Interval> timeline, long[] gcAtStart,
+                                  double durationSeconds) {
+        long[] gcAtEnd = gc();
+        List<LoadTestReport.Interval> measured = timeline.stream().filter(interval -> !interval.warmUp()).toList();
+        LoadTestReport.Heap heap = new LoadTestReport.Heap(
+                measured.stream().mapToLong(LoadTestReport.Interval::heapUsedBytes).max().orElse(0),
+                this.memory.getHeapMemoryUsage().getUsed(),
+                gcAtEnd[0] - gcAtStart[0],
+                gcAtEnd[1] - gcAtStart[1]);
+        LoadTestReport.Connections connections = new LoadTestReport.Connections(
+                max(measured, LoadTestReport.Interval::totalConnections),
+                max(measured, LoadTestReport.Interval::activeConnections),
+                max(measured, LoadTestReport.Interval::idleConnections),
+                max(measured, LoadTestReport.Interval::pendingConnections));
+
+        long scheduled = recorder.getScheduled();
+        long incomplete = scheduled - recorder.getSucceeded() - recorder.getFailed() - recorder.getRejected();
+        LoadTestReport.Summary summary = new LoadTestReport.Summary(scheduled, recorder.getSucceeded(), recorder.getFailed(),
+                recorder.getRejected(), incomplete, recorder.getErrors(), durationSeconds,
+                recorder.getSucceeded() / durationSeconds, recorder.getResponseTimePercentiles(),
+                recorder.getServiceTimePercentiles(), recorder.getMaxSendLagMillis(), heap, connections);
+
+        LoadTestProperties.Pool pool = this.properties.getPool();
+        LoadTestReport.Settings settings = new LoadTestReport.Settings(this.properties.getUrl(), this.properties.getTransport().name(),
+                this.properties.getReplay().getFile(),
+                this.properties.getRate(), this.properties.getDuration(), this.properties.getWarmUp(), this.properties.getPayloadSize(),
+                this.properties.getMaxOutstanding(), this.properties.getRequestTimeout(), this.properties.getIssuerThreads(),
+                pool.getMaxConnections(), pool.getPendingAcquireMaxCount(), pool.getPendingAcquireTimeout(),
+                this.properties.getCodec().getMaxInMemorySize().toBytes(), Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory(), System.getProperty("java.version"));
+        return new LoadTestReport(Instant.now(), settings, summary, timeline);
+    }
+
+    private void write(LoadTestReport report) throws IOException {
+        Path path = Path.of(this.properties.getReport()).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        this.objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+
+        LoadTestReport.Summary summary = report.summary();
+        log.info("{} requests scheduled: {} succeeded, {} failed {}, {} rejected, {} incomplete",
+                summary.scheduled(), summary.succeeded(), summary.failed(), summary.errors(), summary.rejected(), summary.incomplete());
+        log.info("Throughput {} requests/s, response time {} ms, service time {} ms",
+                String.format("%.1f", summary.throughput()), summary.responseTimeMillis(), summary.serviceTimeMillis());
+        log.info("Report written to {}", path);
+    }
+
+    /**
+     * Sum of the given connection provider gauge over the remote addresses, null if the pool is not metered.
+     */
+    private Double connections(String state) {
+        double sum = 0;
+        boolean found = false;
+        for (Gauge gauge : Metrics.globalRegistry.find(CONNECTION_PROVIDER_PREFIX + state + ".connections")
+                .tag("name", LoadTestConfiguration.CONNECTION_PROVIDER_NAME)
+                .gauges()) {
+            double value = gauge.value();
+            if (!Double.isNaN(value)) {
+                sum += value;
+                found = true;
+            }
+        }
+        return found ? sum : null;
+    }
+
+    private static Double max(List<LoadTestReport.Interval> intervals, Function<LoadTestReport.Interval, Double> value) {
+        return intervals.stream().map(value).filter(Objects::nonNull).max(Double::compare).orElse(null);
+    }
+
+    private static long[] gc() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(collector.getCollectionCount(), 0);
+            time += Math.max(collector.getCollectionTime(), 0);
+        }
+        return new long[]{count, time};
+    }
+}
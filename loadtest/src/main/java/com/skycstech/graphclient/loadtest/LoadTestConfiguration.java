@@ -0,0 +1,52 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.GraphFeignCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Applies the pool and codec settings under test to the clients, through the shared {@link GraphFeignCustomizer}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LoadTestConfiguration {
+
+    public static final String CONNECTION_PROVIDER_NAME = "loadtest";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider loadTestConnectionProvider(LoadTestProperties properties) {
+        LoadTestProperties.Pool pool = properties.getPool();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(CONNECTION_PROVIDER_NAME)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                // Publishes the reactor.netty.connection.provider gauges sampled in the report
+                .metrics(true);
+        if (pool.getMaxIdleTime() != null) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public GraphFeignCustomizer graphFeignCustomizer(LoadTestProperties properties, ConnectionProvider loadTestConnectionProvider) {
+        GraphFeignCustomizer customizer = new GraphFeignCustomizer();
+        ObjectMapper objectMapper = customizer.getObjectMapper();
+        int maxInMemorySize = (int) properties.getCodec().getMaxInMemorySize().toBytes();
+        return customizer
+                .setWebClient(WebClient.builder()
+                        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(loadTestConnectionProvider)))
+                        .build())
+                .setCodecConfigurer(configurer -> {
+                    configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    configurer.defaultCodecs().maxInMemorySize(maxInMemorySize);
+                });
+    }
+}
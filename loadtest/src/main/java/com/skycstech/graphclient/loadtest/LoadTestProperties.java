@@ -0,0 +1,146 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.skycstech.graphclient.core.transport.GraphFeignTransport;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    /**
+     * Drive the client under test, or serve captured traffic as a stub server.
+     */
+    private Mode mode = Mode.DRIVE;
+
+    /**
+     * URL of the GraphQL server, the basic-example sample by default.
+     */
+    private String url = "http://localhost:8080/graphql";
+
+    /**
+     * Transport of the client under test, only HTTP and WEBSOCKET differ for queries.
+     */
+    private GraphFeignTransport transport = GraphFeignTransport.HTTP;
+
+    /**
+     * Requests started per second, regardless of how many are still in flight.
+     */
+    private double rate = 200;
+
+    /**
+     * Duration of the measured run, after the warm-up. Set it to hours for a soak test.
+     */
+    private Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * Duration of the warm-up at the same rate, excluded from the summary.
+     */
+    private Duration warmUp = Duration.ofSeconds(10);
+
+    /**
+     * Number of books requested per query.
+     */
+    private int payloadSize = 10;
+
+    /**
+     * Requests in flight above which new requests are rejected rather than started, protects the driver
+     * when the server stops responding.
+     */
+    private int maxOutstanding = 10_000;
+
+    /**
+     * Time after which a request is counted as timed out.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Threads invoking the client, so slow invocations do not delay the arrival schedule.
+     */
+    private int issuerThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Interval between two entries of the report timeline.
+     */
+    private Duration sampleInterval = Duration.ofSeconds(1);
+
+    /**
+     * File the JSON report is written to.
+     */
+    private String report = "target/loadtest-report.json";
+
+    private Pool pool = new Pool();
+    private Codec codec = new Codec();
+    private Replay replay = new Replay();
+    private Stub stub = new Stub();
+
+    public enum Mode {
+        DRIVE,
+        STUB
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        /**
+         * Maximum number of HTTP connections to the server.
+         */
+        private int maxConnections = 500;
+
+        /**
+         * Maximum number of requests waiting for a connection, -1 for no limit.
+         */
+        private int pendingAcquireMaxCount = -1;
+
+        /**
+         * Maximum time a request waits for a connection.
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+
+        /**
+         * Time after which an idle connection is closed, not set by default.
+         */
+        private Duration maxIdleTime;
+    }
+
+    @Getter
+    @Setter
+    public static class Codec {
+
+        /**
+         * Maximum size of a response buffered by the decoder.
+         */
+        private DataSize maxInMemorySize = DataSize.ofMegabytes(64);
+    }
+
+    @Getter
+    @Setter
+    public static class Replay {
+
+        /**
+         * Traffic captured with graph-feign.client.capture. When set, the driver sends the captured operations
+         * in their captured order, instead of the books query, and the stub server answers with their responses.
+         */
+        private String file;
+    }
+
+    @Getter
+    @Setter
+    public static class Stub {
+
+        private int port = 9090;
+
+        private String path = "/graphql";
+
+        /**
+         * Delay every response by the duration captured for it.
+         */
+        private boolean replayLatency = true;
+    }
+}
@@ -0,0 +1,164 @@
+package com.skycstech.graphclient.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the outcome of every request in HdrHistograms, read per interval for the timeline and accumulated
+ * once the warm-up is over for the summary.
+ */
+class LoadTestRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder responseTimes = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder serviceTimes = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram totalResponseTimes = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram totalServiceTimes = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram intervalResponseTimes;
+    private Histogram intervalServiceTimes;
+
+    private final AtomicLong outstanding = new AtomicLong();
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder intervalFailed = new LongAdder();
+    private final LongAccumulator maxSendLag = new LongAccumulator(Math::max, 0);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    /**
+     * Discards the latencies recorded so far, the summary starts from here. Counters only include the requests
+     * scheduled after the warm-up, whenever they complete.
+     */
+    synchronized void startMeasurement() {
+        this.responseTimes.reset();
+        this.serviceTimes.reset();
+        this.measuring = true;
+    }
+
+    boolean tryStart(int maxOutstanding, boolean measured) {
+        if (measured) {
+            this.scheduled.increment();
+        }
+        if (this.outstanding.incrementAndGet() > maxOutstanding) {
+            this.outstanding.decrementAndGet();
+            if (measured) {
+                this.rejected.increment();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    void sent(long intendedNanos, long sentNanos, boolean measured) {
+        if (measured) {
+            this.maxSendLag.accumulate(sentNanos - intendedNanos);
+        }
+    }
+
+    void completed(long intendedNanos, long sentNanos, Throwable error, boolean measured) {
+        long now = System.nanoTime();
+        this.responseTimes.recordValue(now - intendedNanos);
+        this.serviceTimes.recordValue(now - sentNanos);
+        this.outstanding.decrementAndGet();
+        if (error != null) {
+            this.intervalFailed.increment();
+        }
+        if (!measured) {
+            return;
+        }
+        if (error == null) {
+            this.succeeded.increment();
+            return;
+        }
+        this.failed.increment();
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        this.errors.computeIfAbsent(cause.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    long getOutstanding() {
+        return this.outstanding.get();
+    }
+
+    /**
+     * Takes the latencies recorded since the previous interval.
+     */
+    synchronized IntervalSnapshot interval() {
+        this.intervalResponseTimes = this.responseTimes.getIntervalHistogram(this.intervalResponseTimes);
+        this.intervalServiceTimes = this.serviceTimes.getIntervalHistogram(this.intervalServiceTimes);
+        if (this.measuring) {
+            this.totalResponseTimes.add(this.intervalResponseTimes);
+            this.totalServiceTimes.add(this.intervalServiceTimes);
+        }
+        return new IntervalSnapshot(this.intervalResponseTimes.getTotalCount(), this.intervalFailed.sumThenReset(),
+                millis(this.intervalResponseTimes.getValueAtPercentile(50)),
+                millis(this.intervalResponseTimes.getValueAtPercentile(99)),
+                millis(this.intervalResponseTimes.getMaxValue()));
+    }
+
+    record IntervalSnapshot(long completed, long failed, double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    long getScheduled() {
+        return this.scheduled.sum();
+    }
+
+    long getSucceeded() {
+        return this.succeeded.sum();
+    }
+
+    long getFailed() {
+        return this.failed.sum();
+    }
+
+    long getRejected() {
+        return this.rejected.sum();
+    }
+
+    double getMaxSendLagMillis() {
+        return millis(this.maxSendLag.get());
+    }
+
+    Map<String, Long> getErrors() {
+        Map<String, Long> errors = new TreeMap<>();
+        this.errors.forEach((type, count) -> errors.put(type, count.sum()));
+        return errors;
+    }
+
+    synchronized Map<String, Double> getResponseTimePercentiles() {
+        return percentiles(this.totalResponseTimes);
+    }
+
+    synchronized Map<String, Double> getServiceTimePercentiles() {
+        return percentiles(this.totalServiceTimes);
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("mean", histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+        for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            percentiles.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    millis(histogram.getValueAtPercentile(percentile)));
+        }
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.skycstech.graphclient.loadtest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine readable result of a run, written as JSON. Times are in milliseconds.
+ * <p>Response times are measured from the time each request was scheduled to start, so delays of the driver
+ * or of the client before sending are included (coordinated omission correction). Service times are measured
+ * from the time the client was actually invoked.
+ */
+public record LoadTestReport(Instant timestamp, Settings settings, Summary summary, List<Interval> timeline) {
+
+    public record Settings(String url, String transport, String replayFile, double rate, Duration duration, Duration warmUp, int payloadSize,
+                           int maxOutstanding, Duration requestTimeout, int issuerThreads, int maxConnections,
+                           int pendingAcquireMaxCount, Duration pendingAcquireTimeout, long maxInMemorySizeBytes,
+                           int availableProcessors, long maxHeapBytes, String javaVersion) {
+    }
+
+    public record Summary(long scheduled, long succeeded, long failed, long rejected, long incomplete,
+                          Map<String, Long> errors, double durationSeconds, double throughput,
+                          Map<String, Double> responseTimeMillis, Map<String, Double> serviceTimeMillis,
+                          double maxSendLagMillis, Heap heap, Connections connections) {
+    }
+
+    public record Heap(long maxUsedBytes, long usedAtEndBytes, long gcCount, long gcTimeMillis) {
+    }
+
+    public record Connections(Double maxTotal, Double maxActive, Double maxIdle, Double maxPending) {
+    }
+
+    public record Interval(double elapsedSeconds, boolean warmUp, long completed, long failed, double throughput,
+                           double p50Millis, double p99Millis, double maxMillis, long outstanding, long heapUsedBytes,
+                           Double totalConnections, Double activeConnections, Double idleConnections,
+                           Double pendingConnections) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skycstech.graphclient.core.capture.GraphFeignTrafficFile;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local GraphQL server answering with the responses of captured traffic, so a client can be measured against
+ * real traffic shapes with no live service involved.
+ * <p>A request is answered with the next captured response of its document, or of any document if its document
+ * was not captured. Responses whose shape was not captured are replaced by a filler of the captured size.
+ */
+@Component
+@ConditionalOnProperty(prefix = "loadtest", name = "mode", havingValue = "stub")
+@RequiredArgsConstructor
+class ReplayStubServer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayStubServer.class);
+
+    private final LoadTestProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Responses> responsesByDocument = new HashMap<>();
+    private Responses allResponses;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Assert.hasText(this.properties.getReplay().getFile(), "loadtest.replay.file must be set in stub mode");
+        GraphFeignTrafficFile file = GraphFeignTrafficFile.read(Path.of(this.properties.getReplay().getFile()));
+        Assert.notEmpty(file.getExchanges(), "No exchange captured in " + this.properties.getReplay().getFile());
+
+        Map<String, List<Response>> byDocument = new HashMap<>();
+        List<Response> all = new ArrayList<>();
+        for (GraphFeignTrafficFile.Exchange exchange : file.getExchanges()) {
+            Response response = render(exchange);
+            byDocument.computeIfAbsent(exchange.documentHash(), hash -> new ArrayList<>()).add(response);
+            all.add(response);
+        }
+        byDocument.forEach((hash, responses) -> this.responsesByDocument.put(hash, new Responses(responses)));
+        this.allResponses = new Responses(all);
+
+        LoadTestProperties.Stub stub = this.properties.getStub();
+        DisposableServer server = HttpServer.create()
+                .port(stub.getPort())
+                .route(routes -> routes.post(stub.getPath(), this::handle))
+                .bindNow();
+        log.info("Replaying {} exchanges of {} documents on http://localhost:{}{}", all.size(), byDocument.size(),
+                server.port(), stub.getPath());
+        server.onDispose().block();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        return request.receive().aggregate().asByteArray()
+                .flatMap(body -> {
+                    Response replayed = next(body);
+                    Mono<Void> send = response.status(HttpResponseStatus.valueOf(replayed.status()))
+                            .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                            .sendByteArray(Mono.just(replayed.body()))
+                            .then();
+                    if (!this.properties.getStub().isReplayLatency() || replayed.durationMicros() <= 0) {
+                        return send;
+                    }
+                    return Mono.delay(Duration.ofNanos(replayed.durationMicros() * 1000)).then(send);
+                });
+    }
+
+    private Response next(byte[] body) {
+        Responses responses = null;
+        try {
+            JsonNode request = this.objectMapper.readTree(body);
+            responses = this.responsesByDocument.get(GraphFeignTrafficFile.hash(request.path("query").asText()));
+        } catch (IOException e) {
+            log.debug("Unable to read request, replaying any response", e);
+        }
+        return (responses != null ? responses : this.allResponses).next();
+    }
+
+    private Response render(GraphFeignTrafficFile.Exchange exchange) throws IOException {
+        byte[] body;
+        if (exchange.response() != null) {
+            body = this.objectMapper.writeValueAsBytes(GraphFeignTrafficFile.expand(exchange.response()));
+        } else {
+            String prefix = "{\"data\":{\"filler\":\"";
+            String suffix = "\"}}";
+            int fill = (int) Math.max(0, exchange.responseBytes() - prefix.length() - suffix.length());
+            body = (prefix + "x".repeat(fill) + suffix).getBytes(StandardCharsets.UTF_8);
+        }
+        return new Response(body, exchange.status() > 0 ? exchange.status() : 200, exchange.durationMicros());
+    }
+
+    private record Response(byte[] body, int status, long durationMicros) {
+    }
+
+    private static class Responses {
+
+        private final List<Response> responses;
+        private final AtomicLong next = new AtomicLong();
+
+        Responses(List<Response> responses) {
+            this.responses = responses;
+        }
+
+        Response next() {
+            return this.responses.get((int) (this.next.getAndIncrement() % this.responses.size()));
+        }
+    }
+}
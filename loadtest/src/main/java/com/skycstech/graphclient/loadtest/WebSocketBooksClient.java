@@ -0,0 +1,8 @@
+package com.skycstech.graphclient.loadtest;
+
+import com.skycstech.graphclient.core.annotation.GraphFeignClient;
+import com.skycstech.graphclient.core.transport.GraphFeignTransport;
+
+@GraphFeignClient(name = "webSocketBooksClient", url = "${loadtest.url}", transport = GraphFeignTransport.WEBSOCKET)
+public interface WebSocketBooksClient extends BooksClient {
+}
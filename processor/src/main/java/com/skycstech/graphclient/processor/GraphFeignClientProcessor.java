@@ -0,0 +1,466 @@
+package com.skycstech.graphclient.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a concrete implementation of every {@code @GraphFeignClient} interface at build time.
+ * <p>The generated {@code <Interface>_GraphFeignImpl} resolves one {@code GraphFeignMethodHandle} per
+ * method when the client is created and calls it directly, so no JDK proxy is involved. Each generated method
+ * binds its arguments itself, putting the variables, headers, tenant, shard key and sink of the request in a
+ * {@code GraphFeignArguments} along with the document name of its {@code GraphFeignRequest} as a constant,
+ * and the handle decodes the response to the entity type passed as a {@code ParameterizedTypeReference}.
+ * {@code GraphFeignClientsRegistrar} prefers the generated implementation when it is present.
+ * <p>Methods are validated while compiling, an interface that cannot be generated (e.g. generic methods)
+ * is reported as a warning and keeps using the proxy at runtime. Its methods are validated all the same, so no
+ * indexed client is validated again at runtime.
+ * <p>All clients of the compilation are listed in {@value #INDEX_LOCATION}, mapped to their generated
+ * implementation (empty when none was generated), so the registrar does not need to scan the classpath.
+ * The packages of the compilation are listed in {@value #PACKAGES_LOCATION}, the registrar only trusts the index
+ * for the base packages listed there and scans the others.
+ * The entries of a previous compilation are kept, so an incremental build does not drop the clients it did
+ * not recompile.
+ *
+ * @author Akash Patel
+ */
+@SupportedAnnotationTypes(GraphFeignClientProcessor.GRAPH_FEIGN_CLIENT)
+public class GraphFeignClientProcessor extends AbstractProcessor {
+
+    static final String GRAPH_FEIGN_CLIENT = "com.skycstech.graphclient.core.annotation.GraphFeignClient";
+    static final String GRAPH_FEIGN_REQUEST = "com.skycstech.graphclient.core.annotation.GraphFeignRequest";
+    static final String GRAPH_FEIGN_VARIABLE = "com.skycstech.graphclient.core.annotation.GraphFeignVariable";
+    static final String GRAPH_FEIGN_DOCUMENT = "com.skycstech.graphclient.core.annotation.GraphFeignDocument";
+    static final String GRAPH_FEIGN_HEADER = "com.skycstech.graphclient.core.annotation.GraphFeignHeader";
+    static final String GRAPH_FEIGN_TENANT = "com.skycstech.graphclient.core.annotation.GraphFeignTenant";
+    static final String GRAPH_FEIGN_SHARD_KEY = "com.skycstech.graphclient.core.annotation.GraphFeignShardKey";
+    static final String GRAPH_FEIGN_SINK = "com.skycstech.graphclient.core.annotation.GraphFeignSink";
+    static final String GRAPH_FEIGN_PAGINATED = "com.skycstech.graphclient.core.annotation.GraphFeignPaginated";
+    static final String FLUX = "reactor.core.publisher.Flux";
+    static final String MONO = "reactor.core.publisher.Mono";
+    static final String LIST = "java.util.List";
+    static final String MAP = "java.util.Map";
+    static final String STRING = "java.lang.String";
+    static final String WRITABLE_BYTE_CHANNEL = "java.nio.channels.WritableByteChannel";
+    static final String PARAMETERIZED_TYPE_REFERENCE = "org.springframework.core.ParameterizedTypeReference";
+
+    static final String GRAPH_FEIGN = "com.skycstech.graphclient.core.GraphFeign";
+    static final String GRAPH_FEIGN_METHOD_HANDLE = "com.skycstech.graphclient.core.GraphFeignMethodHandle";
+    static final String GRAPH_FEIGN_ARGUMENTS = "com.skycstech.graphclient.core.GraphFeignArguments";
+    static final String GENERATED_IMPLEMENTATION_SUFFIX = "_GraphFeignImpl";
+    static final String INDEX_LOCATION = "META-INF/graphfeign.index";
+    static final String PACKAGES_LOCATION = "META-INF/graphfeign.packages";
+
+    private final SortedMap<String, String> index = new TreeMap<>();
+    private final SortedSet<String> packages = new TreeSet<>();
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+
+        TypeElement clientAnnotation = this.elements.getTypeElement(GRAPH_FEIGN_CLIENT);
+        if (clientAnnotation == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getRootElements()) {
+            this.packages.add(this.elements.getPackageOf(element).getQualifiedName().toString());
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(clientAnnotation)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "@GraphFeignClient can only be specified on an interface", element);
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<ClientMethod> methods = collectMethods(type);
+            String implementation = methods != null ? writeImplementation(type, methods) : null;
+            this.index.put(this.elements.getBinaryName(type).toString(), implementation != null ? implementation : "");
+        }
+        return false;
+    }
+
+    record ClientMethod(ExecutableElement element, ExecutableType type, String handleName) {
+    }
+
+    /**
+     * The methods of the given client, every one of them validated, {@code null} if it is invalid or cannot be
+     * generated.
+     */
+    private List<ClientMethod> collectMethods(TypeElement type) {
+        boolean generate = true;
+        if (!type.getTypeParameters().isEmpty()) {
+            warn("Generic GraphFeignClient interfaces are not generated, using proxy", type);
+            generate = false;
+        }
+
+        DeclaredType declaredType = (DeclaredType) type.asType();
+        List<ClientMethod> methods = new ArrayList<>();
+        Set<String> handleNames = new HashSet<>();
+        boolean valid = true;
+        for (ExecutableElement method : ElementFilter.methodsIn(this.elements.getAllMembers(type))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            if (!hasAnnotation(method, GRAPH_FEIGN_REQUEST)) {
+                error("Method [" + method.getSimpleName() + "] in class [" + type.getQualifiedName() + "] must be annotated with @GraphFeignRequest", method);
+                valid = false;
+                continue;
+            }
+            boolean hasDocument = false;
+            for (VariableElement parameter : method.getParameters()) {
+                if (!hasAnnotation(parameter, GRAPH_FEIGN_VARIABLE) && !hasAnnotation(parameter, GRAPH_FEIGN_DOCUMENT)
+                        && !hasAnnotation(parameter, GRAPH_FEIGN_HEADER) && !hasAnnotation(parameter, GRAPH_FEIGN_TENANT)
+                        && !hasAnnotation(parameter, GRAPH_FEIGN_SHARD_KEY) && !hasAnnotation(parameter, GRAPH_FEIGN_SINK)) {
+                    error("Parameter [" + parameter.getSimpleName() + "] of method [" + method.getSimpleName()
+                            + "] must be annotated with @GraphFeignVariable, @GraphFeignDocument, @GraphFeignHeader, @GraphFeignTenant, @GraphFeignShardKey or @GraphFeignSink", parameter);
+                    valid = false;
+                } else if (hasAnnotation(parameter, GRAPH_FEIGN_DOCUMENT) && hasDocument) {
+                    error("Method [" + method.getSimpleName() + "] must have at most one @GraphFeignDocument parameter", parameter);
+                    valid = false;
+                } else if ((hasAnnotation(parameter, GRAPH_FEIGN_DOCUMENT) || hasAnnotation(parameter, GRAPH_FEIGN_TENANT)
+                        || hasAnnotation(parameter, GRAPH_FEIGN_SHARD_KEY)) && !isType(parameter.asType(), STRING)) {
+                    error("Parameter [" + parameter.getSimpleName() + "] of method [" + method.getSimpleName() + "] must be a String", parameter);
+                    valid = false;
+                } else if (hasAnnotation(parameter, GRAPH_FEIGN_SINK) && !this.types.isAssignable(this.types.erasure(parameter.asType()),
+                        this.elements.getTypeElement(WRITABLE_BYTE_CHANNEL).asType())) {
+                    error("Parameter [" + parameter.getSimpleName() + "] of method [" + method.getSimpleName() + "] must be a WritableByteChannel", parameter);
+                    valid = false;
+                }
+                hasDocument |= hasAnnotation(parameter, GRAPH_FEIGN_DOCUMENT);
+            }
+            if (hasAnnotation(method, GRAPH_FEIGN_PAGINATED)
+                    && !isType(method.getReturnType(), FLUX)) {
+                error("Method [" + method.getSimpleName() + "] annotated with @GraphFeignPaginated must return Flux<T>", method);
+                valid = false;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                warn("Generic method [" + method.getSimpleName() + "] is not generated, using proxy for [" + type.getQualifiedName() + "]", method);
+                generate = false;
+            }
+            if (!generate) {
+                continue;
+            }
+
+            String handleName = method.getSimpleName() + "Handle";
+            for (int i = 1; !handleNames.add(handleName); i++) {
+                handleName = method.getSimpleName() + "Handle" + i;
+            }
+            methods.add(new ClientMethod(method, (ExecutableType) this.types.asMemberOf(declaredType, method), handleName));
+        }
+        return valid && generate ? methods : null;
+    }
+
+    private String writeImplementation(TypeElement type, List<ClientMethod> methods) {
+        String packageName = this.elements.getPackageOf(type).getQualifiedName().toString();
+        String simpleName = implementationSimpleName(type);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try {
+            JavaFileObject sourceFile = this.filer.createSourceFile(qualifiedName, type);
+            try (Writer writer = sourceFile.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("@javax.annotation.processing.Generated(\"" + GraphFeignClientProcessor.class.getName() + "\")");
+                out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+                out.println("public final class " + simpleName + " implements " + type.getQualifiedName() + " {");
+                out.println();
+                for (ClientMethod method : methods) {
+                    out.println("    private final " + GRAPH_FEIGN_METHOD_HANDLE + " " + method.handleName() + ";");
+                }
+                out.println();
+                out.println("    public " + simpleName + "(" + GRAPH_FEIGN + " graphFeign) {");
+                for (ClientMethod method : methods) {
+                    TypeMirror entityType = entityType(method.type().getReturnType());
+                    String typeReference = entityType != null
+                            ? "new " + PARAMETERIZED_TYPE_REFERENCE + "<" + entityType + ">() {}, " : "";
+                    out.println("        this." + method.handleName() + " = graphFeign.methodHandle(" + typeReference + "\""
+                            + method.element().getSimpleName() + "\"" + parameterClassLiterals(method) + ");");
+                }
+                out.println("    }");
+                for (ClientMethod method : methods) {
+                    out.println();
+                    writeMethod(out, method);
+                }
+                out.println("}");
+            }
+            return qualifiedName;
+        } catch (IOException e) {
+            error("Unable to generate GraphFeign implementation [" + qualifiedName + "]: " + e.getMessage(), type);
+            return null;
+        }
+    }
+
+    private void writeIndex() {
+        if (this.index.isEmpty()) {
+            return;
+        }
+        SortedMap<String, String> entries = readPreviousIndex();
+        entries.putAll(this.index);
+        SortedSet<String> indexedPackages = readPreviousPackages();
+        indexedPackages.addAll(this.packages);
+        try {
+            FileObject indexFile = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = indexFile.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+                entries.forEach((client, implementation) -> out.println(client + "=" + implementation));
+            }
+            FileObject packagesFile = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", PACKAGES_LOCATION);
+            try (Writer writer = packagesFile.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+                indexedPackages.forEach(out::println);
+            }
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Unable to write GraphFeign index [" + INDEX_LOCATION + "]: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Entries of the index written by a previous compilation, as an incremental build only processes the changed
+     * sources. Entries of clients that no longer exist, or are no longer annotated, are dropped.
+     */
+    private SortedMap<String, String> readPreviousIndex() {
+        SortedMap<String, String> previous = new TreeMap<>();
+        Properties properties = new Properties();
+        try {
+            FileObject indexFile = this.filer.getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (InputStream in = indexFile.openInputStream()) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            // No previous index
+            return previous;
+        }
+        for (String client : properties.stringPropertyNames()) {
+            TypeElement type = this.elements.getTypeElement(client.replace('$', '.'));
+            if (type != null && hasAnnotation(type, GRAPH_FEIGN_CLIENT)) {
+                previous.put(client, properties.getProperty(client).trim());
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Packages listed by a previous compilation, those that no longer exist are dropped.
+     */
+    private SortedSet<String> readPreviousPackages() {
+        SortedSet<String> previous = new TreeSet<>();
+        try {
+            FileObject packagesFile = this.filer.getResource(StandardLocation.CLASS_OUTPUT, "", PACKAGES_LOCATION);
+            try (BufferedReader reader = new BufferedReader(packagesFile.openReader(true))) {
+                reader.lines()
+                        .map(String::trim)
+                        .filter(packageName -> !packageName.isEmpty() && this.elements.getPackageElement(packageName) != null)
+                        .forEach(previous::add);
+            }
+        } catch (IOException e) {
+            // No previous packages
+        }
+        return previous;
+    }
+
+    private void writeMethod(PrintWriter out, ClientMethod method) {
+        ExecutableElement element = method.element();
+        ExecutableType type = method.type();
+        List<? extends VariableElement> parameters = element.getParameters();
+
+        StringJoiner declaration = new StringJoiner(", ");
+        for (int i = 0; i < parameters.size(); i++) {
+            String parameterType = type.getParameterTypes().get(i).toString();
+            if (element.isVarArgs() && i == parameters.size() - 1 && parameterType.endsWith("[]")) {
+                parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+            }
+            declaration.add(parameterType + " " + parameters.get(i).getSimpleName());
+        }
+
+        StringJoiner thrown = new StringJoiner(", ", " throws ", "").setEmptyValue("");
+        type.getThrownTypes().forEach(thrownType -> thrown.add(thrownType.toString()));
+
+        TypeMirror returnType = type.getReturnType();
+        String invocation = "this." + method.handleName() + ".invoke(" + arguments(method) + ")";
+
+        out.println("    @Override");
+        out.println("    public " + returnType + " " + element.getSimpleName() + "(" + declaration + ")" + thrown + " {");
+        if (returnType.getKind() == TypeKind.VOID) {
+            out.println("        " + invocation + ";");
+        } else {
+            out.println("        return (" + returnType + ") " + invocation + ";");
+        }
+        out.println("    }");
+    }
+
+    /**
+     * The arguments of a call of the method, bound like {@code GraphFeign} binds the parameters of a call through
+     * the proxy: the document name of the {@code GraphFeignRequest} takes precedence over a document parameter,
+     * a variable declared as a {@code Map} is expanded and only headers declared as a {@code String} are sent.
+     */
+    private String arguments(ClientMethod method) {
+        ExecutableElement element = method.element();
+        List<? extends VariableElement> parameters = element.getParameters();
+        String indent = System.lineSeparator() + "                ";
+        StringBuilder arguments = new StringBuilder("new " + GRAPH_FEIGN_ARGUMENTS + "()");
+
+        String documentName = (String) annotationValue(element, GRAPH_FEIGN_REQUEST, "documentName");
+        if (!documentName.isEmpty()) {
+            arguments.append(indent).append(".documentName(").append(literal(documentName)).append(")");
+        }
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            TypeMirror parameterType = this.types.erasure(method.type().getParameterTypes().get(i));
+            String name = parameter.getSimpleName().toString();
+            if (hasAnnotation(parameter, GRAPH_FEIGN_DOCUMENT)) {
+                if (documentName.isEmpty()) {
+                    boolean isDocumentName = (Boolean) annotationValue(parameter, GRAPH_FEIGN_DOCUMENT, "isDocumentName");
+                    arguments.append(indent).append(isDocumentName ? ".documentName(" : ".document(").append(name).append(")");
+                }
+            } else if (hasAnnotation(parameter, GRAPH_FEIGN_HEADER)) {
+                TypeMirror stringType = this.elements.getTypeElement(STRING).asType();
+                if (this.types.isAssignable(stringType, parameterType)) {
+                    String header = (String) annotationValue(parameter, GRAPH_FEIGN_HEADER, "value");
+                    arguments.append(indent).append(".header(").append(literal(header.isEmpty() ? name : header)).append(", ")
+                            .append(isType(parameterType, STRING) ? "" : "(" + STRING + ") ").append(name).append(")");
+                }
+            } else if (hasAnnotation(parameter, GRAPH_FEIGN_TENANT)) {
+                arguments.append(indent).append(".tenant(").append(name).append(")");
+            } else if (hasAnnotation(parameter, GRAPH_FEIGN_SHARD_KEY)) {
+                arguments.append(indent).append(".shardKey(").append(name).append(")");
+            } else if (hasAnnotation(parameter, GRAPH_FEIGN_SINK)) {
+                arguments.append(indent).append(".sink(").append(name).append(")");
+            } else {
+                String variable = (String) annotationValue(parameter, GRAPH_FEIGN_VARIABLE, "value");
+                TypeMirror mapType = this.types.erasure(this.elements.getTypeElement(MAP).asType());
+                arguments.append(indent).append(this.types.isAssignable(mapType, parameterType) ? ".variables(" : ".variable(")
+                        .append(literal(variable.isEmpty() ? name : variable)).append(", ").append(name).append(")");
+            }
+        }
+        return arguments.toString();
+    }
+
+    /**
+     * The type of the entities the response of the method is decoded to, e.g. {@code Book} for
+     * {@code Mono<List<Book>>}, {@code null} if it is not a declared type and is left to the runtime.
+     */
+    private TypeMirror entityType(TypeMirror returnType) {
+        TypeMirror type = returnType;
+        if (isType(type, MONO) || isType(type, FLUX)) {
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            if (typeArguments.size() != 1) {
+                return null;
+            }
+            type = typeArguments.get(0);
+            if (type instanceof DeclaredType declaredType && !declaredType.getTypeArguments().isEmpty()) {
+                if (!isType(type, LIST)) {
+                    return null;
+                }
+                type = declaredType.getTypeArguments().get(0);
+            }
+        } else if (type.getKind() == TypeKind.DECLARED && this.types.isAssignable(this.types.erasure(type),
+                this.types.erasure(this.elements.getTypeElement(LIST).asType()))) {
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+            if (typeArguments.size() != 1) {
+                return null;
+            }
+            type = typeArguments.get(0);
+        }
+        return type.getKind() == TypeKind.DECLARED ? type : null;
+    }
+
+    private String parameterClassLiterals(ClientMethod method) {
+        StringBuilder literals = new StringBuilder();
+        for (TypeMirror parameterType : method.type().getParameterTypes()) {
+            literals.append(", ").append(this.types.erasure(parameterType)).append(".class");
+        }
+        return literals.toString();
+    }
+
+    /**
+     * Mirrors {@code GraphFeign.generatedImplementationName(Class)}, nested types are joined with an underscore.
+     */
+    private String implementationSimpleName(TypeElement type) {
+        Deque<String> names = new ArrayDeque<>();
+        Element current = type;
+        while (current instanceof TypeElement) {
+            names.addFirst(current.getSimpleName().toString());
+            current = current.getEnclosingElement();
+        }
+        return String.join("_", names) + GENERATED_IMPLEMENTATION_SUFFIX;
+    }
+
+    private boolean isType(TypeMirror type, String typeName) {
+        return this.types.erasure(type).toString().equals(typeName);
+    }
+
+    /**
+     * Value of the given attribute of the annotation on the element, its default value if it is not set.
+     */
+    private Object annotationValue(Element element, String annotationName, String attribute) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                        : this.elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                        return entry.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private String literal(String value) {
+        return this.elements.getConstantExpression(value);
+    }
+
+    private boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void error(String message, Element element) {
+        this.messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warn(String message, Element element) {
+        this.messager.printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
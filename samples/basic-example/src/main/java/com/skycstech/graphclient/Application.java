@@ -3,9 +3,11 @@ package com.skycstech.graphclient;
 import com.skycstech.graphclient.core.EnableGraphFeignClients;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @EnableGraphFeignClients
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class Application {
 
     public static void main(String[] args) {
@@ -0,0 +1,43 @@
+package com.skycstech.graphclient.sample.fixture;
+
+import com.skycstech.graphclient.sample.service.Book;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Books query with a tunable payload size, latency and error rate, used as the server of the load test harness.
+ */
+@Controller
+@RequiredArgsConstructor
+public class FixtureController {
+
+    private final FixtureProperties properties;
+
+    @QueryMapping
+    public Mono<List<Book>> books(@Argument Integer count) {
+        int size = count != null ? count : properties.getPayloadSize();
+        Mono<List<Book>> books = Mono.fromSupplier(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < properties.getErrorRate()) {
+                throw new IllegalStateException("Injected fixture error");
+            }
+            return Book.generate(size);
+        });
+        Duration latency = latency();
+        return latency.isZero() ? books : books.delaySubscription(latency);
+    }
+
+    private Duration latency() {
+        long jitterNanos = properties.getLatencyJitter().toNanos();
+        if (jitterNanos <= 0) {
+            return properties.getLatency();
+        }
+        return properties.getLatency().plusNanos(ThreadLocalRandom.current().nextLong(jitterNanos + 1));
+    }
+}
@@ -0,0 +1,33 @@
+package com.skycstech.graphclient.sample.fixture;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "fixture")
+public class FixtureProperties {
+
+    /**
+     * Number of books returned by the books query when no count is given.
+     */
+    private int payloadSize = 10;
+
+    /**
+     * Delay added to every books query, without holding a server thread.
+     */
+    private Duration latency = Duration.ZERO;
+
+    /**
+     * Upper bound of a uniformly distributed random delay added to the latency.
+     */
+    private Duration latencyJitter = Duration.ZERO;
+
+    /**
+     * Fraction of the books queries answered with a GraphQL error, between 0 and 1.
+     */
+    private double errorRate = 0.0;
+}
@@ -2,6 +2,7 @@ package com.skycstech.graphclient.sample.service;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public record Book(String id, String name, int pageCount, String authorId) {
 
@@ -15,4 +16,10 @@ public record Book(String id, String name, int pageCount, String authorId) {
         return books.stream().filter(book -> book.id().equals(id)).findFirst().orElse(null);
     }
 
+    public static List<Book> generate(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Book("book-" + i, "Book " + i, 100 + i % 900, "author-" + (i % 3 + 1)))
+                .toList();
+    }
+
 }
\ No newline at end of file